@@ -0,0 +1,40 @@
+// Writes .gz and .br copies of the text files in build/ next to the
+// originals, so the backend can send them as they are instead of
+// compressing (or not) on every request.  Runs after `npm run build`.
+
+const fs = require("fs");
+const path = require("path");
+const zlib = require("zlib");
+
+const BUILD_DIR = path.join(__dirname, "..", "build");
+const EXTENSIONS = [".html", ".js", ".css", ".json", ".svg", ".txt"];
+const MIN_SIZE = 1024;
+
+function filesIn(dir) {
+  return fs.readdirSync(dir, { withFileTypes: true }).flatMap((entry) => {
+    const file = path.join(dir, entry.name);
+    return entry.isDirectory() ? filesIn(file) : [file];
+  });
+}
+
+let count = 0;
+filesIn(BUILD_DIR)
+  .filter((file) => EXTENSIONS.includes(path.extname(file)))
+  .forEach((file) => {
+    const body = fs.readFileSync(file);
+    if (body.length < MIN_SIZE) {
+      return;
+    }
+    fs.writeFileSync(file + ".gz", zlib.gzipSync(body, { level: zlib.constants.Z_BEST_COMPRESSION }));
+    fs.writeFileSync(
+      file + ".br",
+      zlib.brotliCompressSync(body, {
+        params: {
+          [zlib.constants.BROTLI_PARAM_QUALITY]: zlib.constants.BROTLI_MAX_QUALITY,
+          [zlib.constants.BROTLI_PARAM_SIZE_HINT]: body.length,
+        },
+      })
+    );
+    count++;
+  });
+console.log(`Compressed ${count} files in ${BUILD_DIR}`);
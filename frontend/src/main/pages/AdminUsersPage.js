@@ -8,8 +8,9 @@ const AdminUsersPage = () => {
     const { data: users, error: _error, status: _status } =
         useBackend(
             // Stryker disable next-line all : don't test internal caching of React Query
-            ["/api/admin/users"],
-            { method: "GET", url: "/api/admin/users" },
+            ["/api/admin/users?stream=true"],
+            // a plain GET is only the first page; the table shows every user
+            { method: "GET", url: "/api/admin/users", params: { stream: true } },
             []
         );
 
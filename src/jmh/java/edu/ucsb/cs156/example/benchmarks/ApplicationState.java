@@ -0,0 +1,97 @@
+package edu.ucsb.cs156.example.benchmarks;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.ucsb.cs156.example.ExampleApplication;
+
+/**
+ * Boots the whole application once per trial against a fresh in-memory H2
+ * database, and drives it through MockMvc with the real security filter chain,
+ * logged in as an admin. Requests therefore pay for security, method security,
+ * the Spring cache, Jackson and Hibernate, but not for the network.
+ */
+
+@State(Scope.Benchmark)
+public class ApplicationState {
+
+  ConfigurableApplicationContext context;
+  MockMvc mockMvc;
+  ObjectMapper mapper;
+
+  @Setup(Level.Trial)
+  public void start() {
+    context = new SpringApplicationBuilder(ExampleApplication.class).run(
+        "--server.port=0",
+        "--spring.datasource.url=jdbc:h2:mem:jmh-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+        "--spring.h2.console.enabled=false",
+        "--logging.level.root=WARN",
+        "--logging.level.sql=WARN",
+        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN");
+    mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context)
+        .apply(springSecurity())
+        .build();
+    mapper = context.getBean(ObjectMapper.class);
+  }
+
+  @TearDown(Level.Trial)
+  public void stop() {
+    context.close();
+  }
+
+  MockHttpServletResponse perform(MockHttpServletRequestBuilder request) throws Exception {
+    MockHttpServletResponse response = mockMvc.perform(request
+        .with(user("admin@ucsb.edu").roles("ADMIN", "USER"))
+        .with(csrf()))
+        .andReturn()
+        .getResponse();
+    if (response.getStatus() != 200) {
+      throw new IllegalStateException("benchmark request failed with status " + response.getStatus()
+          + ": " + response.getContentAsString());
+    }
+    return response;
+  }
+
+  /** the fields of an entity as request parameters for its /post endpoint */
+  MockHttpServletRequestBuilder withFieldsAsParams(MockHttpServletRequestBuilder request, Object entity) {
+    Map<?, ?> fields = mapper.convertValue(entity, Map.class);
+    fields.forEach((name, value) -> {
+      if (!"id".equals(name)) {
+        request.param(name.toString(), value.toString());
+      }
+    });
+    return request;
+  }
+
+  /** inserts rows through the /post endpoint and returns their ids */
+  List<String> seed(BenchmarkEntity entity, int first, int rows) throws Exception {
+    List<String> ids = new ArrayList<>(rows);
+    for (int i = first; i < first + rows; i++) {
+      MockHttpServletResponse response = perform(withFieldsAsParams(post(entity.path + "/post"), entity.sample.apply(i)));
+      ids.add(mapper.readTree(response.getContentAsString()).get(entity.idName()).asText());
+    }
+    return ids;
+  }
+}
@@ -0,0 +1,96 @@
+package edu.ucsb.cs156.example.benchmarks;
+
+import java.time.LocalDateTime;
+import java.util.function.IntFunction;
+
+import org.springframework.data.repository.CrudRepository;
+
+import edu.ucsb.cs156.example.entities.Bike;
+import edu.ucsb.cs156.example.entities.Book;
+import edu.ucsb.cs156.example.entities.Car;
+import edu.ucsb.cs156.example.entities.Hotel;
+import edu.ucsb.cs156.example.entities.Movie;
+import edu.ucsb.cs156.example.entities.Restaurant;
+import edu.ucsb.cs156.example.entities.UCSBDate;
+import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+import edu.ucsb.cs156.example.repositories.BikeRepository;
+import edu.ucsb.cs156.example.repositories.BookRepository;
+import edu.ucsb.cs156.example.repositories.CarRepository;
+import edu.ucsb.cs156.example.repositories.HotelRepository;
+import edu.ucsb.cs156.example.repositories.MovieRepository;
+import edu.ucsb.cs156.example.repositories.RestaurantRepository;
+import edu.ucsb.cs156.example.repositories.UCSBDateRepository;
+import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsRepository;
+
+/**
+ * The entities with CRUD controllers, used as the {@code @Param} of the
+ * benchmarks so each one runs once per table. The sample function builds the
+ * i-th distinct row for that table (without an id, except for dining commons,
+ * whose code is its id).
+ */
+
+public enum BenchmarkEntity {
+  BIKES("/api/bikes", BikeRepository.class, i -> Bike.builder()
+      .manufacturer("Trek")
+      .model("FX " + i)
+      .numGears(i % 30 + 1)
+      .build()),
+  BOOK("/api/book", BookRepository.class, i -> Book.builder()
+      .name("Book " + i)
+      .author("Author " + i % 500)
+      .genre("Genre " + i % 20)
+      .build()),
+  CARS("/api/cars", CarRepository.class, i -> Car.builder()
+      .model("Model " + i)
+      .horsepower(Integer.toString(100 + i % 400))
+      .description("Car number " + i)
+      .build()),
+  HOTELS("/api/hotels", HotelRepository.class, i -> Hotel.builder()
+      .name("Hotel " + i)
+      .address(i + " State St, Santa Barbara, CA 93101")
+      .description("Hotel number " + i)
+      .build()),
+  MOVIES("/api/movies", MovieRepository.class, i -> Movie.builder()
+      .name("Movie " + i)
+      .synopsis("Synopsis of movie number " + i)
+      .castMembers("Actor " + i % 300 + ", Actor " + (i + 1) % 300)
+      .build()),
+  RESTAURANTS("/api/restaurants", RestaurantRepository.class, i -> Restaurant.builder()
+      .name("Restaurant " + i)
+      .address(i + " Embarcadero del Norte, Isla Vista, CA 93117")
+      .description("Restaurant number " + i)
+      .build()),
+  UCSBDATES("/api/ucsbdates", UCSBDateRepository.class, i -> UCSBDate.builder()
+      .quarterYYYYQ(Integer.toString(20221 + i % 4))
+      .name("Date " + i)
+      .localDateTime(LocalDateTime.parse("2022-01-03T00:00:00").plusHours(i))
+      .build()),
+  UCSBDININGCOMMONS("/api/ucsbdiningcommons", UCSBDiningCommonsRepository.class, i -> UCSBDiningCommons.builder()
+      .code("commons-" + i)
+      .name("Commons " + i)
+      .hasSackMeal(i % 2 == 0)
+      .hasTakeOutMeal(i % 3 == 0)
+      .hasDiningCam(true)
+      .latitude(34.409953)
+      .longitude(-119.85277)
+      .build());
+
+  final String path;
+  final Class<? extends CrudRepository<?, ?>> repository;
+  final IntFunction<Object> sample;
+
+  BenchmarkEntity(String path, Class<? extends CrudRepository<?, ?>> repository, IntFunction<Object> sample) {
+    this.path = path;
+    this.repository = repository;
+    this.sample = sample;
+  }
+
+  /** name of the request parameter and JSON property holding the id */
+  String idName() {
+    return this == UCSBDININGCOMMONS ? "code" : "id";
+  }
+
+  Object parseId(String id) {
+    return this == UCSBDININGCOMMONS ? id : Long.valueOf(id);
+  }
+}
@@ -0,0 +1,81 @@
+package edu.ucsb.cs156.example.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * The CPU cost of gzipping an /all response body of each entity at a given
+ * deflate level, against the bytes it saves.  Level 6 is what the server's
+ * own compression uses on every response; level 9 is what
+ * ResponseCacheFilter uses once per stored body.  The compressed size at
+ * the trial's level is printed once per trial; compare the time per
+ * operation with the serializeList time in JacksonBenchmarks.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompressionBenchmarks {
+
+  @Param
+  BenchmarkEntity entity;
+
+  @Param({ "100", "1000" })
+  int rows;
+
+  @Param({ "1", "6", "9" })
+  int level;
+
+  byte[] json;
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    ObjectMapper mapper = Jackson2ObjectMapperBuilder.json()
+        .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .build();
+    List<Object> list = IntStream.range(0, rows)
+        .mapToObj(entity.sample)
+        .collect(Collectors.toList());
+    json = mapper.writeValueAsBytes(list);
+    int gzipped = gzip().length;
+    System.out.printf("%n%s, %d rows, level %d: %d bytes of JSON, %d gzipped (%.1f%% saved)%n",
+        entity, rows, level, json.length, gzipped, 100.0 * (json.length - gzipped) / json.length);
+  }
+
+  @Benchmark
+  public byte[] gzip() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4);
+    try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+      {
+        def.setLevel(level);
+      }
+    }) {
+      gzip.write(json);
+    }
+    return out.toByteArray();
+  }
+}
@@ -0,0 +1,103 @@
+package edu.ucsb.cs156.example.benchmarks;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Requests per second for the CRUD endpoints of every entity controller.
+ *
+ * getById is served from the Spring cache after the first hit on each id;
+ * see RepositoryBenchmarks for the uncached lookup. postBulk reports rows per
+ * second, so it can be compared directly with postOne.
+ */
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ControllerBenchmarks {
+
+  static final int BULK_SIZE = 1000;
+
+  @Param
+  BenchmarkEntity entity;
+
+  @Param({ "100" })
+  int rows;
+
+  List<String> ids;
+  AtomicInteger next;
+
+  @Setup(Level.Trial)
+  public void seed(ApplicationState app) throws Exception {
+    ids = app.seed(entity, 0, rows);
+    next = new AtomicInteger(rows);
+  }
+
+  String randomId() {
+    return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+  }
+
+  @Benchmark
+  public MockHttpServletResponse getById(ApplicationState app) throws Exception {
+    return app.perform(get(entity.path).param(entity.idName(), randomId()));
+  }
+
+  @Benchmark
+  public MockHttpServletResponse all(ApplicationState app) throws Exception {
+    return app.perform(get(entity.path + "/all"));
+  }
+
+  @Benchmark
+  public MockHttpServletResponse postOne(ApplicationState app) throws Exception {
+    return app.perform(app.withFieldsAsParams(
+        post(entity.path + "/post"), entity.sample.apply(next.getAndIncrement())));
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BULK_SIZE)
+  public MockHttpServletResponse postBulk(ApplicationState app) throws Exception {
+    int first = next.getAndAdd(BULK_SIZE);
+    List<Object> batch = IntStream.range(first, first + BULK_SIZE)
+        .mapToObj(entity.sample)
+        .collect(Collectors.toList());
+    return app.perform(post(entity.path + "/bulk")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(app.mapper.writeValueAsString(batch)));
+  }
+
+  /** each call writes new values, so the conditional UPDATE never short-circuits */
+  @Benchmark
+  public MockHttpServletResponse update(ApplicationState app) throws Exception {
+    return app.perform(put(entity.path)
+        .param(entity.idName(), randomId())
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(app.mapper.writeValueAsString(entity.sample.apply(next.getAndIncrement()))));
+  }
+}
@@ -0,0 +1,100 @@
+package edu.ucsb.cs156.example.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Serialization and deserialization of each entity in each response format
+ * (JSON, CBOR, Smile; see MessageConvertersConfig), with an ObjectMapper
+ * configured like the ones Spring Boot gives the controllers.  The payload
+ * size of one row and of a list is printed once per trial, so that time and
+ * bytes can be compared across formats.
+ */
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JacksonBenchmarks {
+
+  static final int LIST_SIZE = 100;
+
+  @Param
+  BenchmarkEntity entity;
+
+  @Param({ "json", "cbor", "smile" })
+  String format;
+
+  ObjectMapper mapper;
+  Object one;
+  List<Object> list;
+  byte[] oneBytes;
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    mapper = Jackson2ObjectMapperBuilder.json()
+        .factory(factory())
+        .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .build();
+    one = entity.sample.apply(1);
+    list = IntStream.range(0, LIST_SIZE)
+        .mapToObj(entity.sample)
+        .collect(Collectors.toList());
+    oneBytes = mapper.writeValueAsBytes(one);
+    System.out.printf("%n%s as %s: one row %d bytes, %d rows %d bytes%n",
+        entity, format, oneBytes.length, LIST_SIZE, mapper.writeValueAsBytes(list).length);
+  }
+
+  private JsonFactory factory() {
+    switch (format) {
+      case "cbor":
+        return new CBORFactory();
+      case "smile":
+        return new SmileFactory();
+      default:
+        return new JsonFactory();
+    }
+  }
+
+  @Benchmark
+  public byte[] serializeOne() throws Exception {
+    return mapper.writeValueAsBytes(one);
+  }
+
+  /** reported per entity, so it shows the per-row cost of serializing /all */
+  @Benchmark
+  @OperationsPerInvocation(LIST_SIZE)
+  public byte[] serializeList() throws Exception {
+    return mapper.writeValueAsBytes(list);
+  }
+
+  @Benchmark
+  public Object deserializeOne() throws Exception {
+    return mapper.readValue(oneBytes, one.getClass());
+  }
+}
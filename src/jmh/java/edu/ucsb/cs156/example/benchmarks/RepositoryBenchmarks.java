@@ -0,0 +1,79 @@
+package edu.ucsb.cs156.example.benchmarks;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * The repository calls behind getById and /all, without the controller, the
+ * Spring cache or serialization in front of them. Entities in a Hibernate
+ * second-level cache region (book, ucsbdates, ucsbdiningcommons) are still
+ * served from that region.
+ *
+ * findAll runs in the repository's read-only transaction;
+ * findAllReadWrite runs the same query inside a read-write transaction, as
+ * every read did before, so that the two can be compared (with -prof gc for
+ * allocation) at larger row counts.
+ */
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RepositoryBenchmarks {
+
+  @Param
+  BenchmarkEntity entity;
+
+  @Param({ "100" })
+  int rows;
+
+  CrudRepository<Object, Object> repository;
+  List<Object> ids;
+  TransactionTemplate readWrite;
+
+  @SuppressWarnings("unchecked")
+  @Setup(Level.Trial)
+  public void seed(ApplicationState app) throws Exception {
+    repository = (CrudRepository<Object, Object>) app.context.getBean(entity.repository);
+    ids = app.seed(entity, 0, rows).stream()
+        .map(entity::parseId)
+        .collect(Collectors.toList());
+    readWrite = new TransactionTemplate(app.context.getBean(PlatformTransactionManager.class));
+  }
+
+  @Benchmark
+  public Optional<Object> findById() {
+    return repository.findById(ids.get(ThreadLocalRandom.current().nextInt(ids.size())));
+  }
+
+  @Benchmark
+  public Iterable<Object> findAll() {
+    return repository.findAll();
+  }
+
+  @Benchmark
+  public Iterable<Object> findAllReadWrite() {
+    return readWrite.execute(status -> repository.findAll());
+  }
+}
@@ -20,7 +20,7 @@ import java.util.Optional;
 @Component
 public class LoggingAspect {
   // language=PointcutExpression
-  private static final String pointcut = """
+  static final String pointcut = """
       @annotation(org.springframework.web.bind.annotation.RequestMapping) ||
       @annotation(org.springframework.web.bind.annotation.GetMapping) ||
       @annotation(org.springframework.web.bind.annotation.PostMapping) ||
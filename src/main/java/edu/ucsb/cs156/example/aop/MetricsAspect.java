@@ -0,0 +1,102 @@
+package edu.ucsb.cs156.example.aop;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the latency (with p50/p95/p99 percentiles), call count and
+ * exception count of every controller method in the Micrometer registry.
+ *
+ * A StreamingResponseBody (bare or in a ResponseEntity) is only written
+ * after the controller method has returned, so for those the timer is
+ * stopped, and a failure counted, when the body has been written.
+ *
+ * The aspect is only created when app.metrics.endpoints.enabled=true;
+ * otherwise controller calls are not intercepted at all.
+ */
+
+@Slf4j
+@Aspect
+@Component
+@ConditionalOnProperty(name = "app.metrics.endpoints.enabled", havingValue = "true")
+public class MetricsAspect {
+  public static final String LATENCY_METRIC = "app.endpoint.latency";
+  public static final String ERROR_METRIC = "app.endpoint.errors";
+
+  @Autowired
+  MeterRegistry meterRegistry;
+
+  private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+  @Around(LoggingAspect.pointcut)
+  public Object timeControllers(ProceedingJoinPoint joinPoint) throws Throwable {
+    Signature signature = joinPoint.getSignature();
+    String controller = signature.getDeclaringType().getSimpleName();
+    String method = signature.getName();
+    long start = System.nanoTime();
+    boolean streaming = false;
+    try {
+      Object result = joinPoint.proceed();
+      if (result instanceof StreamingResponseBody body) {
+        streaming = true;
+        return timedWhileWritten(body, controller, method, start);
+      }
+      if (result instanceof ResponseEntity<?> entity && entity.getBody() instanceof StreamingResponseBody body) {
+        streaming = true;
+        return ResponseEntity.status(entity.getStatusCodeValue())
+            .headers(entity.getHeaders())
+            .body(timedWhileWritten(body, controller, method, start));
+      }
+      return result;
+    } catch (Throwable t) {
+      countError(controller, method, t);
+      throw t;
+    } finally {
+      if (!streaming) {
+        timer(controller, method).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      }
+    }
+  }
+
+  private StreamingResponseBody timedWhileWritten(StreamingResponseBody body, String controller, String method, long start) {
+    return outputStream -> {
+      try {
+        body.writeTo(outputStream);
+      } catch (Throwable t) {
+        countError(controller, method, t);
+        throw t;
+      } finally {
+        timer(controller, method).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      }
+    };
+  }
+
+  private void countError(String controller, String method, Throwable t) {
+    meterRegistry.counter(ERROR_METRIC,
+        "controller", controller,
+        "method", method,
+        "exception", t.getClass().getSimpleName()).increment();
+  }
+
+  private Timer timer(String controller, String method) {
+    return timers.computeIfAbsent(controller + "." + method, key -> Timer.builder(LATENCY_METRIC)
+        .tag("controller", controller)
+        .tag("method", method)
+        .publishPercentiles(0.5, 0.95, 0.99)
+        .register(meterRegistry));
+  }
+}
@@ -0,0 +1,66 @@
+package edu.ucsb.cs156.example.config;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import edu.ucsb.cs156.example.services.CacheStatsService;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-process caches used by the @Cacheable getById endpoints.
+ *
+ * Each cache is a bounded Caffeine cache (W-TinyLFU eviction) built from
+ * app.cache.specs.&lt;name&gt; if that property is set, and from
+ * app.cache.defaultSpec otherwise.  Caches are named after their collection
+ * (the path segment after /api/), so LocalCacheService can empty one when
+ * another server changes that collection.  Every cache records statistics and is
+ * registered with the CacheStatsService, so its hit rate is reported
+ * by /api/systemInfo/caches.
+ *
+ * Caching advice runs after method security (see SecurityConfig), so
+ * @PreAuthorize is still checked on a cache hit.
+ */
+
+@Slf4j
+@Configuration
+@EnableCaching
+public class CachingConfig {
+
+    @Autowired
+    CacheStatsService cacheStatsService;
+
+    @Value("${app.cache.defaultSpec:maximumSize=1000,expireAfterWrite=10m}")
+    String defaultSpec;
+
+    @Bean
+    public CacheManager cacheManager(Environment environment) {
+        Map<String, String> specs = Binder.get(environment)
+                .bind("app.cache.specs", Bindable.mapOf(String.class, String.class))
+                .orElse(Collections.emptyMap());
+
+        return new CaffeineCacheManager() {
+            @Override
+            protected Cache<Object, Object> createNativeCaffeineCache(String name) {
+                String spec = specs.getOrDefault(name, defaultSpec);
+                log.info("creating cache {} with spec {}", name, spec);
+                Cache<Object, Object> cache = Caffeine.from(spec).recordStats().build();
+                cacheStatsService.register(name, cache);
+                return cache;
+            }
+        };
+    }
+}
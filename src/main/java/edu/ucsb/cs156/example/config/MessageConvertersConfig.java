@@ -0,0 +1,37 @@
+package edu.ucsb.cs156.example.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Lets every API endpoint answer in CBOR (Accept: application/cbor) or
+ * Smile (Accept: application/x-jackson-smile) as well as JSON, for our
+ * service-to-service callers; request bodies may use them too.
+ *
+ * Both converters get an ObjectMapper from Spring Boot's
+ * Jackson2ObjectMapperBuilder, so they write the same properties as JSON,
+ * with the same spring.jackson settings.  Spring Boot puts each one in place
+ * of the default converter of the same type, which comes after the JSON
+ * converter, so JSON is still what a request gets when it does not ask for
+ * a binary format.
+ */
+
+@Configuration
+public class MessageConvertersConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
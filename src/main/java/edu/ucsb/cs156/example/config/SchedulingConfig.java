@@ -0,0 +1,11 @@
+package edu.ucsb.cs156.example.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Runs @Scheduled methods, e.g. AdminDirectoryImpl re-reading the admin emails file.
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,50 @@
+package edu.ucsb.cs156.example.config;
+
+import java.time.Duration;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+
+/**
+ * Serves the React bundle under /static/ (the files create-react-app names
+ * with a content hash, e.g. main.1a2b3c4d.js) as immutable for a year, so
+ * browsers never ask for them again; a new build changes the names.
+ *
+ * EncodedResourceResolver sends the .br or .gz copy that
+ * frontend/scripts/compress.js writes next to each file at build time,
+ * whichever the client accepts, instead of the original.
+ *
+ * index.html and the other unhashed files in public/ keep Spring Boot's
+ * default handling; see FrontendController for index.html.
+ */
+
+@Profile("!development")
+@Configuration
+public class StaticResourcesConfig implements WebMvcConfigurer {
+
+  static final Duration HASHED_MAX_AGE = Duration.ofDays(365);
+
+  @Override
+  public void addResourceHandlers(ResourceHandlerRegistry registry) {
+    registry.addResourceHandler("/static/**")
+        .addResourceLocations("classpath:/public/static/")
+        .setCacheControl(immutable(HASHED_MAX_AGE))
+        .resourceChain(true)
+        .addResolver(new EncodedResourceResolver());
+  }
+
+  // CacheControl has no immutable() until Spring 6.
+  static CacheControl immutable(Duration maxAge) {
+    CacheControl cacheControl = CacheControl.maxAge(maxAge).cachePublic();
+    return new CacheControl() {
+      @Override
+      public String getHeaderValue() {
+        return cacheControl.getHeaderValue() + ", immutable";
+      }
+    };
+  }
+}
@@ -0,0 +1,43 @@
+package edu.ucsb.cs156.example.controllers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import edu.ucsb.cs156.example.services.AdminDirectory;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+@Api(description="Emails that are always given the admin role (admin only)")
+@RequestMapping("/api/admin/adminEmails")
+@RestController
+public class AdminEmailsController extends ApiController {
+    @Autowired
+    AdminDirectory adminDirectory;
+
+    @ApiOperation(value = "List the emails that are always given the admin role")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("")
+    public SortedSet<String> adminEmails() {
+        return new TreeSet<>(adminDirectory.getAdminEmails());
+    }
+
+    @ApiOperation(value = "Replace the emails that are always given the admin role, without a restart "
+            + "(only when app.admin.emailsFile is set; 409 otherwise)")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PutMapping("")
+    public SortedSet<String> replaceAdminEmails(
+            @ApiParam("the complete new list of admin emails") @RequestBody List<String> emails) {
+        adminDirectory.setAdminEmails(emails);
+        return new TreeSet<>(adminDirectory.getAdminEmails());
+    }
+}
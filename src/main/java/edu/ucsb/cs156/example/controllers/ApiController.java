@@ -1,17 +1,26 @@
 package edu.ucsb.cs156.example.controllers;
 
+import edu.ucsb.cs156.example.errors.AdminEmailsNotEditableException;
+import edu.ucsb.cs156.example.errors.AdminEmailsNotSavedException;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.errors.UnknownFieldsException;
 import net.bytebuddy.implementation.bytecode.Throw;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 
 import edu.ucsb.cs156.example.models.CurrentUser;
+import edu.ucsb.cs156.example.models.KeysetPage;
 import edu.ucsb.cs156.example.services.CurrentUserService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
+import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 @Slf4j
 public abstract class ApiController {
@@ -26,6 +35,31 @@ public abstract class ApiController {
     return Map.of("message", message);
   }
 
+  @Value("${app.pagination.maxLimit:1000}")
+  private int maxPageLimit;
+
+  protected int pageLimit(int limit) {
+    return Math.max(1, Math.min(limit, maxPageLimit));
+  }
+
+  // Asks for one row more than the page holds, so that keysetPage
+  // can tell whether there is a next page without a count query.
+  protected Pageable keysetPageable(int limit) {
+    return PageRequest.of(0, pageLimit(limit) + 1);
+  }
+
+  protected <T, K> KeysetPage<T, K> keysetPage(List<T> rows, int limit, Function<T, K> cursorOf) {
+    int size = pageLimit(limit);
+    if (rows.size() <= size) {
+      return KeysetPage.<T, K>builder().content(rows).build();
+    }
+    List<T> content = rows.subList(0, size);
+    return KeysetPage.<T, K>builder()
+      .content(content)
+      .nextCursor(cursorOf.apply(content.get(size - 1)))
+      .build();
+  }
+
   @ExceptionHandler({ EntityNotFoundException.class })
   @ResponseStatus(HttpStatus.NOT_FOUND)
   public Object handleGenericException(Throwable e) {
@@ -34,4 +68,32 @@ public abstract class ApiController {
       "message", e.getMessage()
     );
   }
+
+  @ExceptionHandler({ UnknownFieldsException.class })
+  @ResponseStatus(HttpStatus.BAD_REQUEST)
+  public Object handleBadRequest(Throwable e) {
+    return Map.of(
+      "type", e.getClass().getSimpleName(),
+      "message", e.getMessage()
+    );
+  }
+
+  @ExceptionHandler({ AdminEmailsNotEditableException.class })
+  @ResponseStatus(HttpStatus.CONFLICT)
+  public Object handleConflict(Throwable e) {
+    return Map.of(
+      "type", e.getClass().getSimpleName(),
+      "message", e.getMessage()
+    );
+  }
+
+  @ExceptionHandler({ AdminEmailsNotSavedException.class })
+  @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
+  public Object handleNotSaved(Throwable e) {
+    log.error("{}", e.getMessage());
+    return Map.of(
+      "type", e.getClass().getSimpleName(),
+      "message", e.getMessage()
+    );
+  }
 }
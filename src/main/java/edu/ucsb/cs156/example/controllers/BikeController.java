@@ -4,6 +4,10 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import edu.ucsb.cs156.example.entities.Bike;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
 import edu.ucsb.cs156.example.repositories.BikeRepository;
+import edu.ucsb.cs156.example.models.KeysetPage;
+import edu.ucsb.cs156.example.services.JsonStreamingService;
+import edu.ucsb.cs156.example.services.BulkSaveService;
+import edu.ucsb.cs156.example.services.ProjectionService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
@@ -11,27 +15,88 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 
 import javax.validation.Valid;
 
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.Map;
+
 @Api(description = "Bike")
 @RequestMapping("/api/bikes")
 @RestController
 @Slf4j
+@CacheConfig(cacheNames = "bikes")
 public class BikeController extends ApiController {
 
     @Autowired
     BikeRepository bikeRepository;
 
+    @Autowired
+    JsonStreamingService jsonStreamingService;
+
+    @Autowired
+    BulkSaveService bulkSaveService;
+
+    @Autowired
+    ProjectionService projectionService;
+
     @ApiOperation(value = "List all bikes")
     @PreAuthorize("hasRole('ROLE_USER')")
-    @GetMapping("/all")
+    @GetMapping(value = "/all", params = { "!limit", "!fields", "stream!=true" })
     public Iterable<Bike> allBikes() {
         return bikeRepository.findAll();
     }
 
+    @ApiOperation(value = "Stream all bikes as a JSON array, for exports of the whole table")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = { "stream=true", "!limit", "!fields" })
+    public ResponseEntity<StreamingResponseBody> streamBikes() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(jsonStreamingService.streamJsonArray(bikeRepository::streamAll));
+    }
+
+    @ApiOperation(value = "List bikes one page at a time, ordered by id")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = { "limit", "!fields", "stream!=true" })
+    public KeysetPage<Bike, Long> pageOfBikes(
+            @ApiParam("return bikes with id greater than this cursor") @RequestParam(defaultValue = "0") long after,
+            @ApiParam("maximum number of bikes to return") @RequestParam int limit) {
+        List<Bike> bikes = bikeRepository.findByIdGreaterThanOrderByIdAsc(after, keysetPageable(limit));
+        return keysetPage(bikes, limit, Bike::getId);
+    }
+
+    @ApiOperation(value = "List all bikes with only the given fields")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = { "fields", "!limit", "stream!=true" })
+    public List<Map<String, Object>> allBikesWithFields(
+            @ApiParam("comma separated fields to return; id is always returned") @RequestParam List<String> fields) {
+        return projectionService.findAll(Bike.class, fields);
+    }
+
+    @ApiOperation(value = "List bikes one page at a time with only the given fields, ordered by id")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = { "fields", "limit", "stream!=true" })
+    public KeysetPage<Map<String, Object>, Long> pageOfBikesWithFields(
+            @ApiParam("comma separated fields to return; id is always returned") @RequestParam List<String> fields,
+            @ApiParam("return bikes with id greater than this cursor") @RequestParam(defaultValue = "0") long after,
+            @ApiParam("maximum number of bikes to return") @RequestParam int limit) {
+        List<Map<String, Object>> rows = projectionService.findAfter(Bike.class, fields, after, keysetPageable(limit).getPageSize());
+        return keysetPage(rows, limit, row -> (Long) row.get("id"));
+    }
+
     @ApiOperation(value = "Get a single bike")
     @PreAuthorize("hasRole('ROLE_USER')")
+    @Cacheable(key = "#id")
     @GetMapping("")
     public Bike getById(
             @ApiParam("id") @RequestParam Long id) {
@@ -57,8 +122,20 @@ public class BikeController extends ApiController {
         return bikeRepository.save(bike);
     }
 
+    @ApiOperation(value = "Create many bikes at once from a JSON array, returning their new ids")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping("/bulk")
+    public List<Long> postBulkBikes(
+            @ApiParam("bikes to create; any ids supplied are ignored") @RequestBody List<Bike> bikes) {
+        bikes.forEach(bike -> bike.setId(0));
+        return bulkSaveService.saveInChunks(bikeRepository, bikes).stream()
+                .map(Bike::getId)
+                .collect(Collectors.toList());
+    }
+
     @ApiOperation(value = "Update a single bike")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @CacheEvict(key = "#id")
     @PutMapping("")
     public Bike bike(
             @ApiParam("id") @RequestParam Long id,
@@ -71,20 +148,46 @@ public class BikeController extends ApiController {
         bike.setModel(incoming.getModel());
         bike.setNumGears(incoming.getNumGears());
 
-        bikeRepository.save(bike);
+        // one conditional UPDATE, which writes nothing when the stored values
+        // are already these; the response is the stored row with them set
+        bikeRepository.updateById(id, incoming.getManufacturer(), incoming.getModel(), incoming.getNumGears());
 
         return bike;
     }
 
     @ApiOperation(value = "Delete a Bike")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @CacheEvict(key = "#id")
     @DeleteMapping("")
     public Object deleteBike(
             @ApiParam("code") @RequestParam Long id) {
-        Bike bike = bikeRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(Bike.class, id));
-
-        bikeRepository.delete(bike);
+        if (bikeRepository.removeById(id) == 0) {
+            throw new EntityNotFoundException(Bike.class, id);
+        }
         return genericMessage("Bike with id %s deleted".formatted(id));
     }
+
+    @ApiOperation(value = "Delete many bikes in one statement, reporting any ids that did not exist")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @CacheEvict(allEntries = true)
+    @DeleteMapping("/bulk")
+    public Object deleteBulkBikes(
+            @ApiParam("comma separated ids") @RequestParam List<Long> ids) {
+        if (ids.isEmpty()) {
+            // nothing to look up, and "IN ()" is a syntax error on Postgres
+            return Map.of(
+                    "message", "0 bikes deleted",
+                    "missing", List.of());
+        }
+        List<Long> found = bikeRepository.findIdsByIdIn(ids);
+        Set<Long> present = new HashSet<>(found);
+        List<Long> missing = ids.stream()
+                .filter(id -> !present.contains(id))
+                .distinct()
+                .collect(Collectors.toList());
+        int deleted = found.isEmpty() ? 0 : bikeRepository.removeAllByIdIn(found);
+        return Map.of(
+                "message", "%d bikes deleted".formatted(deleted),
+                "missing", missing);
+    }
 }
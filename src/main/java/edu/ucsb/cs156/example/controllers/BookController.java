@@ -3,6 +3,10 @@ package edu.ucsb.cs156.example.controllers;
 import edu.ucsb.cs156.example.entities.Book;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
 import edu.ucsb.cs156.example.repositories.BookRepository;
+import edu.ucsb.cs156.example.models.KeysetPage;
+import edu.ucsb.cs156.example.services.JsonStreamingService;
+import edu.ucsb.cs156.example.services.BulkSaveService;
+import edu.ucsb.cs156.example.services.ProjectionService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
@@ -18,29 +22,90 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 
 import javax.validation.Valid;
 
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.Map;
+
 
 @Api(description = "Book")
 @RequestMapping("/api/book")
 @RestController
 @Slf4j
+@CacheConfig(cacheNames = "book")
 public class BookController extends ApiController {
 
     @Autowired
     BookRepository bookRepository;
 
+    @Autowired
+    JsonStreamingService jsonStreamingService;
+
+    @Autowired
+    BulkSaveService bulkSaveService;
+
+    @Autowired
+    ProjectionService projectionService;
+
     @ApiOperation(value = "List all books")
     @PreAuthorize("hasRole('ROLE_USER')")
-    @GetMapping("/all")
+    @GetMapping(value = "/all", params = { "!limit", "!fields", "stream!=true" })
     public Iterable<Book> allBooks() {
         Iterable<Book> books = bookRepository.findAll();
         return books;
     }
 
+    @ApiOperation(value = "Stream all books as a JSON array, for exports of the whole table")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = { "stream=true", "!limit", "!fields" })
+    public ResponseEntity<StreamingResponseBody> streamBooks() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(jsonStreamingService.streamJsonArray(bookRepository::streamAll));
+    }
+
+    @ApiOperation(value = "List books one page at a time, ordered by id")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = { "limit", "!fields", "stream!=true" })
+    public KeysetPage<Book, Long> pageOfBooks(
+            @ApiParam("return books with id greater than this cursor") @RequestParam(defaultValue = "0") long after,
+            @ApiParam("maximum number of books to return") @RequestParam int limit) {
+        List<Book> books = bookRepository.findByIdGreaterThanOrderByIdAsc(after, keysetPageable(limit));
+        return keysetPage(books, limit, Book::getId);
+    }
+
+    @ApiOperation(value = "List all books with only the given fields")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = { "fields", "!limit", "stream!=true" })
+    public List<Map<String, Object>> allBooksWithFields(
+            @ApiParam("comma separated fields to return; id is always returned") @RequestParam List<String> fields) {
+        return projectionService.findAll(Book.class, fields);
+    }
+
+    @ApiOperation(value = "List books one page at a time with only the given fields, ordered by id")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = { "fields", "limit", "stream!=true" })
+    public KeysetPage<Map<String, Object>, Long> pageOfBooksWithFields(
+            @ApiParam("comma separated fields to return; id is always returned") @RequestParam List<String> fields,
+            @ApiParam("return books with id greater than this cursor") @RequestParam(defaultValue = "0") long after,
+            @ApiParam("maximum number of books to return") @RequestParam int limit) {
+        List<Map<String, Object>> rows = projectionService.findAfter(Book.class, fields, after, keysetPageable(limit).getPageSize());
+        return keysetPage(rows, limit, row -> (Long) row.get("id"));
+    }
+
     @ApiOperation(value = "Get a single book")
     @PreAuthorize("hasRole('ROLE_USER')")
+    @Cacheable(key = "#id")
     @GetMapping("")
     public Book getById(
             @ApiParam("id") @RequestParam Long id) {
@@ -68,8 +133,20 @@ public class BookController extends ApiController {
 
         return savedBook;
     }
+
+    @ApiOperation(value = "Create many books at once from a JSON array, returning their new ids")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping("/bulk")
+    public List<Long> postBulkBooks(
+            @ApiParam("books to create; any ids supplied are ignored") @RequestBody List<Book> books) {
+        books.forEach(book -> book.setId(0));
+        return bulkSaveService.saveInChunks(bookRepository, books).stream()
+                .map(Book::getId)
+                .collect(Collectors.toList());
+    }
     @ApiOperation(value = "Update a single book")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @CacheEvict(key = "#id")
     @PutMapping("")
     public Book updateBooks(
             @ApiParam("id") @RequestParam Long id,
@@ -83,20 +160,46 @@ public class BookController extends ApiController {
         books.setAuthor(incoming.getAuthor());
         books.setGenre(incoming.getGenre());
 
-        bookRepository.save(books);
+        // one conditional UPDATE, which writes nothing when the stored values
+        // are already these; the response is the stored row with them set
+        bookRepository.updateById(id, incoming.getName(), incoming.getAuthor(), incoming.getGenre());
 
         return books;
     }
 
     @ApiOperation(value = "Delete a book")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @CacheEvict(key = "#id")
     @DeleteMapping("")
     public Object deleteBook(
             @ApiParam("code") @RequestParam Long id) {
-        Book books = bookRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(Book.class, id));
-
-        bookRepository.delete(books);
+        if (bookRepository.removeById(id) == 0) {
+            throw new EntityNotFoundException(Book.class, id);
+        }
         return genericMessage("Book with id %s deleted".formatted(id));
     }
+
+    @ApiOperation(value = "Delete many books in one statement, reporting any ids that did not exist")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @CacheEvict(allEntries = true)
+    @DeleteMapping("/bulk")
+    public Object deleteBulkBooks(
+            @ApiParam("comma separated ids") @RequestParam List<Long> ids) {
+        if (ids.isEmpty()) {
+            // nothing to look up, and "IN ()" is a syntax error on Postgres
+            return Map.of(
+                    "message", "0 books deleted",
+                    "missing", List.of());
+        }
+        List<Long> found = bookRepository.findIdsByIdIn(ids);
+        Set<Long> present = new HashSet<>(found);
+        List<Long> missing = ids.stream()
+                .filter(id -> !present.contains(id))
+                .distinct()
+                .collect(Collectors.toList());
+        int deleted = found.isEmpty() ? 0 : bookRepository.removeAllByIdIn(found);
+        return Map.of(
+                "message", "%d books deleted".formatted(deleted),
+                "missing", missing);
+    }
 }
@@ -12,34 +12,99 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 
 import edu.ucsb.cs156.example.entities.Car;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
 import edu.ucsb.cs156.example.repositories.CarRepository;
+import edu.ucsb.cs156.example.models.KeysetPage;
+import edu.ucsb.cs156.example.services.JsonStreamingService;
+import edu.ucsb.cs156.example.services.BulkSaveService;
+import edu.ucsb.cs156.example.services.ProjectionService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
 
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.Map;
+
 @Api(description = "cars")
 @RequestMapping("/api/cars")
 @RestController
+@CacheConfig(cacheNames = "cars")
 public class CarController extends ApiController {
 
     @Autowired
     CarRepository carRepository;
 
+    @Autowired
+    JsonStreamingService jsonStreamingService;
+
+    @Autowired
+    BulkSaveService bulkSaveService;
+
+    @Autowired
+    ProjectionService projectionService;
+
     @ApiOperation(value = "List all cars")
     @PreAuthorize("hasRole('ROLE_USER')")
-    @GetMapping("/all")
+    @GetMapping(value = "/all", params = { "!limit", "!fields", "stream!=true" })
     public Iterable<Car> allCars() {
         Iterable<Car> cars = carRepository.findAll();
         return cars;
     }
 
+    @ApiOperation(value = "Stream all cars as a JSON array, for exports of the whole table")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = { "stream=true", "!limit", "!fields" })
+    public ResponseEntity<StreamingResponseBody> streamCars() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(jsonStreamingService.streamJsonArray(carRepository::streamAll));
+    }
+
+    @ApiOperation(value = "List cars one page at a time, ordered by id")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = { "limit", "!fields", "stream!=true" })
+    public KeysetPage<Car, Long> pageOfCars(
+            @ApiParam("return cars with id greater than this cursor") @RequestParam(defaultValue = "0") long after,
+            @ApiParam("maximum number of cars to return") @RequestParam int limit) {
+        List<Car> cars = carRepository.findByIdGreaterThanOrderByIdAsc(after, keysetPageable(limit));
+        return keysetPage(cars, limit, Car::getId);
+    }
+
+    @ApiOperation(value = "List all cars with only the given fields")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = { "fields", "!limit", "stream!=true" })
+    public List<Map<String, Object>> allCarsWithFields(
+            @ApiParam("comma separated fields to return; id is always returned") @RequestParam List<String> fields) {
+        return projectionService.findAll(Car.class, fields);
+    }
+
+    @ApiOperation(value = "List cars one page at a time with only the given fields, ordered by id")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = { "fields", "limit", "stream!=true" })
+    public KeysetPage<Map<String, Object>, Long> pageOfCarsWithFields(
+            @ApiParam("comma separated fields to return; id is always returned") @RequestParam List<String> fields,
+            @ApiParam("return cars with id greater than this cursor") @RequestParam(defaultValue = "0") long after,
+            @ApiParam("maximum number of cars to return") @RequestParam int limit) {
+        List<Map<String, Object>> rows = projectionService.findAfter(Car.class, fields, after, keysetPageable(limit).getPageSize());
+        return keysetPage(rows, limit, row -> (Long) row.get("id"));
+    }
+
     @ApiOperation(value = "Get a single car")
     @PreAuthorize("hasRole('ROLE_USER')")
+    @Cacheable(key = "#id")
     @GetMapping("")
     public Car getById(
             @ApiParam("id") @RequestParam Long id) {
@@ -67,8 +132,20 @@ public class CarController extends ApiController {
             return savedCar;
     }
 
+    @ApiOperation(value = "Create many cars at once from a JSON array, returning their new ids")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping("/bulk")
+    public List<Long> postBulkCars(
+            @ApiParam("cars to create; any ids supplied are ignored") @RequestBody List<Car> cars) {
+        cars.forEach(car -> car.setId(0));
+        return bulkSaveService.saveInChunks(carRepository, cars).stream()
+                .map(Car::getId)
+                .collect(Collectors.toList());
+    }
+
     @ApiOperation(value = "Update a single car")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @CacheEvict(key = "#id")
     @PutMapping("")
     public Car updateCar(
             @ApiParam("id") @RequestParam Long id,
@@ -81,21 +158,47 @@ public class CarController extends ApiController {
         car.setHorsepower(incoming.getHorsepower());
         car.setModel(incoming.getModel());
 
-        carRepository.save(car);
+        // one conditional UPDATE, which writes nothing when the stored values
+        // are already these; the response is the stored row with them set
+        carRepository.updateById(id, incoming.getModel(), incoming.getHorsepower(), incoming.getDescription());
 
         return car;
     }
 
     @ApiOperation(value = "Delete a car")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @CacheEvict(key = "#id")
     @DeleteMapping("")
     public Object deleteCar(
             @ApiParam("id") @RequestParam Long id) {
-        Car car = carRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(Car.class, id));
-
-        carRepository.delete(car);
+        if (carRepository.removeById(id) == 0) {
+            throw new EntityNotFoundException(Car.class, id);
+        }
         return genericMessage("Car with id %s deleted".formatted(id));
     }
+
+    @ApiOperation(value = "Delete many cars in one statement, reporting any ids that did not exist")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @CacheEvict(allEntries = true)
+    @DeleteMapping("/bulk")
+    public Object deleteBulkCars(
+            @ApiParam("comma separated ids") @RequestParam List<Long> ids) {
+        if (ids.isEmpty()) {
+            // nothing to look up, and "IN ()" is a syntax error on Postgres
+            return Map.of(
+                    "message", "0 cars deleted",
+                    "missing", List.of());
+        }
+        List<Long> found = carRepository.findIdsByIdIn(ids);
+        Set<Long> present = new HashSet<>(found);
+        List<Long> missing = ids.stream()
+                .filter(id -> !present.contains(id))
+                .distinct()
+                .collect(Collectors.toList());
+        int deleted = found.isEmpty() ? 0 : carRepository.removeAllByIdIn(found);
+        return Map.of(
+                "message", "%d cars deleted".formatted(deleted),
+                "missing", missing);
+    }
    
 }
@@ -1,16 +1,94 @@
 package edu.ucsb.cs156.example.controllers;
 
+import edu.ucsb.cs156.example.util.AcceptEncoding;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Answers every page of the React app with index.html, from bytes read once
+ * at startup rather than a forward through the resource handler.  The .br
+ * and .gz copies the frontend build writes next to it are kept as well and
+ * sent to clients that accept them.  index.html names the hashed bundles, so
+ * it is sent with no-cache and an ETag: browsers check it on every load and
+ * usually get a 304.
+ */
 
 @Profile("!development")
 @Controller
 public class FrontendController {
-  @GetMapping("/**/{path:[^\\.]*}")
-  public String index() {
-    return "forward:/index.html";
+
+  // Tried in this order; the first one the client accepts is sent.
+  private static final String[] ENCODINGS = { "br", "gzip" };
+  private static final String[] SUFFIXES = { ".br", ".gz" };
+
+  @Value("classpath:/public/index.html")
+  Resource indexHtml;
+
+  private byte[] index;
+  private String indexHash;
+  private final Map<String, byte[]> encodedIndex = new LinkedHashMap<>();
+
+  @PostConstruct
+  void loadIndex() throws IOException {
+    if (!indexHtml.exists()) {
+      return;
+    }
+    index = StreamUtils.copyToByteArray(indexHtml.getInputStream());
+    indexHash = DigestUtils.md5DigestAsHex(index);
+    for (int i = 0; i < ENCODINGS.length; i++) {
+      Resource encoded = indexHtml.createRelative(indexHtml.getFilename() + SUFFIXES[i]);
+      if (encoded.exists()) {
+        encodedIndex.put(ENCODINGS[i], StreamUtils.copyToByteArray(encoded.getInputStream()));
+      }
+    }
+  }
+
+  @GetMapping({ "/", "/**/{path:[^\\.]*}" })
+  public ResponseEntity<byte[]> index(HttpServletRequest request, WebRequest webRequest) {
+    if (index == null) {
+      return ResponseEntity.notFound().build();
+    }
+
+    String encoding = null;
+    for (String candidate : encodedIndex.keySet()) {
+      if (AcceptEncoding.accepts(request, candidate)) {
+        encoding = candidate;
+        break;
+      }
+    }
+    // each encoding is its own representation, so it gets its own tag
+    String etag = "\"" + indexHash + (encoding == null ? "" : "-" + encoding) + "\"";
+    if (webRequest.checkNotModified(etag)) {
+      return null;
+    }
+
+    ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+        .contentType(new MediaType(MediaType.TEXT_HTML, StandardCharsets.UTF_8))
+        .cacheControl(CacheControl.noCache())
+        .varyBy(HttpHeaders.ACCEPT_ENCODING);
+    if (encoding == null) {
+      return builder.body(index);
+    }
+    return builder.header(HttpHeaders.CONTENT_ENCODING, encoding).body(encodedIndex.get(encoding));
   }
 
   @GetMapping("/csrf")
@@ -3,6 +3,10 @@ package edu.ucsb.cs156.example.controllers;
 import edu.ucsb.cs156.example.entities.Hotel;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
 import edu.ucsb.cs156.example.repositories.HotelRepository;
+import edu.ucsb.cs156.example.models.KeysetPage;
+import edu.ucsb.cs156.example.services.JsonStreamingService;
+import edu.ucsb.cs156.example.services.BulkSaveService;
+import edu.ucsb.cs156.example.services.ProjectionService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
@@ -20,27 +24,88 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 
 import javax.validation.Valid;
 
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.Map;
+
 @Api(description = "Hotels")
 @RequestMapping("/api/hotels")
 @RestController
 @Slf4j
+@CacheConfig(cacheNames = "hotels")
 public class HotelsController extends ApiController {
 
     @Autowired
     HotelRepository hotelRepository;
 
+    @Autowired
+    JsonStreamingService jsonStreamingService;
+
+    @Autowired
+    BulkSaveService bulkSaveService;
+
+    @Autowired
+    ProjectionService projectionService;
+
     @ApiOperation(value = "List all hotels")
     @PreAuthorize("hasRole('ROLE_USER')")
-    @GetMapping("/all")
+    @GetMapping(value = "/all", params = { "!limit", "!fields", "stream!=true" })
     public Iterable<Hotel> allHotels() {
         return hotelRepository.findAll();
     }
 
+    @ApiOperation(value = "Stream all hotels as a JSON array, for exports of the whole table")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = { "stream=true", "!limit", "!fields" })
+    public ResponseEntity<StreamingResponseBody> streamHotels() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(jsonStreamingService.streamJsonArray(hotelRepository::streamAll));
+    }
+
+    @ApiOperation(value = "List hotels one page at a time, ordered by id")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = { "limit", "!fields", "stream!=true" })
+    public KeysetPage<Hotel, Long> pageOfHotels(
+            @ApiParam("return hotels with id greater than this cursor") @RequestParam(defaultValue = "0") long after,
+            @ApiParam("maximum number of hotels to return") @RequestParam int limit) {
+        List<Hotel> hotels = hotelRepository.findByIdGreaterThanOrderByIdAsc(after, keysetPageable(limit));
+        return keysetPage(hotels, limit, Hotel::getId);
+    }
+
+    @ApiOperation(value = "List all hotels with only the given fields")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = { "fields", "!limit", "stream!=true" })
+    public List<Map<String, Object>> allHotelsWithFields(
+            @ApiParam("comma separated fields to return; id is always returned") @RequestParam List<String> fields) {
+        return projectionService.findAll(Hotel.class, fields);
+    }
+
+    @ApiOperation(value = "List hotels one page at a time with only the given fields, ordered by id")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = { "fields", "limit", "stream!=true" })
+    public KeysetPage<Map<String, Object>, Long> pageOfHotelsWithFields(
+            @ApiParam("comma separated fields to return; id is always returned") @RequestParam List<String> fields,
+            @ApiParam("return hotels with id greater than this cursor") @RequestParam(defaultValue = "0") long after,
+            @ApiParam("maximum number of hotels to return") @RequestParam int limit) {
+        List<Map<String, Object>> rows = projectionService.findAfter(Hotel.class, fields, after, keysetPageable(limit).getPageSize());
+        return keysetPage(rows, limit, row -> (Long) row.get("id"));
+    }
+
     @ApiOperation(value = "Get a single hotel")
     @PreAuthorize("hasRole('ROLE_USER')")
+    @Cacheable(key = "#id")
     @GetMapping("")
     public Hotel getById(
         @ApiParam("id") @RequestParam Long id
@@ -66,20 +131,56 @@ public class HotelsController extends ApiController {
         return hotelRepository.save(hotel);
     }
 
+    @ApiOperation(value = "Create many hotels at once from a JSON array, returning their new ids")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping("/bulk")
+    public List<Long> postBulkHotels(
+            @ApiParam("hotels to create; any ids supplied are ignored") @RequestBody List<Hotel> hotels) {
+        hotels.forEach(hotel -> hotel.setId(0));
+        return bulkSaveService.saveInChunks(hotelRepository, hotels).stream()
+                .map(Hotel::getId)
+                .collect(Collectors.toList());
+    }
+
     @ApiOperation(value = "Delete a Hotel")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @CacheEvict(key = "#id")
     @DeleteMapping("")
     public Object deleteHotel(
             @ApiParam("id") @RequestParam Long id) {
-        Hotel hotel = hotelRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(Hotel.class, id));
-
-        hotelRepository.delete(hotel);
+        if (hotelRepository.removeById(id) == 0) {
+            throw new EntityNotFoundException(Hotel.class, id);
+        }
         return genericMessage("Hotel with id %s deleted".formatted(id));
     }
 
+    @ApiOperation(value = "Delete many hotels in one statement, reporting any ids that did not exist")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @CacheEvict(allEntries = true)
+    @DeleteMapping("/bulk")
+    public Object deleteBulkHotels(
+            @ApiParam("comma separated ids") @RequestParam List<Long> ids) {
+        if (ids.isEmpty()) {
+            // nothing to look up, and "IN ()" is a syntax error on Postgres
+            return Map.of(
+                    "message", "0 hotels deleted",
+                    "missing", List.of());
+        }
+        List<Long> found = hotelRepository.findIdsByIdIn(ids);
+        Set<Long> present = new HashSet<>(found);
+        List<Long> missing = ids.stream()
+                .filter(id -> !present.contains(id))
+                .distinct()
+                .collect(Collectors.toList());
+        int deleted = found.isEmpty() ? 0 : hotelRepository.removeAllByIdIn(found);
+        return Map.of(
+                "message", "%d hotels deleted".formatted(deleted),
+                "missing", missing);
+    }
+
     @ApiOperation(value = "Update a single hotel")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @CacheEvict(key = "#id")
     @PutMapping("")
     public Hotel updateHotel(
             @ApiParam("id") @RequestParam Long id,
@@ -92,7 +193,9 @@ public class HotelsController extends ApiController {
         hotel.setAddress(incoming.getAddress());
         hotel.setDescription(incoming.getDescription());
 
-        hotelRepository.save(hotel);
+        // one conditional UPDATE, which writes nothing when the stored values
+        // are already these; the response is the stored row with them set
+        hotelRepository.updateById(id, incoming.getName(), incoming.getAddress(), incoming.getDescription());
 
         return hotel;
     }
@@ -4,6 +4,10 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import edu.ucsb.cs156.example.entities.Movie;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
 import edu.ucsb.cs156.example.repositories.MovieRepository;
+import edu.ucsb.cs156.example.models.KeysetPage;
+import edu.ucsb.cs156.example.services.JsonStreamingService;
+import edu.ucsb.cs156.example.services.BulkSaveService;
+import edu.ucsb.cs156.example.services.ProjectionService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
@@ -11,27 +15,88 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 
 import javax.validation.Valid;
 
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.Map;
+
 @Api(description = "Movie")
 @RequestMapping("/api/movies")
 @RestController
 @Slf4j
+@CacheConfig(cacheNames = "movies")
 public class MovieController extends ApiController {
 
     @Autowired
     MovieRepository movieRepository;
 
+    @Autowired
+    JsonStreamingService jsonStreamingService;
+
+    @Autowired
+    BulkSaveService bulkSaveService;
+
+    @Autowired
+    ProjectionService projectionService;
+
     @ApiOperation(value = "List all movies")
     @PreAuthorize("hasRole('ROLE_USER')")
-    @GetMapping("/all")
+    @GetMapping(value = "/all", params = { "!limit", "!fields", "stream!=true" })
     public Iterable<Movie> allMovies() {
         return movieRepository.findAll();
     }
 
+    @ApiOperation(value = "Stream all movies as a JSON array, for exports of the whole table")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = { "stream=true", "!limit", "!fields" })
+    public ResponseEntity<StreamingResponseBody> streamMovies() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(jsonStreamingService.streamJsonArray(movieRepository::streamAll));
+    }
+
+    @ApiOperation(value = "List movies one page at a time, ordered by id")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = { "limit", "!fields", "stream!=true" })
+    public KeysetPage<Movie, Long> pageOfMovies(
+            @ApiParam("return movies with id greater than this cursor") @RequestParam(defaultValue = "0") long after,
+            @ApiParam("maximum number of movies to return") @RequestParam int limit) {
+        List<Movie> movies = movieRepository.findByIdGreaterThanOrderByIdAsc(after, keysetPageable(limit));
+        return keysetPage(movies, limit, Movie::getId);
+    }
+
+    @ApiOperation(value = "List all movies with only the given fields")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = { "fields", "!limit", "stream!=true" })
+    public List<Map<String, Object>> allMoviesWithFields(
+            @ApiParam("comma separated fields to return; id is always returned") @RequestParam List<String> fields) {
+        return projectionService.findAll(Movie.class, fields);
+    }
+
+    @ApiOperation(value = "List movies one page at a time with only the given fields, ordered by id")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = { "fields", "limit", "stream!=true" })
+    public KeysetPage<Map<String, Object>, Long> pageOfMoviesWithFields(
+            @ApiParam("comma separated fields to return; id is always returned") @RequestParam List<String> fields,
+            @ApiParam("return movies with id greater than this cursor") @RequestParam(defaultValue = "0") long after,
+            @ApiParam("maximum number of movies to return") @RequestParam int limit) {
+        List<Map<String, Object>> rows = projectionService.findAfter(Movie.class, fields, after, keysetPageable(limit).getPageSize());
+        return keysetPage(rows, limit, row -> (Long) row.get("id"));
+    }
+
     @ApiOperation(value = "Get a single movie")
     @PreAuthorize("hasRole('ROLE_USER')")
+    @Cacheable(key = "#id")
     @GetMapping("")
     public Movie getById(
             @ApiParam("id") @RequestParam Long id) {
@@ -57,8 +122,20 @@ public class MovieController extends ApiController {
         return movieRepository.save(movie);
     }
 
+    @ApiOperation(value = "Create many movies at once from a JSON array, returning their new ids")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping("/bulk")
+    public List<Long> postBulkMovies(
+            @ApiParam("movies to create; any ids supplied are ignored") @RequestBody List<Movie> movies) {
+        movies.forEach(movie -> movie.setId(0));
+        return bulkSaveService.saveInChunks(movieRepository, movies).stream()
+                .map(Movie::getId)
+                .collect(Collectors.toList());
+    }
+
     @ApiOperation(value = "Update a single movie")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @CacheEvict(key = "#id")
     @PutMapping("")
     public Movie movie(
             @ApiParam("id") @RequestParam Long id,
@@ -71,20 +148,46 @@ public class MovieController extends ApiController {
         movie.setSynopsis(incoming.getSynopsis());
         movie.setCastMembers(incoming.getCastMembers());
 
-        movieRepository.save(movie);
+        // one conditional UPDATE, which writes nothing when the stored values
+        // are already these; the response is the stored row with them set
+        movieRepository.updateById(id, incoming.getName(), incoming.getSynopsis(), incoming.getCastMembers());
 
         return movie;
     }
 
     @ApiOperation(value = "Delete a Movie")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @CacheEvict(key = "#id")
     @DeleteMapping("")
     public Object deleteMovie(
             @ApiParam("code") @RequestParam Long id) {
-        Movie movie = movieRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(Movie.class, id));
-
-        movieRepository.delete(movie);
+        if (movieRepository.removeById(id) == 0) {
+            throw new EntityNotFoundException(Movie.class, id);
+        }
         return genericMessage("Movie with id %s deleted".formatted(id));
     }
+
+    @ApiOperation(value = "Delete many movies in one statement, reporting any ids that did not exist")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @CacheEvict(allEntries = true)
+    @DeleteMapping("/bulk")
+    public Object deleteBulkMovies(
+            @ApiParam("comma separated ids") @RequestParam List<Long> ids) {
+        if (ids.isEmpty()) {
+            // nothing to look up, and "IN ()" is a syntax error on Postgres
+            return Map.of(
+                    "message", "0 movies deleted",
+                    "missing", List.of());
+        }
+        List<Long> found = movieRepository.findIdsByIdIn(ids);
+        Set<Long> present = new HashSet<>(found);
+        List<Long> missing = ids.stream()
+                .filter(id -> !present.contains(id))
+                .distinct()
+                .collect(Collectors.toList());
+        int deleted = found.isEmpty() ? 0 : movieRepository.removeAllByIdIn(found);
+        return Map.of(
+                "message", "%d movies deleted".formatted(deleted),
+                "missing", missing);
+    }
 }
\ No newline at end of file
@@ -3,6 +3,10 @@ package edu.ucsb.cs156.example.controllers;
 import edu.ucsb.cs156.example.entities.Restaurant;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
 import edu.ucsb.cs156.example.repositories.RestaurantRepository;
+import edu.ucsb.cs156.example.models.KeysetPage;
+import edu.ucsb.cs156.example.services.JsonStreamingService;
+import edu.ucsb.cs156.example.services.BulkSaveService;
+import edu.ucsb.cs156.example.services.ProjectionService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
@@ -10,28 +14,89 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 
 import javax.validation.Valid;
 
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.Map;
+
 @Api(description = "Restaurants")
 @RequestMapping("/api/restaurants")
 @RestController
 @Slf4j
+@CacheConfig(cacheNames = "restaurants")
 public class RestaurantsController extends ApiController {
 
     @Autowired
     RestaurantRepository restaurantRepository;
 
+    @Autowired
+    JsonStreamingService jsonStreamingService;
+
+    @Autowired
+    BulkSaveService bulkSaveService;
+
+    @Autowired
+    ProjectionService projectionService;
+
     @ApiOperation(value = "List all restaurants")
     @PreAuthorize("hasRole('ROLE_USER')")
-    @GetMapping("/all")
+    @GetMapping(value = "/all", params = { "!limit", "!fields", "stream!=true" })
     public Iterable<Restaurant> allRestaurants() {
         return restaurantRepository.findAll();
     }
 
 
+    @ApiOperation(value = "Stream all restaurants as a JSON array, for exports of the whole table")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = { "stream=true", "!limit", "!fields" })
+    public ResponseEntity<StreamingResponseBody> streamRestaurants() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(jsonStreamingService.streamJsonArray(restaurantRepository::streamAll));
+    }
+
+    @ApiOperation(value = "List restaurants one page at a time, ordered by id")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = { "limit", "!fields", "stream!=true" })
+    public KeysetPage<Restaurant, Long> pageOfRestaurants(
+            @ApiParam("return restaurants with id greater than this cursor") @RequestParam(defaultValue = "0") long after,
+            @ApiParam("maximum number of restaurants to return") @RequestParam int limit) {
+        List<Restaurant> restaurants = restaurantRepository.findByIdGreaterThanOrderByIdAsc(after, keysetPageable(limit));
+        return keysetPage(restaurants, limit, Restaurant::getId);
+    }
+
+    @ApiOperation(value = "List all restaurants with only the given fields")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = { "fields", "!limit", "stream!=true" })
+    public List<Map<String, Object>> allRestaurantsWithFields(
+            @ApiParam("comma separated fields to return; id is always returned") @RequestParam List<String> fields) {
+        return projectionService.findAll(Restaurant.class, fields);
+    }
+
+    @ApiOperation(value = "List restaurants one page at a time with only the given fields, ordered by id")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = { "fields", "limit", "stream!=true" })
+    public KeysetPage<Map<String, Object>, Long> pageOfRestaurantsWithFields(
+            @ApiParam("comma separated fields to return; id is always returned") @RequestParam List<String> fields,
+            @ApiParam("return restaurants with id greater than this cursor") @RequestParam(defaultValue = "0") long after,
+            @ApiParam("maximum number of restaurants to return") @RequestParam int limit) {
+        List<Map<String, Object>> rows = projectionService.findAfter(Restaurant.class, fields, after, keysetPageable(limit).getPageSize());
+        return keysetPage(rows, limit, row -> (Long) row.get("id"));
+    }
+
     @ApiOperation(value = "Get a single restaurant")
     @PreAuthorize("hasRole('ROLE_USER')")
+    @Cacheable(key = "#id")
     @GetMapping("")
     public Restaurant getById(
             @ApiParam("id") @RequestParam Long id
@@ -58,20 +123,56 @@ public class RestaurantsController extends ApiController {
         return restaurantRepository.save(restaurant);
     }
 
+    @ApiOperation(value = "Create many restaurants at once from a JSON array, returning their new ids")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping("/bulk")
+    public List<Long> postBulkRestaurants(
+            @ApiParam("restaurants to create; any ids supplied are ignored") @RequestBody List<Restaurant> restaurants) {
+        restaurants.forEach(restaurant -> restaurant.setId(0));
+        return bulkSaveService.saveInChunks(restaurantRepository, restaurants).stream()
+                .map(Restaurant::getId)
+                .collect(Collectors.toList());
+    }
+
     @ApiOperation(value = "Delete a restaurant")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @CacheEvict(key = "#id")
     @DeleteMapping("")
     public Object deleteRestaurant(
             @ApiParam("id") @RequestParam Long id) {
-        Restaurant restaurant = restaurantRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(Restaurant.class, id));
-
-        restaurantRepository.delete(restaurant);
+        if (restaurantRepository.removeById(id) == 0) {
+            throw new EntityNotFoundException(Restaurant.class, id);
+        }
         return genericMessage("Restaurant with id %s deleted".formatted(id));
     }
 
+    @ApiOperation(value = "Delete many restaurants in one statement, reporting any ids that did not exist")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @CacheEvict(allEntries = true)
+    @DeleteMapping("/bulk")
+    public Object deleteBulkRestaurants(
+            @ApiParam("comma separated ids") @RequestParam List<Long> ids) {
+        if (ids.isEmpty()) {
+            // nothing to look up, and "IN ()" is a syntax error on Postgres
+            return Map.of(
+                    "message", "0 restaurants deleted",
+                    "missing", List.of());
+        }
+        List<Long> found = restaurantRepository.findIdsByIdIn(ids);
+        Set<Long> present = new HashSet<>(found);
+        List<Long> missing = ids.stream()
+                .filter(id -> !present.contains(id))
+                .distinct()
+                .collect(Collectors.toList());
+        int deleted = found.isEmpty() ? 0 : restaurantRepository.removeAllByIdIn(found);
+        return Map.of(
+                "message", "%d restaurants deleted".formatted(deleted),
+                "missing", missing);
+    }
+
     @ApiOperation(value = "Update a single restaurant")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @CacheEvict(key = "#id")
     @PutMapping("")
     public Restaurant updateRestaurant(
             @ApiParam("id") @RequestParam Long id,
@@ -84,7 +185,9 @@ public class RestaurantsController extends ApiController {
         restaurant.setAddress(incoming.getAddress());
         restaurant.setDescription(incoming.getDescription());
 
-        restaurantRepository.save(restaurant);
+        // one conditional UPDATE, which writes nothing when the stored values
+        // are already these; the response is the stored row with them set
+        restaurantRepository.updateById(id, incoming.getName(), incoming.getAddress(), incoming.getDescription());
 
         return restaurant;
     }
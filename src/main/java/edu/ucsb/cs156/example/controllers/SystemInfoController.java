@@ -1,6 +1,12 @@
 package edu.ucsb.cs156.example.controllers;
 
+import edu.ucsb.cs156.example.models.CacheStatistics;
+import edu.ucsb.cs156.example.models.EndpointStatistics;
+import edu.ucsb.cs156.example.models.HibernateStatistics;
 import edu.ucsb.cs156.example.models.SystemInfo;
+import edu.ucsb.cs156.example.services.CacheStatsService;
+import edu.ucsb.cs156.example.services.EndpointMetricsService;
+import edu.ucsb.cs156.example.services.HibernateStatisticsService;
 import edu.ucsb.cs156.example.services.SystemInfoService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -11,6 +17,8 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 @Api(description = "System Information")
 @RequestMapping("/api/systemInfo")
 @RestController
@@ -19,6 +27,15 @@ public class SystemInfoController extends ApiController {
     @Autowired
     private SystemInfoService systemInfoService;
 
+    @Autowired
+    private CacheStatsService cacheStatsService;
+
+    @Autowired
+    private HibernateStatisticsService hibernateStatisticsService;
+
+    @Autowired
+    private EndpointMetricsService endpointMetricsService;
+
     @ApiOperation(value = "Get global information about the application")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @GetMapping("")
@@ -26,4 +43,25 @@ public class SystemInfoController extends ApiController {
         return systemInfoService.getSystemInfo();
     }
 
+    @ApiOperation(value = "Get hit/miss counters for the in-process caches")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("/caches")
+    public List<CacheStatistics> getCacheStatistics() {
+        return cacheStatsService.getCacheStatistics();
+    }
+
+    @ApiOperation(value = "Get SQL statement and second-level/query cache counters from Hibernate")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("/hibernate")
+    public HibernateStatistics getHibernateStatistics() {
+        return hibernateStatisticsService.getHibernateStatistics();
+    }
+
+    @ApiOperation(value = "Get latency percentiles, error counts and throughput for each controller method")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("/endpoints")
+    public List<EndpointStatistics> getEndpointStatistics() {
+        return endpointMetricsService.getEndpointStatistics();
+    }
+
 }
\ No newline at end of file
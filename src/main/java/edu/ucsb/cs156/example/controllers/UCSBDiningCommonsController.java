@@ -3,6 +3,10 @@ package edu.ucsb.cs156.example.controllers;
 import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
 import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsRepository;
+import edu.ucsb.cs156.example.models.KeysetPage;
+import edu.ucsb.cs156.example.services.JsonStreamingService;
+import edu.ucsb.cs156.example.services.BulkSaveService;
+import edu.ucsb.cs156.example.services.ProjectionService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
@@ -18,29 +22,90 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 
 import javax.validation.Valid;
 
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.Map;
+
 
 @Api(description = "UCSBDiningCommons")
 @RequestMapping("/api/ucsbdiningcommons")
 @RestController
 @Slf4j
+@CacheConfig(cacheNames = "ucsbdiningcommons")
 public class UCSBDiningCommonsController extends ApiController {
 
     @Autowired
     UCSBDiningCommonsRepository ucsbDiningCommonsRepository;
 
+    @Autowired
+    JsonStreamingService jsonStreamingService;
+
+    @Autowired
+    BulkSaveService bulkSaveService;
+
+    @Autowired
+    ProjectionService projectionService;
+
     @ApiOperation(value = "List all ucsb dining commons")
     @PreAuthorize("hasRole('ROLE_USER')")
-    @GetMapping("/all")
+    @GetMapping(value = "/all", params = { "!limit", "!fields", "stream!=true" })
     public Iterable<UCSBDiningCommons> allCommonss() {
         Iterable<UCSBDiningCommons> commons = ucsbDiningCommonsRepository.findAll();
         return commons;
     }
 
+    @ApiOperation(value = "Stream all ucsb dining commons as a JSON array, for exports of the whole table")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = { "stream=true", "!limit", "!fields" })
+    public ResponseEntity<StreamingResponseBody> streamCommons() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(jsonStreamingService.streamJsonArray(ucsbDiningCommonsRepository::streamAll));
+    }
+
+    @ApiOperation(value = "List ucsb dining commons one page at a time, ordered by code")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = { "limit", "!fields", "stream!=true" })
+    public KeysetPage<UCSBDiningCommons, String> pageOfCommons(
+            @ApiParam("return commons whose code sorts after this cursor") @RequestParam(defaultValue = "") String after,
+            @ApiParam("maximum number of commons to return") @RequestParam int limit) {
+        List<UCSBDiningCommons> commons = ucsbDiningCommonsRepository.findByCodeGreaterThanOrderByCodeAsc(after, keysetPageable(limit));
+        return keysetPage(commons, limit, UCSBDiningCommons::getCode);
+    }
+
+    @ApiOperation(value = "List all commons with only the given fields")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = { "fields", "!limit", "stream!=true" })
+    public List<Map<String, Object>> allCommonsWithFields(
+            @ApiParam("comma separated fields to return; code is always returned") @RequestParam List<String> fields) {
+        return projectionService.findAll(UCSBDiningCommons.class, fields);
+    }
+
+    @ApiOperation(value = "List commons one page at a time with only the given fields, ordered by code")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = { "fields", "limit", "stream!=true" })
+    public KeysetPage<Map<String, Object>, String> pageOfCommonsWithFields(
+            @ApiParam("comma separated fields to return; code is always returned") @RequestParam List<String> fields,
+            @ApiParam("return commons whose code sorts after this cursor") @RequestParam(defaultValue = "") String after,
+            @ApiParam("maximum number of commons to return") @RequestParam int limit) {
+        List<Map<String, Object>> rows = projectionService.findAfter(UCSBDiningCommons.class, fields, after, keysetPageable(limit).getPageSize());
+        return keysetPage(rows, limit, row -> (String) row.get("code"));
+    }
+
     @ApiOperation(value = "Get a single commons")
     @PreAuthorize("hasRole('ROLE_USER')")
+    @Cacheable(key = "#code")
     @GetMapping("")
     public UCSBDiningCommons getById(
             @ApiParam("code") @RequestParam String code) {
@@ -52,6 +117,7 @@ public class UCSBDiningCommonsController extends ApiController {
 
     @ApiOperation(value = "Create a new commons")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @CacheEvict(key = "#code")
     @PostMapping("/post")
     public UCSBDiningCommons postCommons(
         @ApiParam("code") @RequestParam String code,
@@ -78,20 +144,56 @@ public class UCSBDiningCommonsController extends ApiController {
         return savedCommons;
     }
 
+    @ApiOperation(value = "Create or replace many commons at once from a JSON array, returning their codes")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @CacheEvict(allEntries = true)
+    @PostMapping("/bulk")
+    public List<String> postBulkCommons(
+            @ApiParam("commons to save") @RequestBody List<UCSBDiningCommons> commons) {
+        return bulkSaveService.saveInChunks(ucsbDiningCommonsRepository, commons).stream()
+                .map(UCSBDiningCommons::getCode)
+                .collect(Collectors.toList());
+    }
+
     @ApiOperation(value = "Delete a UCSBDiningCommons")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @CacheEvict(key = "#code")
     @DeleteMapping("")
     public Object deleteCommons(
             @ApiParam("code") @RequestParam String code) {
-        UCSBDiningCommons commons = ucsbDiningCommonsRepository.findById(code)
-                .orElseThrow(() -> new EntityNotFoundException(UCSBDiningCommons.class, code));
-
-        ucsbDiningCommonsRepository.delete(commons);
+        if (ucsbDiningCommonsRepository.removeById(code) == 0) {
+            throw new EntityNotFoundException(UCSBDiningCommons.class, code);
+        }
         return genericMessage("UCSBDiningCommons with id %s deleted".formatted(code));
     }
 
+    @ApiOperation(value = "Delete many commons in one statement, reporting any codes that did not exist")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @CacheEvict(allEntries = true)
+    @DeleteMapping("/bulk")
+    public Object deleteBulkCommons(
+            @ApiParam("comma separated codes") @RequestParam List<String> codes) {
+        if (codes.isEmpty()) {
+            // nothing to look up, and "IN ()" is a syntax error on Postgres
+            return Map.of(
+                    "message", "0 commons deleted",
+                    "missing", List.of());
+        }
+        List<String> found = ucsbDiningCommonsRepository.findIdsByIdIn(codes);
+        Set<String> present = new HashSet<>(found);
+        List<String> missing = codes.stream()
+                .filter(code -> !present.contains(code))
+                .distinct()
+                .collect(Collectors.toList());
+        int deleted = found.isEmpty() ? 0 : ucsbDiningCommonsRepository.removeAllByIdIn(found);
+        return Map.of(
+                "message", "%d commons deleted".formatted(deleted),
+                "missing", missing);
+    }
+
     @ApiOperation(value = "Update a single commons")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @CacheEvict(key = "#code")
     @PutMapping("")
     public UCSBDiningCommons updateCommons(
             @ApiParam("code") @RequestParam String code,
@@ -108,7 +210,9 @@ public class UCSBDiningCommonsController extends ApiController {
         commons.setLatitude(incoming.getLatitude());
         commons.setLongitude(incoming.getLongitude());
 
-        ucsbDiningCommonsRepository.save(commons);
+        // one conditional UPDATE, which writes nothing when the stored values
+        // are already these; the response is the stored row with them set
+        ucsbDiningCommonsRepository.updateById(code, incoming.getName(), incoming.getHasSackMeal(), incoming.getHasTakeOutMeal(), incoming.getHasDiningCam(), incoming.getLatitude(), incoming.getLongitude());
 
         return commons;
     }
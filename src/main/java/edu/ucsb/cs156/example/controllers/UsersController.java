@@ -1,19 +1,25 @@
 package edu.ucsb.cs156.example.controllers;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.models.KeysetPage;
 import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.JsonStreamingService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+
+import java.util.List;
+import java.util.Locale;
 
 @Api(description="User information (admin only)")
 @RequestMapping("/api/admin/users")
@@ -23,15 +29,46 @@ public class UsersController extends ApiController {
     UserRepository userRepository;
 
     @Autowired
-    ObjectMapper mapper;
+    JsonStreamingService jsonStreamingService;
 
-    @ApiOperation(value = "Get a list of all users")
+    // Without limit the listing is still one page, of
+    // app.pagination.defaultLimit users; the whole table is only ever
+    // sent as a stream.  Asking for both a page and a stream matches no
+    // handler, so it is a 400.
+    @ApiOperation(value = "List users one page at a time, ordered by id, optionally only those whose email or name starts with search")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
-    @GetMapping("")
-    public ResponseEntity<String> users()
-            throws JsonProcessingException {
-        Iterable<User> users = userRepository.findAll();
-        String body = mapper.writeValueAsString(users);
-        return ResponseEntity.ok().body(body);
+    @GetMapping(value = "", params = { "stream!=true" })
+    public KeysetPage<User, Long> pageOfUsers(
+            @ApiParam("return users with id greater than this cursor") @RequestParam(defaultValue = "0") long after,
+            @ApiParam("maximum number of users to return") @RequestParam(defaultValue = "${app.pagination.defaultLimit:100}") int limit,
+            @ApiParam("only users whose email, full name or family name starts with this, ignoring case") @RequestParam(defaultValue = "") String search) {
+        List<User> users = search.isBlank()
+                ? userRepository.findByIdGreaterThanOrderById(after, keysetPageable(limit))
+                : userRepository.findMatchingAfter(likePattern(search), after, keysetPageable(limit));
+        return keysetPage(users, limit, User::getId);
+    }
+
+    @ApiOperation(value = "Stream users as a JSON array, optionally only those whose email or name starts with search")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping(value = "", params = { "stream=true", "!limit" })
+    public ResponseEntity<StreamingResponseBody> streamUsers(
+            @ApiParam("only users whose email, full name or family name starts with this, ignoring case") @RequestParam(defaultValue = "") String search) {
+        String pattern = likePattern(search);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(jsonStreamingService.streamJsonArray(() -> search.isBlank()
+                        ? userRepository.streamAllByOrderById()
+                        : userRepository.streamMatching(pattern)));
+    }
+
+    // A LIKE pattern matching values that start with search, with LIKE's
+    // own wildcards in search escaped using ! (see UserRepository).  A
+    // prefix pattern can use the lower(...) indexes; "%term%" cannot.
+    static String likePattern(String search) {
+        String escaped = search.trim().toLowerCase(Locale.ROOT)
+                .replace("!", "!!")
+                .replace("%", "!%")
+                .replace("_", "!_");
+        return escaped + "%";
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,23 @@
+package edu.ucsb.cs156.example.entities;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// The current version of one collection (e.g. "ucsbdates"), shared by every
+// server through the database; see ResourceVersionServiceImpl.
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity(name = "resource_versions")
+public class ResourceVersion {
+  @Id
+  private String collection;
+  private long version;
+}
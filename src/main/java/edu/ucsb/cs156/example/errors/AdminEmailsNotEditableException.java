@@ -0,0 +1,8 @@
+package edu.ucsb.cs156.example.errors;
+
+public class AdminEmailsNotEditableException extends RuntimeException {
+  public AdminEmailsNotEditableException() {
+    super("Admin emails can only be changed here when app.admin.emailsFile is set, "
+        + "so that every server sees the change; otherwise change app.admin.emails and restart");
+  }
+}
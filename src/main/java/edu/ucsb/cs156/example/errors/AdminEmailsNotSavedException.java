@@ -0,0 +1,7 @@
+package edu.ucsb.cs156.example.errors;
+
+public class AdminEmailsNotSavedException extends RuntimeException {
+  public AdminEmailsNotSavedException(String emailsFile, Throwable cause) {
+    super("Could not save admin emails to %s: %s".formatted(emailsFile, cause), cause);
+  }
+}
@@ -0,0 +1,10 @@
+package edu.ucsb.cs156.example.errors;
+
+import java.util.Collection;
+
+public class UnknownFieldsException extends RuntimeException {
+  public UnknownFieldsException(Class<?> entityType, Collection<String> fields) {
+    super("%s has no field(s) %s"
+      .formatted(entityType.getSimpleName(), String.join(", ", fields)));
+  }
+}
@@ -0,0 +1,145 @@
+package edu.ucsb.cs156.example.filters;
+
+import edu.ucsb.cs156.example.services.ResourceVersionService;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+/**
+ * Strong ETags and 304 Not Modified for the entity endpoints under
+ * /api/&lt;collection&gt;, for each collection listed in app.etag.collections.
+ * (ResponseCacheFilter weakens the tag on the gzipped bodies it sends.)
+ *
+ * A GET or HEAD is tagged with the collection's current version from
+ * ResourceVersionService (and the format, when CBOR or Smile is asked for),
+ * and Cache-Control "private, no-cache" lets the browser keep the body but
+ * revalidate every time.  If If-None-Match already
+ * names that tag, the response is an empty 304 and neither the controller nor
+ * Jackson runs.  A POST, PUT or DELETE on the collection that succeeds (2xx,
+ * for a logged in user) moves its version on, so the next GET returns the
+ * new body; rejected and failed requests leave it alone.  The response to
+ * the write is held back until the version has moved, so a client cannot
+ * see it and revalidate against the old version.
+ *
+ * This filter runs after the Spring Security filter chain.  Since every
+ * entity GET requires ROLE_USER, 304s are only given to requests with that
+ * role; other requests go through to method security as before.
+ */
+
+@Slf4j
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 10)
+public class ConditionalGetFilter extends OncePerRequestFilter {
+
+  @Autowired
+  ResourceVersionService resourceVersionService;
+
+  @Value("${app.etag.collections:}")
+  List<String> collections = new ArrayList<String>();
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    String collection = collectionOf(request.getRequestURI());
+    if (collection == null || "OPTIONS".equals(request.getMethod())) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+
+    if (!isRead(request)) {
+      ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+      try {
+        filterChain.doFilter(request, wrapper);
+        if (request.getUserPrincipal() != null && succeeded(wrapper.getStatus())) {
+          resourceVersionService.changed(collection);
+        }
+      } finally {
+        wrapper.copyBodyToResponse();
+      }
+      return;
+    }
+
+    if (!request.isUserInRole("ROLE_USER")) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+
+    String etag = resourceVersionService.getETag(collection, representation(request.getHeader(HttpHeaders.ACCEPT)));
+    response.setHeader(HttpHeaders.ETAG, etag);
+    response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+    response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+    if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+      log.debug("{} {} not modified", request.getMethod(), request.getRequestURI());
+      response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+      return;
+    }
+    filterChain.doFilter(request, response);
+  }
+
+  /** the collection a request URI belongs to, or null if it is not one with ETags */
+  String collectionOf(String requestURI) {
+    if (requestURI == null || !requestURI.startsWith("/api/")) {
+      return null;
+    }
+    String rest = requestURI.substring("/api/".length());
+    int slash = rest.indexOf('/');
+    String collection = slash < 0 ? rest : rest.substring(0, slash);
+    return collections.contains(collection) ? collection : null;
+  }
+
+  static boolean succeeded(int status) {
+    return status >= 200 && status < 300;
+  }
+
+  static boolean isRead(HttpServletRequest request) {
+    String method = request.getMethod();
+    return "GET".equals(method) || "HEAD".equals(method);
+  }
+
+  /** the binary format asked for (see MessageConvertersConfig), or null for JSON */
+  static String representation(String accept) {
+    if (accept == null) {
+      return null;
+    }
+    if (accept.contains("application/cbor")) {
+      return "cbor";
+    }
+    if (accept.contains("application/x-jackson-smile")) {
+      return "smile";
+    }
+    return null;
+  }
+
+  /** If-None-Match uses the weak comparison, so a W/ prefix is ignored */
+  static boolean matches(String ifNoneMatch, String etag) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+    for (String candidate : ifNoneMatch.split(",")) {
+      String tag = candidate.trim();
+      if (tag.startsWith("W/")) {
+        tag = tag.substring(2);
+      }
+      if (tag.equals("*") || tag.equals(etag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,208 @@
+package edu.ucsb.cs156.example.filters;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import edu.ucsb.cs156.example.services.CacheStatsService;
+import edu.ucsb.cs156.example.services.ResourceVersionService;
+import edu.ucsb.cs156.example.util.AcceptEncoding;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import javax.annotation.PostConstruct;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+/**
+ * Keeps the serialized body of GET /api/&lt;collection&gt;/all for each
+ * collection in app.responseCache.collections (tables that rarely change),
+ * so repeated calls write stored bytes instead of querying and serializing.
+ *
+ * Each entry remembers the collection's version from ResourceVersionService
+ * when the request started, and is only used while that is still the
+ * current version, so any successful POST, PUT or DELETE to the collection
+ * invalidates it, on every server.  ConditionalGetFilter is what moves the version on, so every collection
+ * here must also be in app.etag.collections (checked at startup).  Only plain
+ * /all (no query string) with status 200 is stored, and only requests with
+ * ROLE_USER are answered from the cache.  Entries are keyed by path and Accept
+ * header, weighed by their size in bytes, and expire after a while in any case
+ * (app.responseCache.spec), as a bound on staleness from writes that bypass
+ * the API.
+ *
+ * Bodies of at least app.responseCache.minCompressedSize bytes are also
+ * stored gzipped, once, at the best compression level, and that copy is sent
+ * to clients that accept gzip, both on the request that stores it and on
+ * every hit, so a hit costs neither serialization nor compression.  This is
+ * the only compression the server does: other responses are small, or
+ * streamed, or vary too much to be worth compressing on every request.  The
+ * gzipped bytes are a different representation of the same version, so
+ * their ETag is weakened.
+ *
+ * Runs after ConditionalGetFilter, so a matching If-None-Match still gets a
+ * 304 without touching this cache.
+ */
+
+@Slf4j
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+  @AllArgsConstructor
+  static class CachedResponse {
+    final long version;
+    final String contentType;
+    final byte[] body;
+    // null when the body is below the compression threshold
+    final byte[] gzipped;
+
+    int size() {
+      return body.length + (gzipped == null ? 0 : gzipped.length);
+    }
+  }
+
+  @Autowired
+  ResourceVersionService resourceVersionService;
+
+  @Autowired
+  CacheStatsService cacheStatsService;
+
+  @Value("${app.responseCache.collections:}")
+  List<String> collections = new ArrayList<String>();
+
+  @Value("${app.etag.collections:}")
+  List<String> etagCollections = new ArrayList<String>();
+
+  @Value("${app.responseCache.spec:maximumWeight=33554432,expireAfterWrite=10m}")
+  String responseCacheSpec;
+
+  @Value("${app.responseCache.minCompressedSize:2048}")
+  int minCompressedSize;
+
+  private Cache<String, CachedResponse> responses;
+
+  @PostConstruct
+  void init() {
+    List<String> unversioned = new ArrayList<String>(collections);
+    unversioned.removeAll(etagCollections);
+    if (!unversioned.isEmpty()) {
+      throw new IllegalStateException("app.responseCache.collections " + unversioned
+          + " must also be in app.etag.collections, or their cached responses would never be invalidated");
+    }
+    responses = Caffeine.from(responseCacheSpec)
+        .weigher((String key, CachedResponse response) -> key.length() + response.size())
+        .recordStats()
+        .build();
+    cacheStatsService.register("responses", responses);
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return collectionOf(request) == null;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    if (!request.isUserInRole("ROLE_USER")) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+
+    String collection = collectionOf(request);
+    long version = resourceVersionService.getVersion(collection);
+    String key = request.getRequestURI() + "|" + request.getHeader(HttpHeaders.ACCEPT);
+    CachedResponse cached = responses.getIfPresent(key);
+    if (cached != null && cached.version == version) {
+      write(request, response, cached);
+      return;
+    }
+
+    ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+    try {
+      filterChain.doFilter(request, wrapper);
+      if (wrapper.getStatus() == HttpServletResponse.SC_OK && !request.isAsyncStarted()) {
+        log.debug("caching {} bytes of {} at version {}", wrapper.getContentSize(), key, version);
+        byte[] body = wrapper.getContentAsByteArray();
+        byte[] gzipped = body.length >= minCompressedSize ? gzip(body) : null;
+        CachedResponse stored = new CachedResponse(version, wrapper.getContentType(), body, gzipped);
+        responses.put(key, stored);
+        wrapper.resetBuffer();
+        write(request, response, stored);
+      }
+    } finally {
+      wrapper.copyBodyToResponse();
+    }
+  }
+
+  private static void write(HttpServletRequest request, HttpServletResponse response, CachedResponse cached)
+      throws IOException {
+    response.setContentType(cached.contentType);
+    response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    byte[] body = cached.body;
+    if (cached.gzipped != null && acceptsGzip(request)) {
+      body = cached.gzipped;
+      response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+      weakenETag(response);
+    }
+    response.setContentLength(body.length);
+    response.getOutputStream().write(body);
+  }
+
+  /** the collection of a GET /api/&lt;collection&gt;/all to cache, or null */
+  String collectionOf(HttpServletRequest request) {
+    if (!"GET".equals(request.getMethod()) || request.getQueryString() != null) {
+      return null;
+    }
+    String uri = request.getRequestURI();
+    if (!uri.startsWith("/api/") || !uri.endsWith("/all")) {
+      return null;
+    }
+    String collection = uri.substring("/api/".length(), uri.length() - "/all".length());
+    return collections.contains(collection) ? collection : null;
+  }
+
+  static boolean acceptsGzip(HttpServletRequest request) {
+    return AcceptEncoding.accepts(request, "gzip");
+  }
+
+  private static void weakenETag(HttpServletResponse response) {
+    String etag = response.getHeader(HttpHeaders.ETAG);
+    if (etag != null && !etag.startsWith("W/")) {
+      response.setHeader(HttpHeaders.ETAG, "W/" + etag);
+    }
+  }
+
+  static byte[] gzip(byte[] body) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+    try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+      {
+        def.setLevel(Deflater.BEST_COMPRESSION);
+      }
+    }) {
+      gzip.write(body);
+    }
+    return out.toByteArray();
+  }
+
+  void invalidateAll() {
+    responses.invalidateAll();
+  }
+}
@@ -0,0 +1,25 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Builder;
+import lombok.AccessLevel;
+
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class EndpointStatistics {
+  private String controller;
+  private String method;
+  private Long count;
+  private Long errorCount;
+  private Double requestsPerSecond;
+  private Double meanMillis;
+  private Double maxMillis;
+  private Double p50Millis;
+  private Double p95Millis;
+  private Double p99Millis;
+}
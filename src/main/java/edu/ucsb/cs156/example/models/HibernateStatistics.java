@@ -0,0 +1,29 @@
+package edu.ucsb.cs156.example.models;
+
+import java.util.List;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Builder;
+import lombok.AccessLevel;
+
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class HibernateStatistics {
+  private Boolean statisticsEnabled;
+  private Long sessionOpenCount;
+  private Long prepareStatementCount;
+  private Double statementsPerSession;
+  private Long entityLoadCount;
+  private Long secondLevelCacheHitCount;
+  private Long secondLevelCacheMissCount;
+  private Long secondLevelCachePutCount;
+  private Long queryCacheHitCount;
+  private Long queryCacheMissCount;
+  private Long queryCachePutCount;
+  private List<CacheStatistics> regions;
+}
@@ -0,0 +1,139 @@
+package edu.ucsb.cs156.example.perf;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Component;
+
+import edu.ucsb.cs156.example.repositories.BikeRepository;
+import edu.ucsb.cs156.example.repositories.BookRepository;
+import edu.ucsb.cs156.example.repositories.CarRepository;
+import edu.ucsb.cs156.example.repositories.HotelRepository;
+import edu.ucsb.cs156.example.repositories.MovieRepository;
+import edu.ucsb.cs156.example.repositories.RestaurantRepository;
+import edu.ucsb.cs156.example.repositories.UCSBDateRepository;
+import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsRepository;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.BulkSaveService;
+import edu.ucsb.cs156.example.services.ResourceVersionService;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Under the perf profile, fills every table with synthetic rows at startup
+ * (see SyntheticData), so that queries can be measured at realistic volume.
+ *
+ * The target for each table is app.perf.rows.&lt;table&gt;, falling back to
+ * app.perf.defaultRows. Only the rows missing from a table are generated, so
+ * restarting against the same database tops it up instead of doubling it.
+ * Rows are saved through BulkSaveService, one JDBC-batched transaction per
+ * app.bulk.chunkSize rows, and only one chunk is held in memory at a time.
+ * Those saves bypass the controllers, so the collection's version (see
+ * ResourceVersionService) is bumped here once a table has new rows.
+ */
+
+@Slf4j
+@Component
+@Profile("perf")
+public class PerfDataGenerator implements CommandLineRunner {
+
+  @Autowired
+  BookRepository bookRepository;
+
+  @Autowired
+  MovieRepository movieRepository;
+
+  @Autowired
+  HotelRepository hotelRepository;
+
+  @Autowired
+  RestaurantRepository restaurantRepository;
+
+  @Autowired
+  CarRepository carRepository;
+
+  @Autowired
+  BikeRepository bikeRepository;
+
+  @Autowired
+  UCSBDateRepository ucsbDateRepository;
+
+  @Autowired
+  UCSBDiningCommonsRepository ucsbDiningCommonsRepository;
+
+  @Autowired
+  UserRepository userRepository;
+
+  @Autowired
+  BulkSaveService bulkSaveService;
+
+  @Autowired
+  ResourceVersionService resourceVersionService;
+
+  @Autowired
+  Environment environment;
+
+  @Value("${app.perf.defaultRows:1000000}")
+  long defaultRows;
+
+  @Value("${app.perf.seed:156}")
+  long seed;
+
+  @Value("${app.bulk.chunkSize:1000}")
+  int chunkSize;
+
+  @Override
+  public void run(String... args) {
+    SyntheticData data = new SyntheticData(seed);
+    fill("book", "book", bookRepository, data::book);
+    fill("movies", "movies", movieRepository, data::movie);
+    fill("hotels", "hotels", hotelRepository, data::hotel);
+    fill("restaurants", "restaurants", restaurantRepository, data::restaurant);
+    fill("car", "cars", carRepository, data::car);
+    fill("bikes", "bikes", bikeRepository, data::bike);
+    fill("ucsbdates", "ucsbdates", ucsbDateRepository, data::ucsbDate);
+    fill("ucsbdiningcommons", "ucsbdiningcommons", ucsbDiningCommonsRepository, data::ucsbDiningCommons);
+    // users are not a versioned collection; nothing caches the listing
+    fill("users", userRepository, data::user);
+  }
+
+  /** fills table, then bumps the version of collection (its name under /api/) if rows were added */
+  <T> long fill(String table, String collection, CrudRepository<T, ?> repository, IntFunction<T> row) {
+    long generated = fill(table, repository, row);
+    if (generated > 0) {
+      resourceVersionService.changed(collection);
+    }
+    return generated;
+  }
+
+  /** returns the number of rows generated */
+  <T> long fill(String table, CrudRepository<T, ?> repository, IntFunction<T> row) {
+    long target = environment.getProperty("app.perf.rows." + table, Long.class, defaultRows);
+    long existing = repository.count();
+    if (existing >= target) {
+      log.info("{} already has {} rows (target {}), skipping", table, existing, target);
+      return 0;
+    }
+
+    long started = System.nanoTime();
+    for (long from = existing; from < target; from += chunkSize) {
+      int size = (int) Math.min(chunkSize, target - from);
+      List<T> chunk = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        chunk.add(row.apply((int) (from + i)));
+      }
+      bulkSaveService.saveInChunks(repository, chunk);
+    }
+    long generated = target - existing;
+    long millis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    log.info("{}: generated {} rows in {} ms ({} rows/s)", table, generated, millis, generated * 1000 / millis);
+    return generated;
+  }
+}
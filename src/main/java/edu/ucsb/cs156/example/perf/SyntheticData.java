@@ -0,0 +1,249 @@
+package edu.ucsb.cs156.example.perf;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Random;
+
+import edu.ucsb.cs156.example.entities.Bike;
+import edu.ucsb.cs156.example.entities.Book;
+import edu.ucsb.cs156.example.entities.Car;
+import edu.ucsb.cs156.example.entities.Hotel;
+import edu.ucsb.cs156.example.entities.Movie;
+import edu.ucsb.cs156.example.entities.Restaurant;
+import edu.ucsb.cs156.example.entities.UCSBDate;
+import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+import edu.ucsb.cs156.example.entities.User;
+
+/**
+ * Builds the i-th synthetic row of each table. Categorical columns (genres,
+ * authors, actors, manufacturers, cuisines, ...) follow a Zipf distribution,
+ * so a few values are very common and most are rare, as in real data; dates
+ * are spread over many quarters with many dates in each. Values that must be
+ * unique (dining commons codes, user emails) are derived from i.
+ *
+ * The same seed always produces the same rows.
+ */
+
+public class SyntheticData {
+
+  static final String[] GENRES = {
+      "Fiction", "Mystery", "Romance", "Fantasy", "SciFi", "Thriller", "Biography", "History", "Poetry",
+      "Horror", "SelfHelp", "Children", "YoungAdult", "Cooking", "Travel", "Science", "Philosophy", "Religion",
+      "Art", "Music", "Sports", "Business", "Economics", "Politics", "Health", "Humor", "Drama", "Classics",
+      "Comics", "Reference" };
+
+  static final String[] FIRST_NAMES = {
+      "James", "Mary", "Robert", "Patricia", "John", "Jennifer", "Michael", "Linda", "David", "Elizabeth",
+      "William", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah", "Carlos", "Karen",
+      "Wei", "Priya", "Hiroshi", "Fatima", "Diego", "Olga", "Kwame", "Mei", "Ahmed", "Sofia" };
+
+  static final String[] LAST_NAMES = {
+      "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez", "Martinez",
+      "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore", "Jackson", "Martin",
+      "Lee", "Nguyen", "Chen", "Kim", "Patel", "Singh", "Tanaka", "Okafor", "Ivanova", "Cohen" };
+
+  static final String[] ADJECTIVES = {
+      "Silent", "Golden", "Hidden", "Broken", "Last", "Crimson", "Endless", "Wild", "Quiet", "Burning",
+      "Frozen", "Lost", "Secret", "Distant", "Bright", "Hollow", "Restless", "Ancient", "Velvet", "Iron" };
+
+  static final String[] NOUNS = {
+      "River", "Garden", "Empire", "Shadow", "Harbor", "Mountain", "Letter", "Kingdom", "Promise", "Storm",
+      "Mirror", "Island", "Journey", "Station", "Forest", "Orchard", "Lantern", "Horizon", "Bridge", "Tide" };
+
+  static final String[] STREETS = {
+      "State", "Storke", "Hollister", "Pardall", "Embarcadero del Norte", "Cabrillo", "Milpas", "De la Vina",
+      "Anacapa", "Chapala", "Calle Real", "Fairview", "Los Carneros", "Modoc", "Mission" };
+
+  static final String[] STREET_SUFFIXES = { "St", "Rd", "Ave", "Blvd", "Way" };
+
+  static final String[] CITIES = {
+      "Santa Barbara", "Goleta", "Isla Vista", "Montecito", "Carpinteria", "Ventura", "Lompoc", "Solvang",
+      "Santa Maria", "Buellton" };
+
+  static final String[] HOTEL_BRANDS = {
+      "Marriott", "Hilton", "Hyatt", "Holiday Inn", "Best Western", "Motel 6", "Courtyard", "Hampton Inn",
+      "Four Seasons", "Ritz-Carlton", "Inn", "Lodge" };
+
+  static final String[] CUISINES = {
+      "Mexican", "Pizza", "Burgers", "Chinese", "Thai", "Indian", "Japanese", "Sushi", "Italian", "Cafe",
+      "Vegan", "Korean", "Mediterranean", "Vietnamese", "Seafood", "Bakery", "BBQ", "Greek", "Ethiopian", "French" };
+
+  static final String[] RESTAURANT_NOUNS = { "Kitchen", "Grill", "House", "Express", "Cantina", "Bistro", "Shack", "Corner" };
+
+  static final String[] CAR_MODELS = {
+      "Civic", "Corolla", "Camry", "Accord", "F-150", "Model 3", "RAV4", "CR-V", "Silverado", "Mustang",
+      "Wrangler", "Outback", "Prius", "Tacoma", "Altima", "Golf", "3 Series", "Leaf", "Miata", "Bolt" };
+
+  static final String[] CAR_BODIES = { "sedan", "hatchback", "coupe", "pickup", "SUV", "convertible", "wagon", "minivan" };
+
+  static final String[] BIKE_MANUFACTURERS = {
+      "Trek", "Specialized", "Giant", "Cannondale", "Santa Cruz", "Scott", "Bianchi", "Cervelo", "Kona",
+      "Surly", "Brompton", "Raleigh", "Schwinn", "Diamondback", "Orbea" };
+
+  static final String[] BIKE_LINES = { "FX", "Escape", "Sirrus", "Domane", "Allez", "Roam", "Topstone", "Marlin", "Rove", "Fuel" };
+
+  static final int[] GEARS = { 1, 3, 7, 8, 9, 10, 11, 12, 18, 21, 22, 24, 27, 30 };
+
+  static final String[] DATE_NAMES = {
+      "firstDayOfClasses", "lastDayOfClasses", "finalsWeekBegins", "finalsWeekEnds", "registrationPass1",
+      "registrationPass2", "registrationPass3", "lastDayToAdd", "lastDayToDrop", "gradesDue", "holiday",
+      "commencement", "advising", "orientation", "tuitionDue" };
+
+  static final String[] DINING_COMMONS = { "Carrillo", "De La Guerra", "Ortega", "Portola", "Takeout", "Market" };
+
+  private final Random random;
+  private final Zipf genres = new Zipf(GENRES.length, 1.1);
+  private final Zipf authors = new Zipf(20_000, 1.05);
+  private final Zipf actors = new Zipf(5_000, 1.05);
+  private final Zipf cities = new Zipf(CITIES.length, 1.2);
+  private final Zipf hotelBrands = new Zipf(HOTEL_BRANDS.length, 1.0);
+  private final Zipf cuisines = new Zipf(CUISINES.length, 1.1);
+  private final Zipf carModels = new Zipf(CAR_MODELS.length, 1.0);
+  private final Zipf bikeManufacturers = new Zipf(BIKE_MANUFACTURERS.length, 1.2);
+  private final Zipf gears = new Zipf(GEARS.length, 0.8);
+
+  public SyntheticData(long seed) {
+    random = new Random(seed);
+  }
+
+  public Book book(int i) {
+    return Book.builder()
+        .name(title())
+        .author(person(authors.next(random)))
+        .genre(GENRES[genres.next(random)])
+        .build();
+  }
+
+  public Movie movie(int i) {
+    int castSize = 2 + random.nextInt(3);
+    StringBuilder cast = new StringBuilder(person(actors.next(random)));
+    for (int c = 1; c < castSize; c++) {
+      cast.append(", ").append(person(actors.next(random)));
+    }
+    return Movie.builder()
+        .name(title())
+        .synopsis("A " + pick(ADJECTIVES).toLowerCase() + " story about a " + pick(NOUNS).toLowerCase()
+            + " and the " + pick(NOUNS).toLowerCase() + " beyond it")
+        .castMembers(cast.toString())
+        .build();
+  }
+
+  public Hotel hotel(int i) {
+    String city = CITIES[cities.next(random)];
+    return Hotel.builder()
+        .name(HOTEL_BRANDS[hotelBrands.next(random)] + " " + city + " " + pick(NOUNS))
+        .address(address(city))
+        .description((1 + random.nextInt(5)) + "-star hotel")
+        .build();
+  }
+
+  public Restaurant restaurant(int i) {
+    String cuisine = CUISINES[cuisines.next(random)];
+    String city = CITIES[cities.next(random)];
+    return Restaurant.builder()
+        .name(pick(ADJECTIVES) + " " + cuisine + " " + pick(RESTAURANT_NOUNS))
+        .address(address(city))
+        .description(cuisine.toLowerCase())
+        .build();
+  }
+
+  public Car car(int i) {
+    int horsepower = (int) Math.max(70, Math.min(800, 200 + random.nextGaussian() * 80));
+    return Car.builder()
+        .model(CAR_MODELS[carModels.next(random)])
+        .horsepower(Integer.toString(horsepower))
+        .description((1990 + random.nextInt(35)) + " " + pick(CAR_BODIES))
+        .build();
+  }
+
+  public Bike bike(int i) {
+    return Bike.builder()
+        .manufacturer(BIKE_MANUFACTURERS[bikeManufacturers.next(random)])
+        .model(pick(BIKE_LINES) + " " + (1 + random.nextInt(6)))
+        .numGears(GEARS[gears.next(random)])
+        .build();
+  }
+
+  /** 120 quarters (2000 through 2029), so a million rows gives over 8000 dates per quarter */
+  public UCSBDate ucsbDate(int i) {
+    int year = 2000 + random.nextInt(30);
+    int quarter = 1 + random.nextInt(4);
+    LocalDateTime quarterStart = LocalDateTime.of(year, 1 + 3 * (quarter - 1), 1, 0, 0);
+    return UCSBDate.builder()
+        .quarterYYYYQ("%d%d".formatted(year, quarter))
+        .name(pick(DATE_NAMES))
+        .localDateTime(quarterStart.plusDays(random.nextInt(90)).plusHours(random.nextInt(24)))
+        .build();
+  }
+
+  public UCSBDiningCommons ucsbDiningCommons(int i) {
+    return UCSBDiningCommons.builder()
+        .code("commons-%07d".formatted(i))
+        .name(pick(DINING_COMMONS) + " " + i)
+        .hasSackMeal(random.nextInt(4) == 0)
+        .hasTakeOutMeal(random.nextInt(2) == 0)
+        .hasDiningCam(random.nextInt(10) != 0)
+        .latitude(34.41 + random.nextGaussian() * 0.005)
+        .longitude(-119.85 + random.nextGaussian() * 0.005)
+        .build();
+  }
+
+  /** mostly ucsb.edu accounts, a tenth gmail, and about one admin per thousand users */
+  public User user(int i) {
+    String first = pick(FIRST_NAMES);
+    String last = pick(LAST_NAMES);
+    boolean ucsb = random.nextInt(10) != 0;
+    String domain = ucsb ? "ucsb.edu" : "gmail.com";
+    return User.builder()
+        .email("%s.%s%d@%s".formatted(first, last, i, domain).toLowerCase())
+        .googleSub(Long.toString(100_000_000_000_000_000L + i))
+        .pictureUrl("https://lh3.googleusercontent.com/a/synthetic-" + i)
+        .fullName(first + " " + last)
+        .givenName(first)
+        .familyName(last)
+        .emailVerified(random.nextInt(50) != 0)
+        .locale("en")
+        .hostedDomain(ucsb ? domain : null)
+        .admin(random.nextInt(1000) == 0)
+        .build();
+  }
+
+  private String title() {
+    return "The " + pick(ADJECTIVES) + " " + pick(NOUNS);
+  }
+
+  private String person(int rank) {
+    String name = FIRST_NAMES[rank % FIRST_NAMES.length] + " " + LAST_NAMES[(rank / FIRST_NAMES.length) % LAST_NAMES.length];
+    int generation = rank / (FIRST_NAMES.length * LAST_NAMES.length);
+    return generation == 0 ? name : name + " " + (generation + 1);
+  }
+
+  private String address(String city) {
+    return "%d %s %s, %s, CA 93%03d".formatted(
+        1 + random.nextInt(9999), pick(STREETS), pick(STREET_SUFFIXES), city, 100 + random.nextInt(20));
+  }
+
+  private String pick(String[] values) {
+    return values[random.nextInt(values.length)];
+  }
+
+  /** ranks 0..n-1 where rank k is drawn with probability proportional to 1/(k+1)^exponent */
+  static class Zipf {
+    private final double[] cumulative;
+
+    Zipf(int n, double exponent) {
+      cumulative = new double[n];
+      double total = 0;
+      for (int k = 0; k < n; k++) {
+        total += 1.0 / Math.pow(k + 1, exponent);
+        cumulative[k] = total;
+      }
+    }
+
+    int next(Random random) {
+      double u = random.nextDouble() * cumulative[cumulative.length - 1];
+      int index = Arrays.binarySearch(cumulative, u);
+      return index >= 0 ? index : -index - 1;
+    }
+  }
+}
@@ -3,9 +3,56 @@ package edu.ucsb.cs156.example.repositories;
 import edu.ucsb.cs156.example.entities.Bike;
 
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.Collection;
+
+import javax.persistence.QueryHint;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 
 @Repository
+@Transactional(readOnly = true)
 public interface BikeRepository extends CrudRepository<Bike, Long> {
+  List<Bike> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
+
+  @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+  @Query("SELECT b FROM bikes b ORDER BY b.id")
+  Stream<Bike> streamAll();
+
+  // One UPDATE statement, which matches no row (and writes nothing) when
+  // the stored values already equal the new ones; returns the row count.
+  @Modifying
+  @Transactional
+  @Query("UPDATE bikes b SET b.manufacturer = :manufacturer, b.model = :model, b.numGears = :numGears "
+      + "WHERE b.id = :id AND ("
+      + "    b.manufacturer <> :manufacturer OR (b.manufacturer IS NULL AND :manufacturer IS NOT NULL) OR (b.manufacturer IS NOT NULL AND :manufacturer IS NULL) "
+      + "    OR b.model <> :model OR (b.model IS NULL AND :model IS NOT NULL) OR (b.model IS NOT NULL AND :model IS NULL) "
+      + "    OR b.numGears <> :numGears)")
+  int updateById(@Param("id") long id,
+      @Param("manufacturer") String manufacturer,
+      @Param("model") String model,
+      @Param("numGears") int numGears);
+
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM bikes b WHERE b.id = :id")
+  int removeById(@Param("id") long id);
+
+  @Query("SELECT b.id FROM bikes b WHERE b.id IN :ids")
+  List<Long> findIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM bikes b WHERE b.id IN :ids")
+  int removeAllByIdIn(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
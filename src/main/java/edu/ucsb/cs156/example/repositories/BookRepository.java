@@ -3,10 +3,45 @@ package edu.ucsb.cs156.example.repositories;
 import edu.ucsb.cs156.example.entities.Book;
 
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.Collection;
+
+import javax.persistence.QueryHint;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_REGION;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 
 @Repository
-public interface BookRepository extends CrudRepository<Book, Long> {
+@Transactional(readOnly = true)
+public interface BookRepository extends CrudRepository<Book, Long>, BookRepositoryCustom {
+  // in a region of its own, so that updating one book need not empty every cached query
+  String QUERY_REGION = "book-queries";
+
+  @QueryHints({ @QueryHint(name = HINT_CACHEABLE, value = "true"), @QueryHint(name = HINT_CACHE_REGION, value = QUERY_REGION) })
   Iterable<Book> findAllByGenre(String genre);
+
+  List<Book> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
+
+  @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+  @Query("SELECT b FROM book b ORDER BY b.id")
+  Stream<Book> streamAll();
+
+  @Query("SELECT b.id FROM book b WHERE b.id IN :ids")
+  List<Long> findIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM book b WHERE b.id IN :ids")
+  int removeAllByIdIn(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
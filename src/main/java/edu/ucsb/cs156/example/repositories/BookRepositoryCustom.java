@@ -0,0 +1,16 @@
+package edu.ucsb.cs156.example.repositories;
+
+public interface BookRepositoryCustom {
+  /**
+   * One UPDATE statement, which matches no row (and writes nothing) when
+   * the stored values already equal the new ones; returns the row count.
+   * Only that book is evicted from the second-level cache.
+   */
+  int updateById(long id, String name, String author, String genre);
+
+  /**
+   * Deletes the book in one statement and returns the row count. Only that
+   * book is evicted from the second-level cache.
+   */
+  int removeById(long id);
+}
@@ -0,0 +1,90 @@
+package edu.ucsb.cs156.example.repositories;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.jpa.TypedParameterValue;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import edu.ucsb.cs156.example.entities.Book;
+
+/**
+ * Single-row writes to book that keep the rest of the second-level cache.
+ * Hibernate empties an entity's whole region after any JPQL UPDATE or
+ * DELETE, and after a native statement that does not say which tables it
+ * touches; Book is edited far more often than the reference data in the
+ * cache, so that would leave its region empty most of the time. These run
+ * as native statements declared against no cached table, and then evict
+ * just the one book and the cached book queries.
+ */
+
+public class BookRepositoryImpl implements BookRepositoryCustom {
+
+  static final String UPDATE = "UPDATE book SET name = :name, author = :author, genre = :genre "
+      + "WHERE id = :id AND (name IS DISTINCT FROM :name OR author IS DISTINCT FROM :author "
+      + "OR genre IS DISTINCT FROM :genre)";
+
+  static final String DELETE = "DELETE FROM book WHERE id = :id";
+
+  // a query space no entity is mapped to, so Hibernate evicts no region itself
+  static final String NO_CACHED_TABLE = "book_single_row_write";
+
+  @PersistenceContext
+  EntityManager entityManager;
+
+  @Override
+  @Transactional
+  public int updateById(long id, String name, String author, String genre) {
+    int count = statement(UPDATE)
+        .setParameter("id", id)
+        .setParameter("name", new TypedParameterValue(StandardBasicTypes.STRING, name))
+        .setParameter("author", new TypedParameterValue(StandardBasicTypes.STRING, author))
+        .setParameter("genre", new TypedParameterValue(StandardBasicTypes.STRING, genre))
+        .executeUpdate();
+    if (count > 0) {
+      evict(id);
+    }
+    return count;
+  }
+
+  @Override
+  @Transactional
+  public int removeById(long id) {
+    int count = statement(DELETE)
+        .setParameter("id", id)
+        .executeUpdate();
+    if (count > 0) {
+      evict(id);
+    }
+    return count;
+  }
+
+  private Query statement(String sql) {
+    Query query = entityManager.createNativeQuery(sql);
+    query.unwrap(NativeQuery.class).addSynchronizedQuerySpace(NO_CACHED_TABLE);
+    return query;
+  }
+
+  // again once the transaction is over, in case another one read the old row back in meanwhile
+  private void evict(long id) {
+    Cache cache = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+    Runnable evict = () -> {
+      cache.evictEntityData(Book.class, id);
+      cache.evictQueryRegion(BookRepository.QUERY_REGION);
+    };
+    evict.run();
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        evict.run();
+      }
+    });
+  }
+}
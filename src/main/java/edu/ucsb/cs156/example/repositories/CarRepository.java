@@ -1,11 +1,57 @@
 package edu.ucsb.cs156.example.repositories;
 
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import edu.ucsb.cs156.example.entities.Car;
 
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.Collection;
+
+import javax.persistence.QueryHint;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
 
 @Repository
+@Transactional(readOnly = true)
 public interface CarRepository extends CrudRepository<Car, Long> {
-  
-}
+  List<Car> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
+
+  @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+  @Query("SELECT c FROM car c ORDER BY c.id")
+  Stream<Car> streamAll();
+
+  // One UPDATE statement, which matches no row (and writes nothing) when
+  // the stored values already equal the new ones; returns the row count.
+  @Modifying
+  @Transactional
+  @Query("UPDATE car c SET c.model = :model, c.horsepower = :horsepower, c.description = :description "
+      + "WHERE c.id = :id AND ("
+      + "    c.model <> :model OR (c.model IS NULL AND :model IS NOT NULL) OR (c.model IS NOT NULL AND :model IS NULL) "
+      + "    OR c.horsepower <> :horsepower OR (c.horsepower IS NULL AND :horsepower IS NOT NULL) OR (c.horsepower IS NOT NULL AND :horsepower IS NULL) "
+      + "    OR c.description <> :description OR (c.description IS NULL AND :description IS NOT NULL) OR (c.description IS NOT NULL AND :description IS NULL))")
+  int updateById(@Param("id") long id,
+      @Param("model") String model,
+      @Param("horsepower") String horsepower,
+      @Param("description") String description);
+
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM car c WHERE c.id = :id")
+  int removeById(@Param("id") long id);
+
+  @Query("SELECT c.id FROM car c WHERE c.id IN :ids")
+  List<Long> findIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM car c WHERE c.id IN :ids")
+  int removeAllByIdIn(@Param("ids") Collection<Long> ids);
+}
\ No newline at end of file
@@ -3,9 +3,56 @@ package edu.ucsb.cs156.example.repositories;
 import edu.ucsb.cs156.example.entities.Hotel;
 
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.Collection;
+
+import javax.persistence.QueryHint;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 
 @Repository
+@Transactional(readOnly = true)
 public interface HotelRepository extends CrudRepository<Hotel, Long> {
+  List<Hotel> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
+
+  @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+  @Query("SELECT h FROM hotels h ORDER BY h.id")
+  Stream<Hotel> streamAll();
+
+  // One UPDATE statement, which matches no row (and writes nothing) when
+  // the stored values already equal the new ones; returns the row count.
+  @Modifying
+  @Transactional
+  @Query("UPDATE hotels h SET h.name = :name, h.address = :address, h.description = :description "
+      + "WHERE h.id = :id AND ("
+      + "    h.name <> :name OR (h.name IS NULL AND :name IS NOT NULL) OR (h.name IS NOT NULL AND :name IS NULL) "
+      + "    OR h.address <> :address OR (h.address IS NULL AND :address IS NOT NULL) OR (h.address IS NOT NULL AND :address IS NULL) "
+      + "    OR h.description <> :description OR (h.description IS NULL AND :description IS NOT NULL) OR (h.description IS NOT NULL AND :description IS NULL))")
+  int updateById(@Param("id") long id,
+      @Param("name") String name,
+      @Param("address") String address,
+      @Param("description") String description);
+
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM hotels h WHERE h.id = :id")
+  int removeById(@Param("id") long id);
+
+  @Query("SELECT h.id FROM hotels h WHERE h.id IN :ids")
+  List<Long> findIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM hotels h WHERE h.id IN :ids")
+  int removeAllByIdIn(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
@@ -3,9 +3,56 @@ package edu.ucsb.cs156.example.repositories;
 import edu.ucsb.cs156.example.entities.Movie;
 
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.Collection;
+
+import javax.persistence.QueryHint;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 
 @Repository
+@Transactional(readOnly = true)
 public interface MovieRepository extends CrudRepository<Movie, Long> {
+  List<Movie> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
+
+  @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+  @Query("SELECT m FROM movies m ORDER BY m.id")
+  Stream<Movie> streamAll();
+
+  // One UPDATE statement, which matches no row (and writes nothing) when
+  // the stored values already equal the new ones; returns the row count.
+  @Modifying
+  @Transactional
+  @Query("UPDATE movies m SET m.name = :name, m.synopsis = :synopsis, m.castMembers = :castMembers "
+      + "WHERE m.id = :id AND ("
+      + "    m.name <> :name OR (m.name IS NULL AND :name IS NOT NULL) OR (m.name IS NOT NULL AND :name IS NULL) "
+      + "    OR m.synopsis <> :synopsis OR (m.synopsis IS NULL AND :synopsis IS NOT NULL) OR (m.synopsis IS NOT NULL AND :synopsis IS NULL) "
+      + "    OR m.castMembers <> :castMembers OR (m.castMembers IS NULL AND :castMembers IS NOT NULL) OR (m.castMembers IS NOT NULL AND :castMembers IS NULL))")
+  int updateById(@Param("id") long id,
+      @Param("name") String name,
+      @Param("synopsis") String synopsis,
+      @Param("castMembers") String castMembers);
+
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM movies m WHERE m.id = :id")
+  int removeById(@Param("id") long id);
+
+  @Query("SELECT m.id FROM movies m WHERE m.id IN :ids")
+  List<Long> findIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM movies m WHERE m.id IN :ids")
+  int removeAllByIdIn(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
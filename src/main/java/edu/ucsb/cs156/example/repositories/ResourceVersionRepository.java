@@ -0,0 +1,22 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.ResourceVersion;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+@Transactional(readOnly = true)
+public interface ResourceVersionRepository extends CrudRepository<ResourceVersion, String> {
+
+  // Done in the database so that concurrent writers on different servers
+  // never hand out the same version; returns 0 when the row is missing.
+  @Modifying
+  @Transactional
+  @Query("UPDATE resource_versions v SET v.version = v.version + 1 WHERE v.collection = :collection")
+  int increment(@Param("collection") String collection);
+}
@@ -2,8 +2,55 @@ package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.Restaurant;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.Collection;
+
+import javax.persistence.QueryHint;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 @Repository
+@Transactional(readOnly = true)
 public interface RestaurantRepository extends CrudRepository<Restaurant, Long> {
-}
+  List<Restaurant> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
+
+  @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+  @Query("SELECT r FROM restaurants r ORDER BY r.id")
+  Stream<Restaurant> streamAll();
+
+  // One UPDATE statement, which matches no row (and writes nothing) when
+  // the stored values already equal the new ones; returns the row count.
+  @Modifying
+  @Transactional
+  @Query("UPDATE restaurants r SET r.name = :name, r.address = :address, r.description = :description "
+      + "WHERE r.id = :id AND ("
+      + "    r.name <> :name OR (r.name IS NULL AND :name IS NOT NULL) OR (r.name IS NOT NULL AND :name IS NULL) "
+      + "    OR r.address <> :address OR (r.address IS NULL AND :address IS NOT NULL) OR (r.address IS NOT NULL AND :address IS NULL) "
+      + "    OR r.description <> :description OR (r.description IS NULL AND :description IS NOT NULL) OR (r.description IS NOT NULL AND :description IS NULL))")
+  int updateById(@Param("id") long id,
+      @Param("name") String name,
+      @Param("address") String address,
+      @Param("description") String description);
+
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM restaurants r WHERE r.id = :id")
+  int removeById(@Param("id") long id);
+
+  @Query("SELECT r.id FROM restaurants r WHERE r.id IN :ids")
+  List<Long> findIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM restaurants r WHERE r.id IN :ids")
+  int removeAllByIdIn(@Param("ids") Collection<Long> ids);
+}
\ No newline at end of file
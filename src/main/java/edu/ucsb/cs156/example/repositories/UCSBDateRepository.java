@@ -3,10 +3,63 @@ package edu.ucsb.cs156.example.repositories;
 import edu.ucsb.cs156.example.entities.UCSBDate;
 
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.Collection;
+import java.time.LocalDateTime;
+
+import javax.persistence.QueryHint;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 
 @Repository
+@Transactional(readOnly = true)
 public interface UCSBDateRepository extends CrudRepository<UCSBDate, Long> {
+  @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
   Iterable<UCSBDate> findAllByQuarterYYYYQ(String quarterYYYYQ);
+
+  List<UCSBDate> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
+
+  @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+  @Query("SELECT u FROM ucsbdates u ORDER BY u.id")
+  Stream<UCSBDate> streamAll();
+
+  // One UPDATE statement, which matches no row (and writes nothing) when
+  // the stored values already equal the new ones; returns the row count.
+  // Like every JPQL UPDATE or DELETE it empties this entity's whole
+  // second-level cache region, which is fine for rarely edited reference data.
+  @Modifying
+  @Transactional
+  @Query("UPDATE ucsbdates u SET u.quarterYYYYQ = :quarterYYYYQ, u.name = :name, u.localDateTime = :localDateTime "
+      + "WHERE u.id = :id AND ("
+      + "    u.quarterYYYYQ <> :quarterYYYYQ OR (u.quarterYYYYQ IS NULL AND :quarterYYYYQ IS NOT NULL) OR (u.quarterYYYYQ IS NOT NULL AND :quarterYYYYQ IS NULL) "
+      + "    OR u.name <> :name OR (u.name IS NULL AND :name IS NOT NULL) OR (u.name IS NOT NULL AND :name IS NULL) "
+      + "    OR u.localDateTime <> :localDateTime OR (u.localDateTime IS NULL AND :localDateTime IS NOT NULL) OR (u.localDateTime IS NOT NULL AND :localDateTime IS NULL))")
+  int updateById(@Param("id") long id,
+      @Param("quarterYYYYQ") String quarterYYYYQ,
+      @Param("name") String name,
+      @Param("localDateTime") LocalDateTime localDateTime);
+
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM ucsbdates u WHERE u.id = :id")
+  int removeById(@Param("id") long id);
+
+  @Query("SELECT u.id FROM ucsbdates u WHERE u.id IN :ids")
+  List<Long> findIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM ucsbdates u WHERE u.id IN :ids")
+  int removeAllByIdIn(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
@@ -4,10 +4,64 @@ import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
 
 import org.springframework.beans.propertyeditors.StringArrayPropertyEditor;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.Collection;
+
+import javax.persistence.QueryHint;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 
 @Repository
+@Transactional(readOnly = true)
 public interface UCSBDiningCommonsRepository extends CrudRepository<UCSBDiningCommons, String> {
- 
+  List<UCSBDiningCommons> findByCodeGreaterThanOrderByCodeAsc(String code, Pageable pageable);
+
+  @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+  @Query("SELECT u FROM ucsbdiningcommons u ORDER BY u.code")
+  Stream<UCSBDiningCommons> streamAll();
+
+  // One UPDATE statement, which matches no row (and writes nothing) when
+  // the stored values already equal the new ones; returns the row count.
+  // Like every JPQL UPDATE or DELETE it empties this entity's whole
+  // second-level cache region, which is fine for rarely edited reference data.
+  @Modifying
+  @Transactional
+  @Query("UPDATE ucsbdiningcommons u SET u.name = :name, u.hasSackMeal = :hasSackMeal, u.hasTakeOutMeal = :hasTakeOutMeal, u.hasDiningCam = :hasDiningCam, u.latitude = :latitude, u.longitude = :longitude "
+      + "WHERE u.code = :code AND ("
+      + "    u.name <> :name OR (u.name IS NULL AND :name IS NOT NULL) OR (u.name IS NOT NULL AND :name IS NULL) "
+      + "    OR u.hasSackMeal <> :hasSackMeal "
+      + "    OR u.hasTakeOutMeal <> :hasTakeOutMeal "
+      + "    OR u.hasDiningCam <> :hasDiningCam "
+      + "    OR u.latitude <> :latitude OR (u.latitude IS NULL AND :latitude IS NOT NULL) OR (u.latitude IS NOT NULL AND :latitude IS NULL) "
+      + "    OR u.longitude <> :longitude OR (u.longitude IS NULL AND :longitude IS NOT NULL) OR (u.longitude IS NOT NULL AND :longitude IS NULL))")
+  int updateById(@Param("code") String code,
+      @Param("name") String name,
+      @Param("hasSackMeal") boolean hasSackMeal,
+      @Param("hasTakeOutMeal") boolean hasTakeOutMeal,
+      @Param("hasDiningCam") boolean hasDiningCam,
+      @Param("latitude") Double latitude,
+      @Param("longitude") Double longitude);
+
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM ucsbdiningcommons u WHERE u.code = :code")
+  int removeById(@Param("code") String code);
+
+  @Query("SELECT u.code FROM ucsbdiningcommons u WHERE u.code IN :codes")
+  List<String> findIdsByIdIn(@Param("codes") Collection<String> codes);
+
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM ucsbdiningcommons u WHERE u.code IN :codes")
+  int removeAllByIdIn(@Param("codes") Collection<String> codes);
 }
\ No newline at end of file
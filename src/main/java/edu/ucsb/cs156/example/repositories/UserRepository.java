@@ -1,12 +1,54 @@
 package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 @Repository
-public interface UserRepository extends CrudRepository<User, Long> {
+@Transactional(readOnly = true)
+public interface UserRepository extends CrudRepository<User, Long>, UserRepositoryCustom {
   Optional<User> findByEmail(String email);
+
+  // for emails no longer in the admin emails; upsertOnLogin never lowers the flag
+  @Modifying
+  @Transactional
+  @Query("UPDATE users u SET u.admin = false WHERE u.email IN :emails AND u.admin = true")
+  int clearAdminByEmailIn(@Param("emails") Collection<String> emails);
+
+  List<User> findByIdGreaterThanOrderById(long after, Pageable pageable);
+
+  @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+  Stream<User> streamAllByOrderById();
+
+  // pattern is a lower case prefix LIKE pattern ("term%") with ! as its
+  // escape character, so that Postgres can use the lower(...) indexes from
+  // V8__Index_user_search.sql.  Rows whose columns are all NULL never
+  // match; an unfiltered listing uses the two methods above instead.
+  @Query("SELECT u FROM users u WHERE u.id > :after "
+      + "AND (LOWER(u.email) LIKE :pattern ESCAPE '!' OR LOWER(u.fullName) LIKE :pattern ESCAPE '!' "
+      + "OR LOWER(u.familyName) LIKE :pattern ESCAPE '!') "
+      + "ORDER BY u.id")
+  List<User> findMatchingAfter(@Param("pattern") String pattern, @Param("after") long after, Pageable pageable);
+
+  @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+  @Query("SELECT u FROM users u "
+      + "WHERE LOWER(u.email) LIKE :pattern ESCAPE '!' OR LOWER(u.fullName) LIKE :pattern ESCAPE '!' "
+      + "OR LOWER(u.familyName) LIKE :pattern ESCAPE '!' "
+      + "ORDER BY u.id")
+  Stream<User> streamMatching(@Param("pattern") String pattern);
 }
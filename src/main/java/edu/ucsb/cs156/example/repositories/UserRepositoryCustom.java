@@ -0,0 +1,12 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.User;
+
+public interface UserRepositoryCustom {
+  /**
+   * Inserts the user, or, if a user with the same email exists, only sets
+   * its admin flag when the new one is true (admins are never demoted here).
+   * Returns the stored row. Relies on the unique index on users.email.
+   */
+  User upsertOnLogin(User user);
+}
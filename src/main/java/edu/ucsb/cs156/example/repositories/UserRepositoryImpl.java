@@ -0,0 +1,97 @@
+package edu.ucsb.cs156.example.repositories;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+
+import org.hibernate.dialect.PostgreSQL81Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.jpa.TypedParameterValue;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.transaction.annotation.Transactional;
+
+import edu.ucsb.cs156.example.entities.User;
+
+/**
+ * Single-statement upsert of the user row on login, so concurrent first
+ * logins with the same email cannot both insert. Postgres uses an
+ * UPDATE ... RETURNING followed, only if no row matched, by
+ * INSERT ... ON CONFLICT ... RETURNING; H2, which has no ON CONFLICT ... DO
+ * UPDATE, uses the equivalent MERGE and reads the row back afterwards.
+ */
+
+public class UserRepositoryImpl implements UserRepositoryCustom {
+
+  // The UPDATE runs first so that a returning user does not draw from
+  // users_seq: VALUES (nextval(...)) would be evaluated, and a block of ids
+  // thrown away, even when ON CONFLICT then updates.  The INSERT only runs
+  // (and only calls nextval) when no row was updated; its ON CONFLICT covers
+  // two first logins racing each other.
+  static final String POSTGRES_UPSERT = "WITH updated AS ("
+      + "UPDATE users SET admin = users.admin OR :admin WHERE email = :email RETURNING *), "
+      + "inserted AS ("
+      + "INSERT INTO users "
+      + "(id, email, google_sub, picture_url, full_name, given_name, family_name, email_verified, locale, hosted_domain, admin) "
+      + "SELECT nextval('users_seq'), :email, :googleSub, :pictureUrl, :fullName, :givenName, :familyName, "
+      + ":emailVerified, :locale, :hostedDomain, :admin "
+      + "WHERE NOT EXISTS (SELECT 1 FROM updated) "
+      + "ON CONFLICT (email) DO UPDATE SET admin = users.admin OR EXCLUDED.admin "
+      + "RETURNING *) "
+      + "SELECT * FROM updated UNION ALL SELECT * FROM inserted";
+
+  static final String H2_MERGE = "MERGE INTO users u USING (SELECT "
+      + "CAST(:email AS VARCHAR(255)) email, CAST(:googleSub AS VARCHAR(255)) google_sub, "
+      + "CAST(:pictureUrl AS VARCHAR(255)) picture_url, CAST(:fullName AS VARCHAR(255)) full_name, "
+      + "CAST(:givenName AS VARCHAR(255)) given_name, CAST(:familyName AS VARCHAR(255)) family_name, "
+      + "CAST(:emailVerified AS BOOLEAN) email_verified, CAST(:locale AS VARCHAR(255)) locale, "
+      + "CAST(:hostedDomain AS VARCHAR(255)) hosted_domain, CAST(:admin AS BOOLEAN) admin) s "
+      + "ON (u.email = s.email) "
+      + "WHEN MATCHED THEN UPDATE SET admin = (u.admin OR s.admin) "
+      + "WHEN NOT MATCHED THEN INSERT "
+      + "(id, email, google_sub, picture_url, full_name, given_name, family_name, email_verified, locale, hosted_domain, admin) "
+      + "VALUES (NEXT VALUE FOR users_seq, s.email, s.google_sub, s.picture_url, s.full_name, s.given_name, "
+      + "s.family_name, s.email_verified, s.locale, s.hosted_domain, s.admin)";
+
+  @PersistenceContext
+  EntityManager entityManager;
+
+  @Override
+  @Transactional
+  public User upsertOnLogin(User user) {
+    User stored;
+    if (isPostgres()) {
+      stored = (User) bind(entityManager.createNativeQuery(POSTGRES_UPSERT, User.class), user).getSingleResult();
+    } else {
+      bind(entityManager.createNativeQuery(H2_MERGE), user).executeUpdate();
+      stored = entityManager.createQuery("SELECT u FROM users u WHERE u.email = :email", User.class)
+          .setParameter("email", user.getEmail())
+          .getSingleResult();
+    }
+    // inside a longer transaction the row may already be managed, and the
+    // query then returns that instance as it was before this statement
+    entityManager.refresh(stored);
+    return stored;
+  }
+
+  private boolean isPostgres() {
+    return entityManager.getEntityManagerFactory()
+        .unwrap(SessionFactoryImplementor.class)
+        .getJdbcServices()
+        .getDialect() instanceof PostgreSQL81Dialect;
+  }
+
+  // typed, so that nulls (e.g. no hosted domain) bind as varchar/boolean rather than an unknown type
+  private Query bind(Query query, User user) {
+    return query
+        .setParameter("email", new TypedParameterValue(StandardBasicTypes.STRING, user.getEmail()))
+        .setParameter("googleSub", new TypedParameterValue(StandardBasicTypes.STRING, user.getGoogleSub()))
+        .setParameter("pictureUrl", new TypedParameterValue(StandardBasicTypes.STRING, user.getPictureUrl()))
+        .setParameter("fullName", new TypedParameterValue(StandardBasicTypes.STRING, user.getFullName()))
+        .setParameter("givenName", new TypedParameterValue(StandardBasicTypes.STRING, user.getGivenName()))
+        .setParameter("familyName", new TypedParameterValue(StandardBasicTypes.STRING, user.getFamilyName()))
+        .setParameter("emailVerified", new TypedParameterValue(StandardBasicTypes.BOOLEAN, user.getEmailVerified()))
+        .setParameter("locale", new TypedParameterValue(StandardBasicTypes.STRING, user.getLocale()))
+        .setParameter("hostedDomain", new TypedParameterValue(StandardBasicTypes.STRING, user.getHostedDomain()))
+        .setParameter("admin", new TypedParameterValue(StandardBasicTypes.BOOLEAN, user.getAdmin()));
+  }
+}
@@ -0,0 +1,10 @@
+package edu.ucsb.cs156.example.services;
+
+import java.util.Collection;
+import java.util.Set;
+
+public abstract class AdminDirectory {
+  public abstract boolean isAdminEmail(String email);
+  public abstract Set<String> getAdminEmails();
+  public abstract void setAdminEmails(Collection<String> emails);
+}
@@ -0,0 +1,167 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.errors.AdminEmailsNotEditableException;
+import edu.ucsb.cs156.example.errors.AdminEmailsNotSavedException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+// The emails that are always given the admin role. Readers get the current
+// immutable snapshot from an AtomicReference (an O(1), lock-free lookup);
+// writers build a new set and swap it in.
+//
+// The snapshot starts from app.admin.emails. If app.admin.emailsFile names a
+// file (emails separated by commas or whitespace), its contents replace that
+// list, and the file is re-read whenever its modification time changes, so
+// every server reading the same file picks up an edit within
+// app.admin.emailsFileCheckMillis. setAdminEmails (the admin endpoint)
+// writes the file first and only then applies the change on this server;
+// if the file cannot be written nothing changes and it throws. Without a
+// file a change could only reach this one server, so it is refused.
+//
+// Each change after startup is published as an AdminEmailsChangedEvent,
+// so that cached users and stored admin flags can follow it.
+
+@Slf4j
+@Service("adminDirectory")
+public class AdminDirectoryImpl extends AdminDirectory {
+
+  @Value("${app.admin.emails}")
+  List<String> configuredEmails = new ArrayList<String>();
+
+  @Value("${app.admin.emailsFile:}")
+  String emailsFile;
+
+  @Autowired
+  ApplicationEventPublisher eventPublisher;
+
+  private final AtomicReference<Set<String>> adminEmails = new AtomicReference<>(Set.of());
+
+  private FileTime loadedModifiedTime;
+
+  @PostConstruct
+  void init() {
+    adminEmails.set(normalize(configuredEmails));
+    Set<String> fromFile = readIfChanged();
+    if (fromFile != null) {
+      adminEmails.set(fromFile);
+    }
+  }
+
+  public boolean isAdminEmail(String email) {
+    return email != null && adminEmails.get().contains(email);
+  }
+
+  public Set<String> getAdminEmails() {
+    return adminEmails.get();
+  }
+
+  public synchronized void setAdminEmails(Collection<String> emails) {
+    if (!hasFile()) {
+      throw new AdminEmailsNotEditableException();
+    }
+    Set<String> snapshot = normalize(emails);
+    Path path = Path.of(emailsFile);
+    Path temp = null;
+    try {
+      temp = Files.createTempFile(path.toAbsolutePath().getParent(), ".admin-emails", ".tmp");
+      Files.writeString(temp, String.join("\n", new TreeSet<>(snapshot)) + "\n");
+      Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      loadedModifiedTime = Files.getLastModifiedTime(path);
+    } catch (IOException e) {
+      deleteIfExists(temp);
+      // other servers read the file, so this one keeps matching it
+      throw new AdminEmailsNotSavedException(emailsFile, e);
+    }
+    replace(snapshot);
+    log.info("admin emails replaced; {} configured", snapshot.size());
+  }
+
+  @Scheduled(fixedDelayString = "${app.admin.emailsFileCheckMillis:30000}")
+  public synchronized void reloadIfChanged() {
+    Set<String> fromFile = readIfChanged();
+    if (fromFile != null) {
+      replace(fromFile);
+    }
+  }
+
+  // null when there is no file, it is unchanged, or it cannot be read
+  private Set<String> readIfChanged() {
+    if (!hasFile()) {
+      return null;
+    }
+    Path path = Path.of(emailsFile);
+    try {
+      if (!Files.exists(path)) {
+        return null;
+      }
+      FileTime modified = Files.getLastModifiedTime(path);
+      if (modified.equals(loadedModifiedTime)) {
+        return null;
+      }
+      Set<String> snapshot = normalize(Arrays.asList(Files.readString(path).split("[,\\s]+")));
+      loadedModifiedTime = modified;
+      log.info("loaded {} admin emails from {}", snapshot.size(), path);
+      return snapshot;
+    } catch (IOException e) {
+      log.warn("could not read admin emails from {}: {}", path, e.toString());
+      return null;
+    }
+  }
+
+  private void replace(Set<String> snapshot) {
+    Set<String> before = adminEmails.getAndSet(snapshot);
+    Set<String> added = difference(snapshot, before);
+    Set<String> removed = difference(before, snapshot);
+    if (!added.isEmpty() || !removed.isEmpty()) {
+      eventPublisher.publishEvent(new AdminEmailsChangedEvent(added, removed));
+    }
+  }
+
+  private static Set<String> difference(Set<String> a, Set<String> b) {
+    return a.stream()
+        .filter(email -> !b.contains(email))
+        .collect(Collectors.toUnmodifiableSet());
+  }
+
+  private static void deleteIfExists(Path temp) {
+    try {
+      if (temp != null) {
+        Files.deleteIfExists(temp);
+      }
+    } catch (IOException e) {
+      log.warn("could not delete {}: {}", temp, e.toString());
+    }
+  }
+
+  private boolean hasFile() {
+    return emailsFile != null && !emailsFile.isBlank();
+  }
+
+  static Set<String> normalize(Collection<String> emails) {
+    return emails.stream()
+        .map(String::trim)
+        .filter(email -> !email.isEmpty())
+        .collect(Collectors.toUnmodifiableSet());
+  }
+}
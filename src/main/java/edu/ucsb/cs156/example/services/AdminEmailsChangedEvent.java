@@ -0,0 +1,15 @@
+package edu.ucsb.cs156.example.services;
+
+import java.util.Set;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Published by AdminDirectoryImpl when the admin emails change, both on the
+// server where they were set and on each server that reloads the file.
+@Data
+@AllArgsConstructor
+public class AdminEmailsChangedEvent {
+  private Set<String> added;
+  private Set<String> removed;
+}
@@ -0,0 +1,6 @@
+package edu.ucsb.cs156.example.services;
+
+public abstract class AdminStatusService {
+  public abstract boolean isAdmin(String email);
+  public abstract void invalidate(String email);
+}
@@ -0,0 +1,57 @@
+package edu.ucsb.cs156.example.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+// Decides whether an email belongs to an admin: either it is in the
+// AdminDirectory (a hash set lookup), or its users row has the admin flag.
+// Flags read from the users table are cached per email for a bounded time,
+// so repeated logins do not each query the table; invalidate(email) must be
+// called whenever a user's admin flag is changed.
+
+@Slf4j
+@Service("adminStatus")
+public class AdminStatusServiceImpl extends AdminStatusService {
+
+  @Autowired
+  UserRepository userRepository;
+
+  @Autowired
+  CacheStatsService cacheStatsService;
+
+  @Autowired
+  AdminDirectory adminDirectory;
+
+  @Value("${app.adminStatus.cache:maximumSize=10000,expireAfterWrite=5m}")
+  String adminStatusCacheSpec;
+
+  private Cache<String, Boolean> adminFlags;
+
+  @PostConstruct
+  void init() {
+    adminFlags = Caffeine.from(adminStatusCacheSpec).recordStats().build();
+    cacheStatsService.register("adminStatus", adminFlags);
+  }
+
+  public boolean isAdmin(String email) {
+    if (adminDirectory.isAdminEmail(email)) {
+      return true;
+    }
+    return adminFlags.get(email, e -> userRepository.findByEmail(e).map(User::getAdmin).orElse(false));
+  }
+
+  public void invalidate(String email) {
+    log.debug("invalidating cached admin flag for {}", email);
+    adminFlags.invalidate(email);
+  }
+}
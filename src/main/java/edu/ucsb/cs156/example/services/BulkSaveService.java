@@ -0,0 +1,45 @@
+package edu.ucsb.cs156.example.services;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Saves a large list of entities in fixed-size chunks, one transaction per
+ * chunk, so that Hibernate can send each chunk as JDBC batches
+ * (see hibernate.jdbc.batch_size) and the persistence context is discarded
+ * between chunks instead of growing with the whole request.
+ *
+ * A failure rolls back only the chunk in progress; chunks that were already
+ * committed stay saved.
+ */
+
+@Slf4j
+@Service("bulkSave")
+public class BulkSaveService {
+
+  @Autowired
+  PlatformTransactionManager transactionManager;
+
+  @Value("${app.bulk.chunkSize:1000}")
+  int chunkSize;
+
+  public <T> List<T> saveInChunks(CrudRepository<T, ?> repository, List<T> rows) {
+    TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+    List<T> saved = new ArrayList<>(rows.size());
+    for (int from = 0; from < rows.size(); from += chunkSize) {
+      List<T> chunk = rows.subList(from, Math.min(from + chunkSize, rows.size()));
+      transaction.executeWithoutResult(status -> repository.saveAll(chunk).forEach(saved::add));
+    }
+    log.info("bulk saved {} rows in chunks of {}", saved.size(), chunkSize);
+    return saved;
+  }
+}
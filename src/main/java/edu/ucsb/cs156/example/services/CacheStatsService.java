@@ -0,0 +1,12 @@
+package edu.ucsb.cs156.example.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+
+import edu.ucsb.cs156.example.models.CacheStatistics;
+
+import java.util.List;
+
+public abstract class CacheStatsService {
+  public abstract void register(String name, Cache<?, ?> cache);
+  public abstract List<CacheStatistics> getCacheStatistics();
+}
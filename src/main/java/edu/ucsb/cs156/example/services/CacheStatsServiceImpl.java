@@ -0,0 +1,45 @@
+package edu.ucsb.cs156.example.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import edu.ucsb.cs156.example.models.CacheStatistics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.springframework.stereotype.Service;
+
+// In-process caches register themselves here so that their hit/miss
+// counters can be reported alongside the rest of the system information.
+
+@Slf4j
+@Service("cacheStats")
+public class CacheStatsServiceImpl extends CacheStatsService {
+
+  private final Map<String, Cache<?, ?>> caches = new ConcurrentSkipListMap<>();
+
+  public void register(String name, Cache<?, ?> cache) {
+    log.info("registering cache {}", name);
+    caches.put(name, cache);
+  }
+
+  public List<CacheStatistics> getCacheStatistics() {
+    List<CacheStatistics> result = new ArrayList<>();
+    caches.forEach((name, cache) -> {
+      CacheStats stats = cache.stats();
+      result.add(CacheStatistics.builder()
+          .name(name)
+          .size(cache.estimatedSize())
+          .hitCount(stats.hitCount())
+          .missCount(stats.missCount())
+          .hitRate(stats.hitRate())
+          .evictionCount(stats.evictionCount())
+          .build());
+    });
+    return result;
+  }
+}
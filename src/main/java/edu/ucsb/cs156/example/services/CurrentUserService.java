@@ -6,11 +6,15 @@ import edu.ucsb.cs156.example.models.CurrentUser;
 import java.util.Collection;
 
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.core.user.OAuth2User;
 
 public abstract class CurrentUserService {
   public abstract User getUser();
   public abstract CurrentUser getCurrentUser();
   public abstract Collection<? extends GrantedAuthority> getRoles();
+  // called once per successful OAuth2 login, to create or update the user's row
+  public abstract User recordLogin(OAuth2User oAuthUser);
+  public abstract void evictUser(String email);
 
   public final boolean isLoggedIn() {
     return getUser() != null;
@@ -1,17 +1,22 @@
 package edu.ucsb.cs156.example.services;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
 import edu.ucsb.cs156.example.entities.User;
 import edu.ucsb.cs156.example.models.CurrentUser;
 import edu.ucsb.cs156.example.repositories.UserRepository;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import javax.annotation.PostConstruct;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContext;
@@ -25,20 +30,39 @@ import org.springframework.stereotype.Service;
 @Service("currentUser")
 public class CurrentUserServiceImpl extends CurrentUserService {
   @Autowired
-  private UserRepository userRepository;
+  UserRepository userRepository;
 
   @Autowired
   GrantedAuthoritiesService grantedAuthoritiesService;
 
-  @Value("${app.admin.emails}")
-  final private List<String> adminEmails = new ArrayList<String>();
+  @Autowired
+  CacheStatsService cacheStatsService;
+
+  @Autowired
+  AdminStatusService adminStatusService;
+
+  @Autowired
+  AdminDirectory adminDirectory;
+
+  @Value("${app.currentUser.cache:maximumSize=10000,expireAfterWrite=5m}")
+  String userCacheSpec;
+
+  // Resolved users keyed by email, so that authenticated requests
+  // do not each cost a lookup in the users table.
+  private Cache<String, User> userCache;
+
+  @PostConstruct
+  void initUserCache() {
+    userCache = Caffeine.from(userCacheSpec).recordStats().build();
+    cacheStatsService.register("currentUser", userCache);
+  }
 
   public CurrentUser getCurrentUser() {
     CurrentUser cu = CurrentUser.builder()
       .user(this.getUser())
       .roles(this.getRoles())
       .build();
-    log.info("getCurrentUser returns {}",cu);
+    log.debug("getCurrentUser returns {}",cu);
     return cu;
   }
 
@@ -46,6 +70,56 @@ public class CurrentUserServiceImpl extends CurrentUserService {
   public User getOAuth2AuthenticatedUser(SecurityContext securityContext, Authentication authentication) {
     OAuth2User oAuthUser = ((OAuth2AuthenticationToken) authentication).getPrincipal();
     String email = oAuthUser.getAttribute("email");
+
+    // a cached user that should have been promoted to admin is treated as a miss
+    User cached = userCache.getIfPresent(email);
+    if (cached != null && (cached.getAdmin() || !adminDirectory.isAdminEmail(email))) {
+      return cached;
+    }
+
+    // the row is normally upserted by recordLogin when the user logs in;
+    // sessions from before that, or users promoted since, are upserted here
+    User u = userRepository.findByEmail(email)
+        .filter(found -> found.getAdmin() || !adminDirectory.isAdminEmail(email))
+        .orElseGet(() -> upsert(oAuthUser));
+    userCache.put(email, u);
+    return u;
+  }
+
+  public User recordLogin(OAuth2User oAuthUser) {
+    User u = upsert(oAuthUser);
+    userCache.put(u.getEmail(), u);
+    return u;
+  }
+
+  // drops the cached user and admin flag, e.g. when the email is added to
+  // or removed from the admin emails
+  public void evictUser(String email) {
+    userCache.invalidate(email);
+    adminStatusService.invalidate(email);
+  }
+
+  // on every server, whether the emails were changed through the endpoint or
+  // in the file; logins only ever raise the stored admin flag, so removed
+  // emails have it cleared here
+  @EventListener
+  public void onAdminEmailsChanged(AdminEmailsChangedEvent event) {
+    if (!event.getRemoved().isEmpty()) {
+      userRepository.clearAdminByEmailIn(event.getRemoved());
+    }
+    Stream.concat(event.getAdded().stream(), event.getRemoved().stream())
+        .forEach(this::evictUser);
+  }
+
+  // the upsert may raise the admin flag, so the cached flag is dropped
+  private User upsert(OAuth2User oAuthUser) {
+    User u = userRepository.upsertOnLogin(userFrom(oAuthUser));
+    adminStatusService.invalidate(u.getEmail());
+    return u;
+  }
+
+  private User userFrom(OAuth2User oAuthUser) {
+    String email = oAuthUser.getAttribute("email");
     String googleSub = oAuthUser.getAttribute("sub");
     String pictureUrl = oAuthUser.getAttribute("picture");
     String fullName = oAuthUser.getAttribute("name");
@@ -56,19 +130,9 @@ public class CurrentUserServiceImpl extends CurrentUserService {
     String hostedDomain = oAuthUser.getAttribute("hd");
 
     java.util.Map<java.lang.String,java.lang.Object> attrs = oAuthUser.getAttributes();
-    log.info("attrs={}",attrs);
-
-    Optional<User> ou = userRepository.findByEmail(email);
-    if (ou.isPresent()) {
-      User u = ou.get();
-      if (adminEmails.contains(email) && !u.getAdmin()) {
-        u.setAdmin(true);
-        userRepository.save(u);
-      }
-      return u;
-    }
+    log.debug("attrs={}",attrs);
 
-    User u = User.builder()
+    return User.builder()
         .googleSub(googleSub)
         .email(email)
         .pictureUrl(pictureUrl)
@@ -78,10 +142,8 @@ public class CurrentUserServiceImpl extends CurrentUserService {
         .emailVerified(emailVerified)
         .locale(locale)
         .hostedDomain(hostedDomain)
-        .admin(adminEmails.contains(email))
+        .admin(adminDirectory.isAdminEmail(email))
         .build();
-    userRepository.save(u);
-    return u;
   }
 
   public User getUser() {
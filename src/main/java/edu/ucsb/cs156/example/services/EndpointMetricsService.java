@@ -0,0 +1,9 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.models.EndpointStatistics;
+
+import java.util.List;
+
+public abstract class EndpointMetricsService {
+  public abstract List<EndpointStatistics> getEndpointStatistics();
+}
@@ -0,0 +1,79 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.aop.MetricsAspect;
+import edu.ucsb.cs156.example.models.EndpointStatistics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValuePercentile;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+// Reads back the per-endpoint timers and error counters recorded by
+// MetricsAspect; the list is empty when that aspect is disabled.
+
+@Slf4j
+@Service("endpointMetrics")
+public class EndpointMetricsServiceImpl extends EndpointMetricsService {
+
+  @Autowired
+  MeterRegistry meterRegistry;
+
+  private long startNanos;
+
+  @PostConstruct
+  public void recordStartTime() {
+    startNanos = meterRegistry.config().clock().monotonicTime();
+  }
+
+  public List<EndpointStatistics> getEndpointStatistics() {
+    double elapsedSeconds = (meterRegistry.config().clock().monotonicTime() - startNanos) / 1e9;
+
+    List<EndpointStatistics> result = new ArrayList<>();
+    for (Timer timer : meterRegistry.find(MetricsAspect.LATENCY_METRIC).timers()) {
+      String controller = timer.getId().getTag("controller");
+      String method = timer.getId().getTag("method");
+
+      double errors = meterRegistry.find(MetricsAspect.ERROR_METRIC)
+          .tag("controller", controller)
+          .tag("method", method)
+          .counters().stream()
+          .mapToDouble(Counter::count)
+          .sum();
+
+      HistogramSnapshot snapshot = timer.takeSnapshot();
+      Map<Double, Double> percentiles = new HashMap<>();
+      for (ValuePercentile vp : snapshot.percentileValues()) {
+        percentiles.put(vp.percentile(), vp.value(TimeUnit.MILLISECONDS));
+      }
+
+      result.add(EndpointStatistics.builder()
+          .controller(controller)
+          .method(method)
+          .count(snapshot.count())
+          .errorCount((long) errors)
+          .requestsPerSecond(elapsedSeconds > 0 ? snapshot.count() / elapsedSeconds : 0.0)
+          .meanMillis(snapshot.mean(TimeUnit.MILLISECONDS))
+          .maxMillis(snapshot.max(TimeUnit.MILLISECONDS))
+          .p50Millis(percentiles.get(0.5))
+          .p95Millis(percentiles.get(0.95))
+          .p99Millis(percentiles.get(0.99))
+          .build());
+    }
+    result.sort(Comparator.comparing(EndpointStatistics::getController)
+        .thenComparing(EndpointStatistics::getMethod));
+    return result;
+  }
+}
@@ -0,0 +1,7 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.models.HibernateStatistics;
+
+public abstract class HibernateStatisticsService {
+  public abstract HibernateStatistics getHibernateStatistics();
+}
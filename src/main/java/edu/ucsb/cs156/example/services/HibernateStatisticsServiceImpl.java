@@ -0,0 +1,66 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.models.CacheStatistics;
+import edu.ucsb.cs156.example.models.HibernateStatistics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+// Reports Hibernate's own counters, so the effect of the second-level and
+// query caches on the number of SQL statements issued can be seen directly.
+// They are only gathered when hibernate.generate_statistics is on (the
+// development and perf profiles); otherwise statisticsEnabled is false and
+// the counters stay at zero.
+
+@Slf4j
+@Service("hibernateStatistics")
+public class HibernateStatisticsServiceImpl extends HibernateStatisticsService {
+
+  @Autowired
+  EntityManagerFactory entityManagerFactory;
+
+  public HibernateStatistics getHibernateStatistics() {
+    Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+    List<CacheStatistics> regions = new ArrayList<>();
+    for (String name : stats.getSecondLevelCacheRegionNames()) {
+      CacheRegionStatistics region = stats.getCacheRegionStatistics(name);
+      if (region == null) {
+        continue;
+      }
+      long requests = region.getHitCount() + region.getMissCount();
+      regions.add(CacheStatistics.builder()
+          .name(name)
+          .size(region.getElementCountInMemory())
+          .hitCount(region.getHitCount())
+          .missCount(region.getMissCount())
+          .hitRate(requests == 0 ? 1.0 : (double) region.getHitCount() / requests)
+          .build());
+    }
+
+    long sessions = stats.getSessionOpenCount();
+    return HibernateStatistics.builder()
+        .statisticsEnabled(stats.isStatisticsEnabled())
+        .sessionOpenCount(sessions)
+        .prepareStatementCount(stats.getPrepareStatementCount())
+        .statementsPerSession(sessions == 0 ? 0.0 : (double) stats.getPrepareStatementCount() / sessions)
+        .entityLoadCount(stats.getEntityLoadCount())
+        .secondLevelCacheHitCount(stats.getSecondLevelCacheHitCount())
+        .secondLevelCacheMissCount(stats.getSecondLevelCacheMissCount())
+        .secondLevelCachePutCount(stats.getSecondLevelCachePutCount())
+        .queryCacheHitCount(stats.getQueryCacheHitCount())
+        .queryCacheMissCount(stats.getQueryCacheMissCount())
+        .queryCachePutCount(stats.getQueryCachePutCount())
+        .regions(regions)
+        .build();
+  }
+}
@@ -0,0 +1,73 @@
+package edu.ucsb.cs156.example.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Writes query results to the response as a JSON array one row at a time,
+ * so that listing a whole table needs memory for one JDBC fetch batch
+ * rather than for the whole table.
+ */
+
+@Slf4j
+@Service("jsonStreaming")
+public class JsonStreamingService {
+
+  @Autowired
+  ObjectMapper mapper;
+
+  @Autowired
+  EntityManager entityManager;
+
+  @Autowired
+  PlatformTransactionManager transactionManager;
+
+  /**
+   * The supplier is invoked on the async request thread, inside a read-only
+   * transaction, because the stream of a repository query is only usable
+   * while its transaction is open.
+   */
+  public <T> StreamingResponseBody streamJsonArray(Supplier<Stream<T>> rows) {
+    return outputStream -> {
+      TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+      transaction.setReadOnly(true);
+      transaction.executeWithoutResult(status -> {
+        ObjectWriter writer = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (Stream<T> stream = rows.get();
+            JsonGenerator generator = mapper.getFactory().createGenerator(outputStream)) {
+          generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+          generator.writeStartArray();
+          stream.forEach(row -> {
+            try {
+              writer.writeValue(generator, row);
+            } catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+            // rows already written are not needed by the persistence context
+            entityManager.detach(row);
+          });
+          generator.writeEndArray();
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+    };
+  }
+}
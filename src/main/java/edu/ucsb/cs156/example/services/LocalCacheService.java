@@ -0,0 +1,5 @@
+package edu.ucsb.cs156.example.services;
+
+public abstract class LocalCacheService {
+  public abstract void evict(String collection);
+}
@@ -0,0 +1,44 @@
+package edu.ucsb.cs156.example.services;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.persistence.Cacheable;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.metamodel.EntityType;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+// Empties what this server alone holds for a collection: the getById cache
+// named after it (see CachingConfig) and, if the entity of the same name is
+// in the second-level cache, its region and all cached query results.
+// ResourceVersionServiceImpl calls this when it sees that another server
+// has changed the collection, since those caches are never told otherwise.
+
+@Slf4j
+@Service("localCaches")
+public class LocalCacheServiceImpl extends LocalCacheService {
+
+  @Autowired
+  CacheManager cacheManager;
+
+  @Autowired
+  EntityManagerFactory entityManagerFactory;
+
+  public void evict(String collection) {
+    if (cacheManager.getCacheNames().contains(collection)) {
+      cacheManager.getCache(collection).clear();
+    }
+    for (EntityType<?> entity : entityManagerFactory.getMetamodel().getEntities()) {
+      if (entity.getName().equals(collection) && entity.getJavaType().isAnnotationPresent(Cacheable.class)) {
+        Cache secondLevel = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        secondLevel.evictEntityData(entity.getJavaType());
+        secondLevel.evictQueryRegions();
+      }
+    }
+    log.debug("evicted local caches for {}", collection);
+  }
+}
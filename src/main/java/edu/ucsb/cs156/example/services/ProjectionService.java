@@ -0,0 +1,115 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.errors.UnknownFieldsException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.SingularAttribute;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Lists an entity's rows with only some of its fields, for ?fields= on the
+ * /all endpoints.  The field names are checked against the JPA metamodel and
+ * turned into a Criteria tuple query, so the SELECT itself only reads those
+ * columns and no entities are loaded into the persistence context.
+ *
+ * Each row is a map from field name to value, in the order the fields were
+ * asked for.  The id is always included, first, so that a page can be
+ * continued from it.
+ */
+
+@Service("projections")
+public class ProjectionService {
+
+  @PersistenceContext
+  EntityManager entityManager;
+
+  @Transactional(readOnly = true)
+  public List<Map<String, Object>> findAll(Class<?> entityClass, List<String> fields) {
+    return select(entityClass, fields, null, null);
+  }
+
+  /** at most maxRows rows whose id is greater than after, ordered by id */
+  @Transactional(readOnly = true)
+  public <K extends Comparable<? super K>> List<Map<String, Object>> findAfter(
+      Class<?> entityClass, List<String> fields, K after, int maxRows) {
+    return select(entityClass, fields, after, maxRows);
+  }
+
+  private <X, K extends Comparable<? super K>> List<Map<String, Object>> select(
+      Class<X> entityClass, List<String> fields, K after, Integer maxRows) {
+    EntityType<X> entity = entityManager.getMetamodel().entity(entityClass);
+    String id = entity.getSingularAttributes().stream()
+        .filter(SingularAttribute::isId)
+        .map(Attribute::getName)
+        .findFirst()
+        .orElseThrow();
+    List<String> columns = columns(entity, id, fields);
+
+    CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Tuple> query = builder.createTupleQuery();
+    Root<X> root = query.from(entityClass);
+    query.multiselect(columns.stream()
+        .map(column -> root.get(column).alias(column))
+        .collect(Collectors.toList()));
+    if (after != null) {
+      query.where(builder.greaterThan(root.<K>get(id), after));
+    }
+    if (maxRows != null) {
+      query.orderBy(builder.asc(root.get(id)));
+    }
+
+    TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+    if (maxRows != null) {
+      typedQuery.setMaxResults(maxRows);
+    }
+    return typedQuery.getResultList().stream()
+        .map(tuple -> {
+          Map<String, Object> row = new LinkedHashMap<>();
+          columns.forEach(column -> row.put(column, tuple.get(column)));
+          return row;
+        })
+        .collect(Collectors.toList());
+  }
+
+  private List<String> columns(EntityType<?> entity, String id, List<String> fields) {
+    Set<String> known = entity.getSingularAttributes().stream()
+        .map(Attribute::getName)
+        .collect(Collectors.toSet());
+    Set<String> columns = new LinkedHashSet<>();
+    columns.add(id);
+    List<String> unknown = new ArrayList<>();
+    for (String field : fields) {
+      String name = field.trim();
+      if (name.isEmpty()) {
+        continue;
+      }
+      if (known.contains(name)) {
+        columns.add(name);
+      } else {
+        unknown.add(name);
+      }
+    }
+    if (!unknown.isEmpty()) {
+      throw new UnknownFieldsException(entity.getJavaType(), unknown);
+    }
+    return new ArrayList<>(columns);
+  }
+}
@@ -0,0 +1,8 @@
+package edu.ucsb.cs156.example.services;
+
+public abstract class ResourceVersionService {
+  public abstract long getVersion(String collection);
+  public abstract String getETag(String collection);
+  public abstract String getETag(String collection, String representation);
+  public abstract void changed(String collection);
+}
@@ -0,0 +1,77 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.entities.ResourceVersion;
+import edu.ucsb.cs156.example.repositories.ResourceVersionRepository;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+// A version per collection (the path segment after /api/, e.g.
+// "ucsbdates"), kept in the resource_versions table and incremented after
+// every request that may have changed the collection.  Because the row is
+// shared, a write made through any server moves the version every server
+// reads, so no server answers 304 for data another one has changed.
+//
+// A collection's row starts at the time it was first used rather than at 0,
+// so versions from a database that has since been recreated are not reused.
+//
+// The bodies tagged with a version may come from caches that only this
+// server holds (getById results, second-level cache regions).  So whenever
+// a version is read that differs from the last one this server saw, those
+// caches are emptied before anything is served under the new tag.
+
+@Slf4j
+@Service("resourceVersions")
+public class ResourceVersionServiceImpl extends ResourceVersionService {
+
+  @Autowired
+  ResourceVersionRepository resourceVersionRepository;
+
+  @Autowired
+  LocalCacheService localCacheService;
+
+  private final Map<String, Long> seen = new ConcurrentHashMap<>();
+
+  public long getVersion(String collection) {
+    long version = resourceVersionRepository.findById(collection)
+        .map(ResourceVersion::getVersion)
+        .orElseGet(() -> start(collection));
+    Long previous = seen.put(collection, version);
+    if (previous != null && previous != version) {
+      localCacheService.evict(collection);
+    }
+    return version;
+  }
+
+  public String getETag(String collection) {
+    return getETag(collection, null);
+  }
+
+  /** tags for other representations of the same version (e.g. "cbor") get it as a suffix */
+  public String getETag(String collection, String representation) {
+    String tag = collection + "-" + getVersion(collection);
+    return "\"" + (representation == null ? tag : tag + "-" + representation) + "\"";
+  }
+
+  public void changed(String collection) {
+    if (resourceVersionRepository.increment(collection) == 0) {
+      start(collection);
+      resourceVersionRepository.increment(collection);
+    }
+    log.debug("{} changed", collection);
+  }
+
+  private long start(String collection) {
+    try {
+      resourceVersionRepository.save(new ResourceVersion(collection, System.currentTimeMillis()));
+    } catch (DataIntegrityViolationException e) {
+      log.debug("{} was started by another server", collection);
+    }
+    return resourceVersionRepository.findById(collection).orElseThrow().getVersion();
+  }
+}
@@ -0,0 +1,45 @@
+package edu.ucsb.cs156.example.util;
+
+import java.util.Enumeration;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Reads the Accept-Encoding request header, for code that picks between
+ * stored copies of a body (ResponseCacheFilter's gzipped /all responses,
+ * FrontendController's .br and .gz copies of index.html).
+ */
+
+public final class AcceptEncoding {
+
+  private AcceptEncoding() {
+  }
+
+  /**
+   * True if some Accept-Encoding header lists the content coding, ignoring
+   * case, without a weight of q=0 (which means "not acceptable").
+   */
+  public static boolean accepts(HttpServletRequest request, String coding) {
+    Enumeration<String> values = request.getHeaders(HttpHeaders.ACCEPT_ENCODING);
+    while (values != null && values.hasMoreElements()) {
+      for (String entry : values.nextElement().split(",")) {
+        String[] parts = entry.trim().split(";");
+        if (parts[0].trim().equalsIgnoreCase(coding) && !refused(parts)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private static boolean refused(String[] parts) {
+    for (int i = 1; i < parts.length; i++) {
+      if (parts[i].trim().replace(" ", "").matches("(?i)q=0(\\.0{0,3})?")) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -1 +0,0 @@
-ALTER TABLE users ADD admin BOOLEAN DEFAULT FALSE;
\ No newline at end of file
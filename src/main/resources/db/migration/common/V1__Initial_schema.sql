@@ -0,0 +1,84 @@
+-- The schema as it was before Flyway managed it (when Hibernate's
+-- ddl-auto=update created it). IF NOT EXISTS lets databases that already
+-- have these tables be baselined at version 0 and still run this script.
+
+CREATE TABLE IF NOT EXISTS bikes (
+  id BIGINT NOT NULL,
+  manufacturer VARCHAR(255),
+  model VARCHAR(255),
+  num_gears INTEGER NOT NULL,
+  PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS book (
+  id BIGINT NOT NULL,
+  name VARCHAR(255),
+  author VARCHAR(255),
+  genre VARCHAR(255),
+  PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS car (
+  id BIGINT NOT NULL,
+  model VARCHAR(255),
+  horsepower VARCHAR(255),
+  description VARCHAR(255),
+  PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS hotels (
+  id BIGINT NOT NULL,
+  name VARCHAR(255),
+  address VARCHAR(255),
+  description VARCHAR(255),
+  PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS movies (
+  id BIGINT NOT NULL,
+  name VARCHAR(255),
+  synopsis VARCHAR(255),
+  cast_members VARCHAR(255),
+  PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS restaurants (
+  id BIGINT NOT NULL,
+  name VARCHAR(255),
+  address VARCHAR(255),
+  description VARCHAR(255),
+  PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS ucsbdates (
+  id BIGINT NOT NULL,
+  quarteryyyyq VARCHAR(255),
+  name VARCHAR(255),
+  local_date_time TIMESTAMP,
+  PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS ucsbdiningcommons (
+  code VARCHAR(255) NOT NULL,
+  name VARCHAR(255),
+  has_sack_meal BOOLEAN NOT NULL,
+  has_take_out_meal BOOLEAN NOT NULL,
+  has_dining_cam BOOLEAN NOT NULL,
+  latitude DOUBLE PRECISION,
+  longitude DOUBLE PRECISION,
+  PRIMARY KEY (code)
+);
+
+CREATE TABLE IF NOT EXISTS users (
+  id BIGINT NOT NULL,
+  email VARCHAR(255),
+  google_sub VARCHAR(255),
+  picture_url VARCHAR(255),
+  full_name VARCHAR(255),
+  given_name VARCHAR(255),
+  family_name VARCHAR(255),
+  email_verified BOOLEAN NOT NULL,
+  locale VARCHAR(255),
+  hosted_domain VARCHAR(255),
+  PRIMARY KEY (id)
+);
@@ -0,0 +1,13 @@
+-- Indexes for the columns the repositories' derived queries filter on
+-- (RepositoryIndexTests fails when one is missing).
+
+-- UserRepository.findByEmail, on every login. Rows duplicated by concurrent
+-- first logins are removed first, keeping the oldest, so the index can be unique.
+DELETE FROM users u WHERE EXISTS (SELECT 1 FROM users d WHERE d.email = u.email AND d.id < u.id);
+CREATE UNIQUE INDEX IF NOT EXISTS users_email_idx ON users (email);
+
+-- BookRepository.findAllByGenre
+CREATE INDEX IF NOT EXISTS book_genre_idx ON book (genre);
+
+-- UCSBDateRepository.findAllByQuarterYYYYQ
+CREATE INDEX IF NOT EXISTS ucsbdates_quarteryyyyq_idx ON ucsbdates (quarteryyyyq);
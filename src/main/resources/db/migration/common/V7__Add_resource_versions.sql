@@ -0,0 +1,6 @@
+-- Versions behind the ETags of each /api/<collection>, shared by all servers.
+-- Rows are created on first use (see ResourceVersionServiceImpl).
+CREATE TABLE IF NOT EXISTS resource_versions (
+  collection VARCHAR(255) NOT NULL PRIMARY KEY,
+  version BIGINT NOT NULL
+);
@@ -0,0 +1,26 @@
+-- Entity ids now come from pooled sequences (allocationSize = 50).
+-- Each sequence is started past the largest id already in use.
+
+CREATE SEQUENCE IF NOT EXISTS bikes_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE bikes_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM bikes);
+
+CREATE SEQUENCE IF NOT EXISTS book_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE book_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM book);
+
+CREATE SEQUENCE IF NOT EXISTS car_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE car_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM car);
+
+CREATE SEQUENCE IF NOT EXISTS hotels_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE hotels_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM hotels);
+
+CREATE SEQUENCE IF NOT EXISTS movies_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE movies_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM movies);
+
+CREATE SEQUENCE IF NOT EXISTS restaurants_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE restaurants_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM restaurants);
+
+CREATE SEQUENCE IF NOT EXISTS ucsbdates_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE ucsbdates_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM ucsbdates);
+
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE users_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM users);
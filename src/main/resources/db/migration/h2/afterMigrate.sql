@@ -0,0 +1,28 @@
+-- Runs after every migrate, i.e. on every startup.  Raises any id sequence
+-- that is behind the ids already in its table, as it is after rows were
+-- loaded with explicit ids.  A sequence is never moved back, since a
+-- running server may hold a block of ids above the largest id in use.
+
+ALTER SEQUENCE bikes_seq RESTART WITH (SELECT GREATEST(COALESCE(MAX(id), 0) + 1,
+  (SELECT CURRENT_VALUE + INCREMENT FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'BIKES_SEQ')) FROM bikes);
+
+ALTER SEQUENCE book_seq RESTART WITH (SELECT GREATEST(COALESCE(MAX(id), 0) + 1,
+  (SELECT CURRENT_VALUE + INCREMENT FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'BOOK_SEQ')) FROM book);
+
+ALTER SEQUENCE car_seq RESTART WITH (SELECT GREATEST(COALESCE(MAX(id), 0) + 1,
+  (SELECT CURRENT_VALUE + INCREMENT FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'CAR_SEQ')) FROM car);
+
+ALTER SEQUENCE hotels_seq RESTART WITH (SELECT GREATEST(COALESCE(MAX(id), 0) + 1,
+  (SELECT CURRENT_VALUE + INCREMENT FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'HOTELS_SEQ')) FROM hotels);
+
+ALTER SEQUENCE movies_seq RESTART WITH (SELECT GREATEST(COALESCE(MAX(id), 0) + 1,
+  (SELECT CURRENT_VALUE + INCREMENT FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'MOVIES_SEQ')) FROM movies);
+
+ALTER SEQUENCE restaurants_seq RESTART WITH (SELECT GREATEST(COALESCE(MAX(id), 0) + 1,
+  (SELECT CURRENT_VALUE + INCREMENT FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'RESTAURANTS_SEQ')) FROM restaurants);
+
+ALTER SEQUENCE ucsbdates_seq RESTART WITH (SELECT GREATEST(COALESCE(MAX(id), 0) + 1,
+  (SELECT CURRENT_VALUE + INCREMENT FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'UCSBDATES_SEQ')) FROM ucsbdates);
+
+ALTER SEQUENCE users_seq RESTART WITH (SELECT GREATEST(COALESCE(MAX(id), 0) + 1,
+  (SELECT CURRENT_VALUE + INCREMENT FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'USERS_SEQ')) FROM users);
@@ -0,0 +1,13 @@
+-- Entity ids now come from pooled sequences (allocationSize = 50).
+-- Each sequence is started past the largest id already in use.
+
+DO $$
+DECLARE
+  t TEXT;
+BEGIN
+  FOREACH t IN ARRAY ARRAY['bikes', 'book', 'car', 'hotels', 'movies', 'restaurants', 'ucsbdates', 'users'] LOOP
+    EXECUTE format('CREATE SEQUENCE IF NOT EXISTS %I START WITH 1 INCREMENT BY 50', t || '_seq');
+    EXECUTE format('SELECT setval(%L, (SELECT COALESCE(MAX(id), 0) + 1 FROM %I), false)', t || '_seq', t);
+  END LOOP;
+END
+$$;
@@ -0,0 +1,8 @@
+-- UserRepository.findMatchingAfter and streamMatching, i.e. the admin
+-- users search: LOWER(column) LIKE 'term%'.  text_pattern_ops lets a
+-- prefix LIKE use the index whatever the database's collation is.
+-- H2 has no expression indexes, so there the search scans users.
+
+CREATE INDEX IF NOT EXISTS users_lower_email_idx ON users (LOWER(email) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS users_lower_full_name_idx ON users (LOWER(full_name) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS users_lower_family_name_idx ON users (LOWER(family_name) text_pattern_ops);
@@ -0,0 +1,30 @@
+-- Runs after every migrate, i.e. on every startup.  Raises any id sequence
+-- that is behind the ids already in its table, as it is after rows were
+-- loaded with explicit ids.  A sequence is never moved back, since a
+-- running server may hold a block of ids above the largest id in use.
+-- Works on Postgres 9.x as well as 10 and later.
+
+DO $$
+DECLARE
+  t TEXT;
+  last BIGINT;
+  called BOOLEAN;
+  step BIGINT;
+  max_id BIGINT;
+BEGIN
+  FOREACH t IN ARRAY ARRAY['bikes', 'book', 'car', 'hotels', 'movies', 'restaurants', 'ucsbdates', 'users'] LOOP
+    EXECUTE format('SELECT last_value, is_called FROM %I', t || '_seq') INTO last, called;
+    -- the increment moved from the sequence itself to pg_sequence in 10
+    IF current_setting('server_version_num')::INT >= 100000 THEN
+      EXECUTE 'SELECT seqincrement FROM pg_sequence WHERE seqrelid = $1::regclass' INTO step USING t || '_seq';
+    ELSE
+      EXECUTE format('SELECT increment_by FROM %I', t || '_seq') INTO step;
+    END IF;
+    EXECUTE format('SELECT COALESCE(MAX(id), 0) FROM %I', t) INTO max_id;
+    -- ids from the current block are below last + step (or below last, if no block was taken yet)
+    IF max_id >= (CASE WHEN called THEN last + step ELSE last END) THEN
+      PERFORM setval(t || '_seq', max_id + 1, false);
+    END IF;
+  END LOOP;
+END
+$$;
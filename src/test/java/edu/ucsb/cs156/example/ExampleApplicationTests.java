@@ -0,0 +1,60 @@
+package edu.ucsb.cs156.example;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Starts the whole application (the controller tests only load slices of
+// it), so wiring problems such as springfox vs. actuator show up here.
+
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:contextload;DB_CLOSE_DELAY=-1",
+    "spring.h2.console.enabled=false"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class ExampleApplicationTests {
+
+  @Autowired
+  MockMvc mockMvc;
+
+  @Test
+  public void swagger_docs_are_generated() throws Exception {
+    mockMvc.perform(get("/api/docs"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.paths['/api/ucsbdates/all']").exists());
+  }
+
+  @Test
+  public void actuator_is_forbidden_to_anonymous_users() throws Exception {
+    mockMvc.perform(get("/actuator/metrics"))
+        .andExpect(status().isForbidden());
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void actuator_is_forbidden_to_non_admins() throws Exception {
+    mockMvc.perform(get("/actuator/metrics"))
+        .andExpect(status().isForbidden());
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void admins_see_metrics_but_not_mappings() throws Exception {
+    mockMvc.perform(get("/actuator/metrics"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.names").isArray());
+    // not exposed, so the path falls through to the frontend
+    mockMvc.perform(get("/actuator/mappings"))
+        .andExpect(content().string(not(containsString("dispatcherServlets"))));
+  }
+}
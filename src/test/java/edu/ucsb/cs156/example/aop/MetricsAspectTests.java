@@ -0,0 +1,141 @@
+package edu.ucsb.cs156.example.aop;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import edu.ucsb.cs156.example.controllers.HotelsController;
+import edu.ucsb.cs156.example.controllers.UsersController;
+import edu.ucsb.cs156.example.entities.Hotel;
+import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class MetricsAspectTests {
+
+  private ProceedingJoinPoint joinPointFor(Class<?> controller, String method) {
+    Signature signature = mock(Signature.class);
+    when(signature.getDeclaringType()).thenReturn(controller);
+    when(signature.getName()).thenReturn(method);
+    ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+    when(joinPoint.getSignature()).thenReturn(signature);
+    return joinPoint;
+  }
+
+  @Test
+  void test_timeControllers_records_latency_of_every_call_and_counts_exceptions() throws Throwable {
+    // arrange
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    MetricsAspect metricsAspect = new MetricsAspect();
+    metricsAspect.meterRegistry = registry;
+
+    ProceedingJoinPoint joinPoint = joinPointFor(HotelsController.class, "getById");
+    when(joinPoint.proceed())
+        .thenReturn("ok")
+        .thenThrow(new EntityNotFoundException(Hotel.class, 7L));
+
+    // act
+    Object result = metricsAspect.timeControllers(joinPoint);
+    assertThrows(EntityNotFoundException.class, () -> metricsAspect.timeControllers(joinPoint));
+
+    // assert
+    assertEquals("ok", result);
+    Timer timer = registry.find(MetricsAspect.LATENCY_METRIC)
+        .tag("controller", "HotelsController")
+        .tag("method", "getById")
+        .timer();
+    assertEquals(2L, timer.count());
+    assertEquals(1.0, registry.find(MetricsAspect.ERROR_METRIC)
+        .tag("controller", "HotelsController")
+        .tag("method", "getById")
+        .tag("exception", "EntityNotFoundException")
+        .counter()
+        .count());
+  }
+
+  @Test
+  void test_timeControllers_does_not_count_errors_for_successful_calls() throws Throwable {
+    // arrange
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    MetricsAspect metricsAspect = new MetricsAspect();
+    metricsAspect.meterRegistry = registry;
+
+    ProceedingJoinPoint joinPoint = joinPointFor(HotelsController.class, "allHotels");
+    when(joinPoint.proceed()).thenReturn("ok");
+
+    // act
+    metricsAspect.timeControllers(joinPoint);
+    metricsAspect.timeControllers(joinPoint);
+
+    // assert
+    assertEquals(2L, registry.find(MetricsAspect.LATENCY_METRIC).tag("method", "allHotels").timer().count());
+    assertNull(registry.find(MetricsAspect.ERROR_METRIC).counter());
+  }
+
+  @Test
+  void test_timeControllers_times_a_streamed_body_until_it_has_been_written() throws Throwable {
+    // arrange
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    MetricsAspect metricsAspect = new MetricsAspect();
+    metricsAspect.meterRegistry = registry;
+
+    ProceedingJoinPoint joinPoint = joinPointFor(HotelsController.class, "allHotels");
+    StreamingResponseBody body = outputStream -> outputStream.write("[]".getBytes());
+    when(joinPoint.proceed()).thenReturn(body);
+
+    // act
+    StreamingResponseBody timed = (StreamingResponseBody) metricsAspect.timeControllers(joinPoint);
+    long countBeforeWriting = registry.find(MetricsAspect.LATENCY_METRIC).tag("method", "allHotels").timer().count();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    timed.writeTo(out);
+
+    // assert
+    assertEquals(0L, countBeforeWriting);
+    assertEquals("[]", out.toString());
+    assertEquals(1L, registry.find(MetricsAspect.LATENCY_METRIC).tag("method", "allHotels").timer().count());
+    assertNull(registry.find(MetricsAspect.ERROR_METRIC).counter());
+  }
+
+  @Test
+  void test_timeControllers_counts_an_error_while_writing_a_streamed_response_entity() throws Throwable {
+    // arrange
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    MetricsAspect metricsAspect = new MetricsAspect();
+    metricsAspect.meterRegistry = registry;
+
+    ProceedingJoinPoint joinPoint = joinPointFor(UsersController.class, "streamUsers");
+    StreamingResponseBody body = outputStream -> {
+      throw new IOException("client went away");
+    };
+    when(joinPoint.proceed()).thenReturn(ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body));
+
+    // act
+    ResponseEntity<?> entity = (ResponseEntity<?>) metricsAspect.timeControllers(joinPoint);
+    StreamingResponseBody timed = (StreamingResponseBody) entity.getBody();
+    assertThrows(IOException.class, () -> timed.writeTo(new ByteArrayOutputStream()));
+
+    // assert
+    assertEquals(HttpStatus.OK, entity.getStatusCode());
+    assertEquals(MediaType.APPLICATION_JSON, entity.getHeaders().getContentType());
+    assertEquals(1L, registry.find(MetricsAspect.LATENCY_METRIC).tag("method", "streamUsers").timer().count());
+    assertEquals(1.0, registry.find(MetricsAspect.ERROR_METRIC)
+        .tag("controller", "UsersController")
+        .tag("method", "streamUsers")
+        .tag("exception", "IOException")
+        .counter()
+        .count());
+  }
+}
@@ -0,0 +1,106 @@
+package edu.ucsb.cs156.example.config;
+
+import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.controllers.UCSBDatesController;
+import edu.ucsb.cs156.example.entities.UCSBDate;
+import edu.ucsb.cs156.example.repositories.UCSBDateRepository;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.BulkSaveService;
+import edu.ucsb.cs156.example.services.JsonStreamingService;
+import edu.ucsb.cs156.example.services.ProjectionService;
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@WebMvcTest(controllers = UCSBDatesController.class)
+@Import({ TestConfig.class, MessageConvertersConfig.class })
+public class MessageConvertersConfigTests extends ControllerTestCase {
+
+  @MockBean
+  UCSBDateRepository ucsbDateRepository;
+
+  @MockBean
+  UserRepository userRepository;
+
+  @MockBean
+  JsonStreamingService jsonStreamingService;
+
+  @MockBean
+  BulkSaveService bulkSaveService;
+
+  @MockBean
+  ProjectionService projectionService;
+
+  private MvcResult getAll(String accept) throws Exception {
+    when(ucsbDateRepository.findAll()).thenReturn(List.of(UCSBDate.builder()
+        .id(1L)
+        .name("firstDayOfClasses")
+        .quarterYYYYQ("20222")
+        .localDateTime(LocalDateTime.parse("2022-03-28T00:00:00"))
+        .build()));
+    return mockMvc.perform(get("/api/ucsbdates/all").header("Accept", accept))
+        .andExpect(status().isOk())
+        .andReturn();
+  }
+
+  private JsonNode json() throws Exception {
+    return mapper.readTree(getAll("application/json").getResponse().getContentAsByteArray());
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void json_is_still_the_default() throws Exception {
+    MvcResult response = getAll("*/*");
+
+    assertEquals("application/json", response.getResponse().getContentType());
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void cbor_has_the_same_content_as_json() throws Exception {
+    MvcResult response = getAll("application/cbor");
+
+    assertEquals("application/cbor", response.getResponse().getContentType());
+    JsonNode cbor = new ObjectMapper(new CBORFactory()).readTree(response.getResponse().getContentAsByteArray());
+    assertEquals(json(), cbor);
+    assertEquals("2022-03-28T00:00:00", cbor.get(0).get("localDateTime").asText());
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void smile_has_the_same_content_as_json() throws Exception {
+    MvcResult response = getAll("application/x-jackson-smile");
+
+    assertEquals("application/x-jackson-smile", response.getResponse().getContentType());
+    JsonNode smile = new ObjectMapper(new SmileFactory()).readTree(response.getResponse().getContentAsByteArray());
+    assertEquals(json(), smile);
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void binary_formats_get_their_own_etag() throws Exception {
+    String jsonTag = getAll("application/json").getResponse().getHeader("ETag");
+    String cborTag = getAll("application/cbor").getResponse().getHeader("ETag");
+
+    assertNotEquals(jsonTag, cborTag);
+  }
+}
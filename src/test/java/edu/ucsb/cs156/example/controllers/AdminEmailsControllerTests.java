@@ -0,0 +1,145 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.errors.AdminEmailsNotEditableException;
+import edu.ucsb.cs156.example.errors.AdminEmailsNotSavedException;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.AdminDirectory;
+import edu.ucsb.cs156.example.services.CurrentUserService;
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@WebMvcTest(controllers = AdminEmailsController.class)
+@Import(TestConfig.class)
+public class AdminEmailsControllerTests extends ControllerTestCase {
+
+  @MockBean
+  UserRepository userRepository;
+
+  @MockBean
+  AdminDirectory adminDirectory;
+
+  @SpyBean
+  CurrentUserService spiedCurrentUserService;
+
+  @Test
+  public void adminEmails__logged_out() throws Exception {
+    mockMvc.perform(get("/api/admin/adminEmails"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void adminEmails__user_logged_in() throws Exception {
+    mockMvc.perform(get("/api/admin/adminEmails"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void adminEmails__admin_logged_in_gets_sorted_emails() throws Exception {
+    // arrange
+    when(adminDirectory.getAdminEmails()).thenReturn(Set.of("phtcon@ucsb.edu", "cgaucho@ucsb.edu"));
+
+    // act
+    MvcResult response = mockMvc.perform(get("/api/admin/adminEmails"))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+    assertEquals("[\"cgaucho@ucsb.edu\",\"phtcon@ucsb.edu\"]", response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void replaceAdminEmails__user_logged_in() throws Exception {
+    mockMvc.perform(put("/api/admin/adminEmails")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("[\"ldelplaya@ucsb.edu\"]")
+        .with(csrf()))
+        .andExpect(status().is(403));
+    verify(adminDirectory, never()).setAdminEmails(List.of("ldelplaya@ucsb.edu"));
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void replaceAdminEmails__admin_logged_in() throws Exception {
+    // arrange
+    when(adminDirectory.getAdminEmails()).thenReturn(Set.of("ldelplaya@ucsb.edu", "cgaucho@ucsb.edu"));
+
+    // act
+    MvcResult response = mockMvc.perform(put("/api/admin/adminEmails")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("[\"ldelplaya@ucsb.edu\", \"cgaucho@ucsb.edu\"]")
+        .with(csrf()))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+    verify(adminDirectory, times(1)).setAdminEmails(List.of("ldelplaya@ucsb.edu", "cgaucho@ucsb.edu"));
+    assertEquals("[\"cgaucho@ucsb.edu\",\"ldelplaya@ucsb.edu\"]", response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void replaceAdminEmails__without_a_file_is_a_conflict() throws Exception {
+    // arrange
+    doThrow(new AdminEmailsNotEditableException())
+        .when(adminDirectory).setAdminEmails(List.of("ldelplaya@ucsb.edu"));
+
+    // act
+    MvcResult response = mockMvc.perform(put("/api/admin/adminEmails")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("[\"ldelplaya@ucsb.edu\"]")
+        .with(csrf()))
+        .andExpect(status().isConflict()).andReturn();
+
+    // assert
+    Map<String, Object> json = responseToJson(response);
+    assertEquals("AdminEmailsNotEditableException", json.get("type"));
+    verify(spiedCurrentUserService, never()).evictUser(any());
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void replaceAdminEmails__file_not_written_is_a_server_error() throws Exception {
+    // arrange
+    when(adminDirectory.getAdminEmails()).thenReturn(Set.of("phtcon@ucsb.edu"));
+    doThrow(new AdminEmailsNotSavedException("/data/admin-emails.txt", new IOException("read-only file system")))
+        .when(adminDirectory).setAdminEmails(List.of("ldelplaya@ucsb.edu"));
+
+    // act
+    MvcResult response = mockMvc.perform(put("/api/admin/adminEmails")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("[\"ldelplaya@ucsb.edu\"]")
+        .with(csrf()))
+        .andExpect(status().isInternalServerError()).andReturn();
+
+    // assert
+    Map<String, Object> json = responseToJson(response);
+    assertEquals("AdminEmailsNotSavedException", json.get("type"));
+    verify(spiedCurrentUserService, never()).evictUser(any());
+  }
+}
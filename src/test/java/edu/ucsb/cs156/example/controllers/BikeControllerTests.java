@@ -5,6 +5,11 @@ import edu.ucsb.cs156.example.entities.Bike;
 import edu.ucsb.cs156.example.repositories.BikeRepository;
 import edu.ucsb.cs156.example.repositories.UserRepository;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
+import edu.ucsb.cs156.example.models.KeysetPage;
+import edu.ucsb.cs156.example.services.JsonStreamingService;
+import edu.ucsb.cs156.example.services.BulkSaveService;
+import edu.ucsb.cs156.example.services.ProjectionService;
+import edu.ucsb.cs156.example.errors.UnknownFieldsException;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
@@ -12,17 +17,26 @@ import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.mockito.ArgumentCaptor;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = BikeController.class)
@@ -35,6 +49,15 @@ public class BikeControllerTests extends ControllerTestCase {
         @MockBean
         UserRepository userRepository;
 
+        @MockBean
+        JsonStreamingService jsonStreamingService;
+
+        @MockBean
+        BulkSaveService bulkSaveService;
+
+        @MockBean
+        ProjectionService projectionService;
+
         // Authorization tests for /api/bikes/admin/all
 
         @Test
@@ -188,14 +211,7 @@ public class BikeControllerTests extends ControllerTestCase {
         public void admin_can_delete_a_bike() throws Exception {
                 // arrange
 
-                Bike bike = Bike.builder()
-                        .model("Among Us")
-                        .manufacturer("Innersloth")
-                        .numGears(69)
-                        .id(0L)
-                        .build();
-
-                when(bikeRepository.findById(eq(0L))).thenReturn(Optional.of(bike));
+                when(bikeRepository.removeById(eq(0L))).thenReturn(1);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -204,8 +220,8 @@ public class BikeControllerTests extends ControllerTestCase {
                         .andExpect(status().isOk()).andReturn();
 
                 // assert
-                verify(bikeRepository, times(1)).findById(0L);
-                verify(bikeRepository, times(1)).delete(any());
+                verify(bikeRepository, times(1)).removeById(0L);
+                verify(bikeRepository, times(0)).findById(any());
 
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("Bike with id 0 deleted", json.get("message"));
@@ -217,7 +233,7 @@ public class BikeControllerTests extends ControllerTestCase {
                 throws Exception {
                 // arrange
 
-                when(bikeRepository.findById(eq(15L))).thenReturn(Optional.empty());
+                when(bikeRepository.removeById(eq(15L))).thenReturn(0);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -226,7 +242,7 @@ public class BikeControllerTests extends ControllerTestCase {
                         .andExpect(status().isNotFound()).andReturn();
 
                 // assert
-                verify(bikeRepository, times(1)).findById(15L);
+                verify(bikeRepository, times(1)).removeById(15L);
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("Bike with id 15 not found", json.get("message"));
         }
@@ -263,7 +279,7 @@ public class BikeControllerTests extends ControllerTestCase {
 
                 // assert
                 verify(bikeRepository, times(1)).findById(0L);
-                verify(bikeRepository, times(1)).save(bikeEdited); // should be saved with correct user
+                verify(bikeRepository, times(1)).updateById(0L, "Innersloth 2", "Among Us 2: The More The Sussier", 69^2);
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(requestBody, responseString);
         }
@@ -299,4 +315,465 @@ public class BikeControllerTests extends ControllerTestCase {
 
         }
 
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_edit_of_bike_is_one_conditional_update_without_a_save() throws Exception {
+                // arrange
+
+                Bike bikeEdited = Bike.builder()
+                                .manufacturer("Giant")
+                                .model("Escape 3")
+                                .numGears(7)
+                                .build();
+
+                String requestBody = mapper.writeValueAsString(bikeEdited);
+
+                when(bikeRepository.updateById(eq(67L), eq("Giant"), eq("Escape 3"), eq(7))).thenReturn(1);
+                when(bikeRepository.findById(eq(67L))).thenReturn(Optional.of(Bike.builder().id(67L).build()));
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                put("/api/bikes?id=67")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(requestBody)
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(bikeRepository, times(1)).updateById(eq(67L), eq("Giant"), eq("Escape 3"), eq(7));
+                verify(bikeRepository, times(1)).findById(67L);
+                verify(bikeRepository, times(0)).save(any());
+                bikeEdited.setId(67L);
+                String expectedJson = mapper.writeValueAsString(bikeEdited);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_edit_of_bike_with_unchanged_values_succeeds_without_writing() throws Exception {
+                // arrange
+
+                Bike bikeEdited = Bike.builder()
+                                .manufacturer("Giant")
+                                .model("Escape 3")
+                                .numGears(7)
+                                .build();
+
+                String requestBody = mapper.writeValueAsString(bikeEdited);
+
+                // no row matched because the stored values are already the same
+                when(bikeRepository.updateById(eq(67L), eq("Giant"), eq("Escape 3"), eq(7))).thenReturn(0);
+                Bike bikeStored = mapper.readValue(requestBody, Bike.class);
+                bikeStored.setId(67L);
+                when(bikeRepository.findById(eq(67L))).thenReturn(Optional.of(bikeStored));
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                put("/api/bikes?id=67")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(requestBody)
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(bikeRepository, times(1)).findById(67L);
+                verify(bikeRepository, times(0)).save(any());
+                bikeEdited.setId(67L);
+                String expectedJson = mapper.writeValueAsString(bikeEdited);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_edit_of_missing_bike_writes_nothing() throws Exception {
+                // arrange
+
+                Bike bikeEdited = Bike.builder()
+                                .manufacturer("Giant")
+                                .model("Escape 3")
+                                .numGears(7)
+                                .build();
+
+                String requestBody = mapper.writeValueAsString(bikeEdited);
+
+                when(bikeRepository.findById(eq(67L))).thenReturn(Optional.empty());
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                put("/api/bikes?id=67")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(requestBody)
+                                                .with(csrf()))
+                                .andExpect(status().isNotFound()).andReturn();
+
+                // assert
+                verify(bikeRepository, times(1)).findById(67L);
+                verify(bikeRepository, times(0)).updateById(eq(67L), eq("Giant"), eq("Escape 3"), eq(7));
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("Bike with id 67 not found", json.get("message"));
+        }
+
+        // Tests for keyset pagination of /api/bikes/all
+
+        @Test
+        public void logged_out_users_cannot_get_a_page() throws Exception {
+                mockMvc.perform(get("/api/bikes/all?limit=2"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_first_page_of_bikes() throws Exception {
+                // arrange
+
+                Bike bike1 = Bike.builder()
+                                .id(1L)
+                                .manufacturer("Trek")
+                                .model("FX 2")
+                                .numGears(21)
+                                .build();
+
+                Bike bike2 = Bike.builder()
+                                .id(2L)
+                                .manufacturer("Giant")
+                                .model("Escape 3")
+                                .numGears(7)
+                                .build();
+
+                Bike bike3 = Bike.builder()
+                                .id(3L)
+                                .manufacturer("Specialized")
+                                .model("Sirrus")
+                                .numGears(24)
+                                .build();
+
+                when(bikeRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), eq(PageRequest.of(0, 3))))
+                                .thenReturn(Arrays.asList(bike1, bike2, bike3));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/bikes/all?limit=2"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(bikeRepository, times(1)).findByIdGreaterThanOrderByIdAsc(eq(0L), eq(PageRequest.of(0, 3)));
+                KeysetPage<Bike, Long> expectedPage = KeysetPage.<Bike, Long>builder()
+                                .content(Arrays.asList(bike1, bike2))
+                                .nextCursor(2L)
+                                .build();
+                String expectedJson = mapper.writeValueAsString(expectedPage);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_gets_no_cursor_on_last_page_of_bikes() throws Exception {
+                // arrange
+
+                Bike bike3 = Bike.builder()
+                                .id(3L)
+                                .manufacturer("Specialized")
+                                .model("Sirrus")
+                                .numGears(24)
+                                .build();
+
+                when(bikeRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), eq(PageRequest.of(0, 3))))
+                                .thenReturn(Arrays.asList(bike3));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/bikes/all?limit=2&after=2"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(bikeRepository, times(1)).findByIdGreaterThanOrderByIdAsc(eq(2L), eq(PageRequest.of(0, 3)));
+                KeysetPage<Bike, Long> expectedPage = KeysetPage.<Bike, Long>builder()
+                                .content(Arrays.asList(bike3))
+                                .build();
+                String expectedJson = mapper.writeValueAsString(expectedPage);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        // Tests for GET /api/bikes/all?stream=true
+
+        @Test
+        public void logged_out_users_cannot_stream_all() throws Exception {
+                mockMvc.perform(get("/api/bikes/all?stream=true"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_stream_all_bikes() throws Exception {
+
+                // arrange
+
+                Bike bike1 = Bike.builder()
+                                .id(1L)
+                                .manufacturer("Trek")
+                                .model("FX 2")
+                                .numGears(21)
+                                .build();
+
+                Bike bike2 = Bike.builder()
+                                .id(2L)
+                                .manufacturer("Giant")
+                                .model("Escape 3")
+                                .numGears(7)
+                                .build();
+
+                when(bikeRepository.streamAll()).thenReturn(Stream.of(bike1, bike2));
+                when(jsonStreamingService.streamJsonArray(any())).thenAnswer(invocation -> {
+                        Supplier<Stream<Bike>> rows = invocation.getArgument(0);
+                        byte[] json = mapper.writeValueAsBytes(rows.get().collect(Collectors.toList()));
+                        return (StreamingResponseBody) outputStream -> outputStream.write(json);
+                });
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/bikes/all?stream=true"))
+                                .andExpect(request().asyncStarted())
+                                .andDo(MvcResult::getAsyncResult)
+                                .andExpect(status().isOk())
+                                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                                .andReturn();
+
+                // assert
+
+                verify(bikeRepository, times(1)).streamAll();
+                verify(bikeRepository, times(0)).findAll();
+                String expectedJson = mapper.writeValueAsString(Arrays.asList(bike1, bike2));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        // Tests for POST /api/bikes/bulk
+
+        @Test
+        public void logged_out_users_cannot_post_bulk() throws Exception {
+                mockMvc.perform(post("/api/bikes/bulk"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_regular_users_cannot_post_bulk() throws Exception {
+                mockMvc.perform(post("/api/bikes/bulk")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("[]")
+                                .with(csrf()))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void an_admin_user_can_post_many_bikes_in_bulk_and_supplied_ids_are_ignored() throws Exception {
+                // arrange
+
+                Bike bike1 = Bike.builder()
+                                .id(17L)
+                                .manufacturer("Trek")
+                                .model("FX 2")
+                                .numGears(21)
+                                .build();
+
+                Bike bike2 = Bike.builder()
+                                .id(18L)
+                                .manufacturer("Giant")
+                                .model("Escape 3")
+                                .numGears(7)
+                                .build();
+
+                String requestBody = mapper.writeValueAsString(Arrays.asList(bike1, bike2));
+
+                // what the database would hand back after assigning new ids
+                bike1.setId(1L);
+                bike2.setId(2L);
+                when(bulkSaveService.saveInChunks(eq(bikeRepository), any())).thenReturn(Arrays.asList(bike1, bike2));
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                post("/api/bikes/bulk")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(requestBody)
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                @SuppressWarnings("unchecked")
+                ArgumentCaptor<List<Bike>> rows = ArgumentCaptor.forClass(List.class);
+                verify(bulkSaveService, times(1)).saveInChunks(eq(bikeRepository), rows.capture());
+                assertEquals(2, rows.getValue().size());
+                assertEquals(0L, rows.getValue().get(0).getId());
+                assertEquals(0L, rows.getValue().get(1).getId());
+                assertEquals("[1,2]", response.getResponse().getContentAsString());
+        }
+
+        // Tests for DELETE /api/bikes/bulk
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_regular_users_cannot_delete_bulk() throws Exception {
+                mockMvc.perform(delete("/api/bikes/bulk?ids=7").with(csrf()))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_can_delete_many_bikes_and_is_told_which_were_missing() throws Exception {
+                // arrange
+
+                when(bikeRepository.findIdsByIdIn(eq(Arrays.asList(1L, 2L, 7L)))).thenReturn(Arrays.asList(1L, 2L));
+                when(bikeRepository.removeAllByIdIn(eq(Arrays.asList(1L, 2L)))).thenReturn(2);
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                delete("/api/bikes/bulk?ids=1,2,7")
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(bikeRepository, times(1)).removeAllByIdIn(Arrays.asList(1L, 2L));
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("2 bikes deleted", json.get("message"));
+                assertEquals(Arrays.asList(7), json.get("missing"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_bulk_delete_of_only_missing_bikes_deletes_nothing() throws Exception {
+                // arrange
+
+                when(bikeRepository.findIdsByIdIn(eq(Arrays.asList(7L)))).thenReturn(new ArrayList<>());
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                delete("/api/bikes/bulk?ids=7")
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(bikeRepository, times(0)).removeAllByIdIn(any());
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("0 bikes deleted", json.get("message"));
+                assertEquals(Arrays.asList(7), json.get("missing"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_bulk_delete_of_no_bikes_does_not_query() throws Exception {
+                // act
+                MvcResult response = mockMvc.perform(
+                                delete("/api/bikes/bulk?ids=")
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(bikeRepository, times(0)).findIdsByIdIn(any());
+                verify(bikeRepository, times(0)).removeAllByIdIn(any());
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("0 bikes deleted", json.get("message"));
+                assertEquals(new ArrayList<>(), json.get("missing"));
+        }
+
+        // stream=true cannot be combined with limit or fields
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void asking_for_a_stream_of_a_page_or_of_selected_fields_is_a_bad_request() throws Exception {
+                mockMvc.perform(get("/api/bikes/all?stream=true&limit=2"))
+                                .andExpect(status().isBadRequest());
+                mockMvc.perform(get("/api/bikes/all?stream=true&fields=id"))
+                                .andExpect(status().isBadRequest());
+                mockMvc.perform(get("/api/bikes/all?stream=true&fields=id&limit=2"))
+                                .andExpect(status().isBadRequest());
+
+                verify(bikeRepository, times(0)).findAll();
+                verifyNoInteractions(jsonStreamingService, projectionService);
+        }
+
+        // Tests for ?fields= on /api/bikes/all
+
+        @Test
+        public void logged_out_users_cannot_get_selected_fields() throws Exception {
+                mockMvc.perform(get("/api/bikes/all?fields=manufacturer"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_all_bikes_with_selected_fields() throws Exception {
+                // arrange
+
+                Map<String, Object> row1 = Map.of("id", 1L, "manufacturer", "Trek");
+                Map<String, Object> row2 = Map.of("id", 2L, "manufacturer", "Giant");
+
+                when(projectionService.findAll(eq(Bike.class), eq(List.of("manufacturer"))))
+                                .thenReturn(Arrays.asList(row1, row2));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/bikes/all?fields=manufacturer"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(projectionService, times(1)).findAll(eq(Bike.class), eq(List.of("manufacturer")));
+                String expectedJson = mapper.writeValueAsString(Arrays.asList(row1, row2));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_a_page_of_bikes_with_selected_fields() throws Exception {
+                // arrange
+
+                Map<String, Object> row1 = Map.of("id", 1L, "manufacturer", "Trek");
+                Map<String, Object> row2 = Map.of("id", 2L, "manufacturer", "Giant");
+                Map<String, Object> row3 = Map.of("id", 3L, "manufacturer", "Specialized");
+
+                when(projectionService.findAfter(eq(Bike.class), eq(List.of("manufacturer")), eq(0L), eq(3)))
+                                .thenReturn(Arrays.asList(row1, row2, row3));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/bikes/all?fields=manufacturer&limit=2"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(projectionService, times(1)).findAfter(eq(Bike.class), eq(List.of("manufacturer")), eq(0L), eq(3));
+                KeysetPage<Map<String, Object>, Long> expectedPage = KeysetPage.<Map<String, Object>, Long>builder()
+                                .content(Arrays.asList(row1, row2))
+                                .nextCursor(2L)
+                                .build();
+                String expectedJson = mapper.writeValueAsString(expectedPage);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void unknown_fields_are_a_bad_request() throws Exception {
+                // arrange
+
+                when(projectionService.findAll(eq(Bike.class), eq(List.of("nosuchfield"))))
+                                .thenThrow(new UnknownFieldsException(Bike.class, List.of("nosuchfield")));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/bikes/all?fields=nosuchfield"))
+                                .andExpect(status().isBadRequest()).andReturn();
+
+                // assert
+
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("UnknownFieldsException", json.get("type"));
+                assertEquals("Bike has no field(s) nosuchfield", json.get("message"));
+        }
 }
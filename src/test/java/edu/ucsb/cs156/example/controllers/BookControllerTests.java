@@ -5,6 +5,11 @@ import edu.ucsb.cs156.example.testconfig.TestConfig;
 import edu.ucsb.cs156.example.ControllerTestCase;
 import edu.ucsb.cs156.example.entities.Book;
 import edu.ucsb.cs156.example.repositories.BookRepository;
+import edu.ucsb.cs156.example.models.KeysetPage;
+import edu.ucsb.cs156.example.services.JsonStreamingService;
+import edu.ucsb.cs156.example.services.BulkSaveService;
+import edu.ucsb.cs156.example.services.ProjectionService;
+import edu.ucsb.cs156.example.errors.UnknownFieldsException;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -16,18 +21,26 @@ import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.mockito.ArgumentCaptor;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 
 import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @WebMvcTest(controllers = BookController.class)
@@ -40,6 +53,15 @@ public class BookControllerTests extends ControllerTestCase {
         @MockBean
         UserRepository userRepository;
 
+        @MockBean
+        JsonStreamingService jsonStreamingService;
+
+        @MockBean
+        BulkSaveService bulkSaveService;
+
+        @MockBean
+        ProjectionService projectionService;
+
         // Authorization tests for /api/book/admin/all
 
         @Test
@@ -192,13 +214,7 @@ public class BookControllerTests extends ControllerTestCase {
         public void admin_can_delete_a_book() throws Exception {
                 // arrange
 
-                Book greenEggs = Book.builder()
-                                .name("GreenEggsAndHam")
-                                .genre("Poetry")
-                                .author("DrSeuss")
-                                .build();
-
-                when(bookRepository.findById(eq(1L))).thenReturn(Optional.of(greenEggs));
+                when(bookRepository.removeById(eq(1L))).thenReturn(1);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -207,8 +223,8 @@ public class BookControllerTests extends ControllerTestCase {
                                 .andExpect(status().isOk()).andReturn();
 
                 // assert
-                verify(bookRepository, times(1)).findById(1L);
-                verify(bookRepository, times(1)).delete(any());
+                verify(bookRepository, times(1)).removeById(1L);
+                verify(bookRepository, times(0)).findById(any());
 
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("Book with id 1 deleted", json.get("message"));
@@ -220,7 +236,7 @@ public class BookControllerTests extends ControllerTestCase {
                         throws Exception {
                 // arrange
 
-                when(bookRepository.findById(eq(100L))).thenReturn(Optional.empty());
+                when(bookRepository.removeById(eq(100L))).thenReturn(0);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -229,7 +245,7 @@ public class BookControllerTests extends ControllerTestCase {
                                 .andExpect(status().isNotFound()).andReturn();
 
                 // assert
-                verify(bookRepository, times(1)).findById(100L);
+                verify(bookRepository, times(1)).removeById(100L);
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("Book with id 100 not found", json.get("message"));
         }
@@ -267,7 +283,7 @@ public class BookControllerTests extends ControllerTestCase {
 
                 // assert
                 verify(bookRepository, times(1)).findById(25L);
-                verify(bookRepository, times(1)).save(greenEggsEdited); // should be saved with updated info
+                verify(bookRepository, times(1)).updateById(25L, "GreenEggsAndHamEdited", "DrSeussEdited", "PoetryEdited");
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(requestBody, responseString);
         }
@@ -303,4 +319,465 @@ public class BookControllerTests extends ControllerTestCase {
 
         }
 
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_edit_of_book_is_one_conditional_update_without_a_save() throws Exception {
+                // arrange
+
+                Book bookEdited = Book.builder()
+                                .name("Dune")
+                                .author("FrankHerbert")
+                                .genre("SciFi")
+                                .build();
+
+                String requestBody = mapper.writeValueAsString(bookEdited);
+
+                when(bookRepository.updateById(eq(67L), eq("Dune"), eq("FrankHerbert"), eq("SciFi"))).thenReturn(1);
+                when(bookRepository.findById(eq(67L))).thenReturn(Optional.of(Book.builder().id(67L).build()));
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                put("/api/book?id=67")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(requestBody)
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(bookRepository, times(1)).updateById(eq(67L), eq("Dune"), eq("FrankHerbert"), eq("SciFi"));
+                verify(bookRepository, times(1)).findById(67L);
+                verify(bookRepository, times(0)).save(any());
+                bookEdited.setId(67L);
+                String expectedJson = mapper.writeValueAsString(bookEdited);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_edit_of_book_with_unchanged_values_succeeds_without_writing() throws Exception {
+                // arrange
+
+                Book bookEdited = Book.builder()
+                                .name("Dune")
+                                .author("FrankHerbert")
+                                .genre("SciFi")
+                                .build();
+
+                String requestBody = mapper.writeValueAsString(bookEdited);
+
+                // no row matched because the stored values are already the same
+                when(bookRepository.updateById(eq(67L), eq("Dune"), eq("FrankHerbert"), eq("SciFi"))).thenReturn(0);
+                Book bookStored = mapper.readValue(requestBody, Book.class);
+                bookStored.setId(67L);
+                when(bookRepository.findById(eq(67L))).thenReturn(Optional.of(bookStored));
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                put("/api/book?id=67")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(requestBody)
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(bookRepository, times(1)).findById(67L);
+                verify(bookRepository, times(0)).save(any());
+                bookEdited.setId(67L);
+                String expectedJson = mapper.writeValueAsString(bookEdited);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_edit_of_missing_book_writes_nothing() throws Exception {
+                // arrange
+
+                Book bookEdited = Book.builder()
+                                .name("Dune")
+                                .author("FrankHerbert")
+                                .genre("SciFi")
+                                .build();
+
+                String requestBody = mapper.writeValueAsString(bookEdited);
+
+                when(bookRepository.findById(eq(67L))).thenReturn(Optional.empty());
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                put("/api/book?id=67")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(requestBody)
+                                                .with(csrf()))
+                                .andExpect(status().isNotFound()).andReturn();
+
+                // assert
+                verify(bookRepository, times(1)).findById(67L);
+                verify(bookRepository, times(0)).updateById(eq(67L), eq("Dune"), eq("FrankHerbert"), eq("SciFi"));
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("Book with id 67 not found", json.get("message"));
+        }
+
+        // Tests for keyset pagination of /api/book/all
+
+        @Test
+        public void logged_out_users_cannot_get_a_page() throws Exception {
+                mockMvc.perform(get("/api/book/all?limit=2"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_first_page_of_books() throws Exception {
+                // arrange
+
+                Book book1 = Book.builder()
+                                .id(1L)
+                                .name("GreenEggsAndHam")
+                                .author("DrSeuss")
+                                .genre("Poetry")
+                                .build();
+
+                Book book2 = Book.builder()
+                                .id(2L)
+                                .name("Dune")
+                                .author("FrankHerbert")
+                                .genre("SciFi")
+                                .build();
+
+                Book book3 = Book.builder()
+                                .id(3L)
+                                .name("Emma")
+                                .author("JaneAusten")
+                                .genre("Romance")
+                                .build();
+
+                when(bookRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), eq(PageRequest.of(0, 3))))
+                                .thenReturn(Arrays.asList(book1, book2, book3));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/book/all?limit=2"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(bookRepository, times(1)).findByIdGreaterThanOrderByIdAsc(eq(0L), eq(PageRequest.of(0, 3)));
+                KeysetPage<Book, Long> expectedPage = KeysetPage.<Book, Long>builder()
+                                .content(Arrays.asList(book1, book2))
+                                .nextCursor(2L)
+                                .build();
+                String expectedJson = mapper.writeValueAsString(expectedPage);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_gets_no_cursor_on_last_page_of_books() throws Exception {
+                // arrange
+
+                Book book3 = Book.builder()
+                                .id(3L)
+                                .name("Emma")
+                                .author("JaneAusten")
+                                .genre("Romance")
+                                .build();
+
+                when(bookRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), eq(PageRequest.of(0, 3))))
+                                .thenReturn(Arrays.asList(book3));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/book/all?limit=2&after=2"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(bookRepository, times(1)).findByIdGreaterThanOrderByIdAsc(eq(2L), eq(PageRequest.of(0, 3)));
+                KeysetPage<Book, Long> expectedPage = KeysetPage.<Book, Long>builder()
+                                .content(Arrays.asList(book3))
+                                .build();
+                String expectedJson = mapper.writeValueAsString(expectedPage);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        // Tests for GET /api/book/all?stream=true
+
+        @Test
+        public void logged_out_users_cannot_stream_all() throws Exception {
+                mockMvc.perform(get("/api/book/all?stream=true"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_stream_all_books() throws Exception {
+
+                // arrange
+
+                Book book1 = Book.builder()
+                                .id(1L)
+                                .name("GreenEggsAndHam")
+                                .author("DrSeuss")
+                                .genre("Poetry")
+                                .build();
+
+                Book book2 = Book.builder()
+                                .id(2L)
+                                .name("Dune")
+                                .author("FrankHerbert")
+                                .genre("SciFi")
+                                .build();
+
+                when(bookRepository.streamAll()).thenReturn(Stream.of(book1, book2));
+                when(jsonStreamingService.streamJsonArray(any())).thenAnswer(invocation -> {
+                        Supplier<Stream<Book>> rows = invocation.getArgument(0);
+                        byte[] json = mapper.writeValueAsBytes(rows.get().collect(Collectors.toList()));
+                        return (StreamingResponseBody) outputStream -> outputStream.write(json);
+                });
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/book/all?stream=true"))
+                                .andExpect(request().asyncStarted())
+                                .andDo(MvcResult::getAsyncResult)
+                                .andExpect(status().isOk())
+                                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                                .andReturn();
+
+                // assert
+
+                verify(bookRepository, times(1)).streamAll();
+                verify(bookRepository, times(0)).findAll();
+                String expectedJson = mapper.writeValueAsString(Arrays.asList(book1, book2));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        // Tests for POST /api/book/bulk
+
+        @Test
+        public void logged_out_users_cannot_post_bulk() throws Exception {
+                mockMvc.perform(post("/api/book/bulk"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_regular_users_cannot_post_bulk() throws Exception {
+                mockMvc.perform(post("/api/book/bulk")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("[]")
+                                .with(csrf()))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void an_admin_user_can_post_many_books_in_bulk_and_supplied_ids_are_ignored() throws Exception {
+                // arrange
+
+                Book book1 = Book.builder()
+                                .id(17L)
+                                .name("GreenEggsAndHam")
+                                .author("DrSeuss")
+                                .genre("Poetry")
+                                .build();
+
+                Book book2 = Book.builder()
+                                .id(18L)
+                                .name("Dune")
+                                .author("FrankHerbert")
+                                .genre("SciFi")
+                                .build();
+
+                String requestBody = mapper.writeValueAsString(Arrays.asList(book1, book2));
+
+                // what the database would hand back after assigning new ids
+                book1.setId(1L);
+                book2.setId(2L);
+                when(bulkSaveService.saveInChunks(eq(bookRepository), any())).thenReturn(Arrays.asList(book1, book2));
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                post("/api/book/bulk")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(requestBody)
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                @SuppressWarnings("unchecked")
+                ArgumentCaptor<List<Book>> rows = ArgumentCaptor.forClass(List.class);
+                verify(bulkSaveService, times(1)).saveInChunks(eq(bookRepository), rows.capture());
+                assertEquals(2, rows.getValue().size());
+                assertEquals(0L, rows.getValue().get(0).getId());
+                assertEquals(0L, rows.getValue().get(1).getId());
+                assertEquals("[1,2]", response.getResponse().getContentAsString());
+        }
+
+        // Tests for DELETE /api/book/bulk
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_regular_users_cannot_delete_bulk() throws Exception {
+                mockMvc.perform(delete("/api/book/bulk?ids=7").with(csrf()))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_can_delete_many_books_and_is_told_which_were_missing() throws Exception {
+                // arrange
+
+                when(bookRepository.findIdsByIdIn(eq(Arrays.asList(1L, 2L, 7L)))).thenReturn(Arrays.asList(1L, 2L));
+                when(bookRepository.removeAllByIdIn(eq(Arrays.asList(1L, 2L)))).thenReturn(2);
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                delete("/api/book/bulk?ids=1,2,7")
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(bookRepository, times(1)).removeAllByIdIn(Arrays.asList(1L, 2L));
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("2 books deleted", json.get("message"));
+                assertEquals(Arrays.asList(7), json.get("missing"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_bulk_delete_of_only_missing_books_deletes_nothing() throws Exception {
+                // arrange
+
+                when(bookRepository.findIdsByIdIn(eq(Arrays.asList(7L)))).thenReturn(new ArrayList<>());
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                delete("/api/book/bulk?ids=7")
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(bookRepository, times(0)).removeAllByIdIn(any());
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("0 books deleted", json.get("message"));
+                assertEquals(Arrays.asList(7), json.get("missing"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_bulk_delete_of_no_books_does_not_query() throws Exception {
+                // act
+                MvcResult response = mockMvc.perform(
+                                delete("/api/book/bulk?ids=")
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(bookRepository, times(0)).findIdsByIdIn(any());
+                verify(bookRepository, times(0)).removeAllByIdIn(any());
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("0 books deleted", json.get("message"));
+                assertEquals(new ArrayList<>(), json.get("missing"));
+        }
+
+        // stream=true cannot be combined with limit or fields
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void asking_for_a_stream_of_a_page_or_of_selected_fields_is_a_bad_request() throws Exception {
+                mockMvc.perform(get("/api/book/all?stream=true&limit=2"))
+                                .andExpect(status().isBadRequest());
+                mockMvc.perform(get("/api/book/all?stream=true&fields=id"))
+                                .andExpect(status().isBadRequest());
+                mockMvc.perform(get("/api/book/all?stream=true&fields=id&limit=2"))
+                                .andExpect(status().isBadRequest());
+
+                verify(bookRepository, times(0)).findAll();
+                verifyNoInteractions(jsonStreamingService, projectionService);
+        }
+
+        // Tests for ?fields= on /api/book/all
+
+        @Test
+        public void logged_out_users_cannot_get_selected_fields() throws Exception {
+                mockMvc.perform(get("/api/book/all?fields=name"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_all_books_with_selected_fields() throws Exception {
+                // arrange
+
+                Map<String, Object> row1 = Map.of("id", 1L, "name", "GreenEggsAndHam");
+                Map<String, Object> row2 = Map.of("id", 2L, "name", "Dune");
+
+                when(projectionService.findAll(eq(Book.class), eq(List.of("name"))))
+                                .thenReturn(Arrays.asList(row1, row2));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/book/all?fields=name"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(projectionService, times(1)).findAll(eq(Book.class), eq(List.of("name")));
+                String expectedJson = mapper.writeValueAsString(Arrays.asList(row1, row2));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_a_page_of_books_with_selected_fields() throws Exception {
+                // arrange
+
+                Map<String, Object> row1 = Map.of("id", 1L, "name", "GreenEggsAndHam");
+                Map<String, Object> row2 = Map.of("id", 2L, "name", "Dune");
+                Map<String, Object> row3 = Map.of("id", 3L, "name", "Emma");
+
+                when(projectionService.findAfter(eq(Book.class), eq(List.of("name")), eq(0L), eq(3)))
+                                .thenReturn(Arrays.asList(row1, row2, row3));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/book/all?fields=name&limit=2"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(projectionService, times(1)).findAfter(eq(Book.class), eq(List.of("name")), eq(0L), eq(3));
+                KeysetPage<Map<String, Object>, Long> expectedPage = KeysetPage.<Map<String, Object>, Long>builder()
+                                .content(Arrays.asList(row1, row2))
+                                .nextCursor(2L)
+                                .build();
+                String expectedJson = mapper.writeValueAsString(expectedPage);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void unknown_fields_are_a_bad_request() throws Exception {
+                // arrange
+
+                when(projectionService.findAll(eq(Book.class), eq(List.of("nosuchfield"))))
+                                .thenThrow(new UnknownFieldsException(Book.class, List.of("nosuchfield")));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/book/all?fields=nosuchfield"))
+                                .andExpect(status().isBadRequest()).andReturn();
+
+                // assert
+
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("UnknownFieldsException", json.get("type"));
+                assertEquals("Book has no field(s) nosuchfield", json.get("message"));
+        }
 }
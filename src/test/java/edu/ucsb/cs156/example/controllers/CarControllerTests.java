@@ -6,6 +6,11 @@ import org.springframework.http.MediaType;
 import edu.ucsb.cs156.example.ControllerTestCase;
 import edu.ucsb.cs156.example.entities.Car;
 import edu.ucsb.cs156.example.repositories.CarRepository;
+import edu.ucsb.cs156.example.models.KeysetPage;
+import edu.ucsb.cs156.example.services.JsonStreamingService;
+import edu.ucsb.cs156.example.services.BulkSaveService;
+import edu.ucsb.cs156.example.services.ProjectionService;
+import edu.ucsb.cs156.example.errors.UnknownFieldsException;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -16,6 +21,9 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.mockito.ArgumentCaptor;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -23,12 +31,17 @@ import static org.springframework.security.test.web.servlet.request.SecurityMock
 
 
 import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @WebMvcTest(controllers = CarController.class)
@@ -41,6 +54,15 @@ public class CarControllerTests extends ControllerTestCase {
         @MockBean
         UserRepository userRepository;
 
+        @MockBean
+        JsonStreamingService jsonStreamingService;
+
+        @MockBean
+        BulkSaveService bulkSaveService;
+
+        @MockBean
+        ProjectionService projectionService;
+
         // Authorization tests for /api/cars/admin/all
 
         @Test
@@ -189,14 +211,7 @@ public class CarControllerTests extends ControllerTestCase {
         public void admin_can_delete_a_car() throws Exception {
                 // arrange
 
-                Car car1 = Car.builder()
-                        .description("great car!")
-                        .horsepower("300 hp")
-                        .model("Ford Mustang")
-                        .build();
-
-
-                when(carRepository.findById(eq(15L))).thenReturn(Optional.of(car1));
+                when(carRepository.removeById(eq(15L))).thenReturn(1);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -205,8 +220,8 @@ public class CarControllerTests extends ControllerTestCase {
                                 .andExpect(status().isOk()).andReturn();
 
                 // assert
-                verify(carRepository, times(1)).findById(15L);
-                verify(carRepository, times(1)).delete(any());
+                verify(carRepository, times(1)).removeById(15L);
+                verify(carRepository, times(0)).findById(any());
 
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("Car with id 15 deleted", json.get("message"));
@@ -218,7 +233,7 @@ public class CarControllerTests extends ControllerTestCase {
                         throws Exception {
                 // arrange
 
-                when(carRepository.findById(eq(15L))).thenReturn(Optional.empty());
+                when(carRepository.removeById(eq(15L))).thenReturn(0);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -227,7 +242,7 @@ public class CarControllerTests extends ControllerTestCase {
                                 .andExpect(status().isNotFound()).andReturn();
 
                 // assert
-                verify(carRepository, times(1)).findById(15L);
+                verify(carRepository, times(1)).removeById(15L);
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("Car with id 15 not found", json.get("message"));
         }
@@ -264,7 +279,7 @@ public class CarControllerTests extends ControllerTestCase {
 
                 // assert
                 verify(carRepository, times(1)).findById(67L);
-                verify(carRepository, times(1)).save(car1Edited); // should be saved with correct user
+                verify(carRepository, times(1)).updateById(67L, "Dodge Charger", "705 hp", "fast car!");
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(requestBody, responseString);
         }
@@ -299,5 +314,466 @@ public class CarControllerTests extends ControllerTestCase {
                 assertEquals("Car with id 67 not found", json.get("message"));
 
         }
-    
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_edit_of_car_is_one_conditional_update_without_a_save() throws Exception {
+                // arrange
+
+                Car carEdited = Car.builder()
+                                .model("Camry")
+                                .horsepower("203")
+                                .description("midsize sedan")
+                                .build();
+
+                String requestBody = mapper.writeValueAsString(carEdited);
+
+                when(carRepository.updateById(eq(67L), eq("Camry"), eq("203"), eq("midsize sedan"))).thenReturn(1);
+                when(carRepository.findById(eq(67L))).thenReturn(Optional.of(Car.builder().id(67L).build()));
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                put("/api/cars?id=67")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(requestBody)
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(carRepository, times(1)).updateById(eq(67L), eq("Camry"), eq("203"), eq("midsize sedan"));
+                verify(carRepository, times(1)).findById(67L);
+                verify(carRepository, times(0)).save(any());
+                carEdited.setId(67L);
+                String expectedJson = mapper.writeValueAsString(carEdited);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_edit_of_car_with_unchanged_values_succeeds_without_writing() throws Exception {
+                // arrange
+
+                Car carEdited = Car.builder()
+                                .model("Camry")
+                                .horsepower("203")
+                                .description("midsize sedan")
+                                .build();
+
+                String requestBody = mapper.writeValueAsString(carEdited);
+
+                // no row matched because the stored values are already the same
+                when(carRepository.updateById(eq(67L), eq("Camry"), eq("203"), eq("midsize sedan"))).thenReturn(0);
+                Car carStored = mapper.readValue(requestBody, Car.class);
+                carStored.setId(67L);
+                when(carRepository.findById(eq(67L))).thenReturn(Optional.of(carStored));
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                put("/api/cars?id=67")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(requestBody)
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(carRepository, times(1)).findById(67L);
+                verify(carRepository, times(0)).save(any());
+                carEdited.setId(67L);
+                String expectedJson = mapper.writeValueAsString(carEdited);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_edit_of_missing_car_writes_nothing() throws Exception {
+                // arrange
+
+                Car carEdited = Car.builder()
+                                .model("Camry")
+                                .horsepower("203")
+                                .description("midsize sedan")
+                                .build();
+
+                String requestBody = mapper.writeValueAsString(carEdited);
+
+                when(carRepository.findById(eq(67L))).thenReturn(Optional.empty());
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                put("/api/cars?id=67")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(requestBody)
+                                                .with(csrf()))
+                                .andExpect(status().isNotFound()).andReturn();
+
+                // assert
+                verify(carRepository, times(1)).findById(67L);
+                verify(carRepository, times(0)).updateById(eq(67L), eq("Camry"), eq("203"), eq("midsize sedan"));
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("Car with id 67 not found", json.get("message"));
+        }
+
+        // Tests for keyset pagination of /api/cars/all
+
+        @Test
+        public void logged_out_users_cannot_get_a_page() throws Exception {
+                mockMvc.perform(get("/api/cars/all?limit=2"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_first_page_of_cars() throws Exception {
+                // arrange
+
+                Car car1 = Car.builder()
+                                .id(1L)
+                                .model("Civic")
+                                .horsepower("158")
+                                .description("compact sedan")
+                                .build();
+
+                Car car2 = Car.builder()
+                                .id(2L)
+                                .model("Camry")
+                                .horsepower("203")
+                                .description("midsize sedan")
+                                .build();
+
+                Car car3 = Car.builder()
+                                .id(3L)
+                                .model("Mustang")
+                                .horsepower("310")
+                                .description("sports coupe")
+                                .build();
+
+                when(carRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), eq(PageRequest.of(0, 3))))
+                                .thenReturn(Arrays.asList(car1, car2, car3));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/cars/all?limit=2"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(carRepository, times(1)).findByIdGreaterThanOrderByIdAsc(eq(0L), eq(PageRequest.of(0, 3)));
+                KeysetPage<Car, Long> expectedPage = KeysetPage.<Car, Long>builder()
+                                .content(Arrays.asList(car1, car2))
+                                .nextCursor(2L)
+                                .build();
+                String expectedJson = mapper.writeValueAsString(expectedPage);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_gets_no_cursor_on_last_page_of_cars() throws Exception {
+                // arrange
+
+                Car car3 = Car.builder()
+                                .id(3L)
+                                .model("Mustang")
+                                .horsepower("310")
+                                .description("sports coupe")
+                                .build();
+
+                when(carRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), eq(PageRequest.of(0, 3))))
+                                .thenReturn(Arrays.asList(car3));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/cars/all?limit=2&after=2"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(carRepository, times(1)).findByIdGreaterThanOrderByIdAsc(eq(2L), eq(PageRequest.of(0, 3)));
+                KeysetPage<Car, Long> expectedPage = KeysetPage.<Car, Long>builder()
+                                .content(Arrays.asList(car3))
+                                .build();
+                String expectedJson = mapper.writeValueAsString(expectedPage);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        // Tests for GET /api/cars/all?stream=true
+
+        @Test
+        public void logged_out_users_cannot_stream_all() throws Exception {
+                mockMvc.perform(get("/api/cars/all?stream=true"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_stream_all_cars() throws Exception {
+
+                // arrange
+
+                Car car1 = Car.builder()
+                                .id(1L)
+                                .model("Civic")
+                                .horsepower("158")
+                                .description("compact sedan")
+                                .build();
+
+                Car car2 = Car.builder()
+                                .id(2L)
+                                .model("Camry")
+                                .horsepower("203")
+                                .description("midsize sedan")
+                                .build();
+
+                when(carRepository.streamAll()).thenReturn(Stream.of(car1, car2));
+                when(jsonStreamingService.streamJsonArray(any())).thenAnswer(invocation -> {
+                        Supplier<Stream<Car>> rows = invocation.getArgument(0);
+                        byte[] json = mapper.writeValueAsBytes(rows.get().collect(Collectors.toList()));
+                        return (StreamingResponseBody) outputStream -> outputStream.write(json);
+                });
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/cars/all?stream=true"))
+                                .andExpect(request().asyncStarted())
+                                .andDo(MvcResult::getAsyncResult)
+                                .andExpect(status().isOk())
+                                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                                .andReturn();
+
+                // assert
+
+                verify(carRepository, times(1)).streamAll();
+                verify(carRepository, times(0)).findAll();
+                String expectedJson = mapper.writeValueAsString(Arrays.asList(car1, car2));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        // Tests for POST /api/cars/bulk
+
+        @Test
+        public void logged_out_users_cannot_post_bulk() throws Exception {
+                mockMvc.perform(post("/api/cars/bulk"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_regular_users_cannot_post_bulk() throws Exception {
+                mockMvc.perform(post("/api/cars/bulk")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("[]")
+                                .with(csrf()))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void an_admin_user_can_post_many_cars_in_bulk_and_supplied_ids_are_ignored() throws Exception {
+                // arrange
+
+                Car car1 = Car.builder()
+                                .id(17L)
+                                .model("Civic")
+                                .horsepower("158")
+                                .description("compact sedan")
+                                .build();
+
+                Car car2 = Car.builder()
+                                .id(18L)
+                                .model("Camry")
+                                .horsepower("203")
+                                .description("midsize sedan")
+                                .build();
+
+                String requestBody = mapper.writeValueAsString(Arrays.asList(car1, car2));
+
+                // what the database would hand back after assigning new ids
+                car1.setId(1L);
+                car2.setId(2L);
+                when(bulkSaveService.saveInChunks(eq(carRepository), any())).thenReturn(Arrays.asList(car1, car2));
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                post("/api/cars/bulk")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(requestBody)
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                @SuppressWarnings("unchecked")
+                ArgumentCaptor<List<Car>> rows = ArgumentCaptor.forClass(List.class);
+                verify(bulkSaveService, times(1)).saveInChunks(eq(carRepository), rows.capture());
+                assertEquals(2, rows.getValue().size());
+                assertEquals(0L, rows.getValue().get(0).getId());
+                assertEquals(0L, rows.getValue().get(1).getId());
+                assertEquals("[1,2]", response.getResponse().getContentAsString());
+        }
+
+        // Tests for DELETE /api/cars/bulk
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_regular_users_cannot_delete_bulk() throws Exception {
+                mockMvc.perform(delete("/api/cars/bulk?ids=7").with(csrf()))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_can_delete_many_cars_and_is_told_which_were_missing() throws Exception {
+                // arrange
+
+                when(carRepository.findIdsByIdIn(eq(Arrays.asList(1L, 2L, 7L)))).thenReturn(Arrays.asList(1L, 2L));
+                when(carRepository.removeAllByIdIn(eq(Arrays.asList(1L, 2L)))).thenReturn(2);
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                delete("/api/cars/bulk?ids=1,2,7")
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(carRepository, times(1)).removeAllByIdIn(Arrays.asList(1L, 2L));
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("2 cars deleted", json.get("message"));
+                assertEquals(Arrays.asList(7), json.get("missing"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_bulk_delete_of_only_missing_cars_deletes_nothing() throws Exception {
+                // arrange
+
+                when(carRepository.findIdsByIdIn(eq(Arrays.asList(7L)))).thenReturn(new ArrayList<>());
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                delete("/api/cars/bulk?ids=7")
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(carRepository, times(0)).removeAllByIdIn(any());
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("0 cars deleted", json.get("message"));
+                assertEquals(Arrays.asList(7), json.get("missing"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_bulk_delete_of_no_cars_does_not_query() throws Exception {
+                // act
+                MvcResult response = mockMvc.perform(
+                                delete("/api/cars/bulk?ids=")
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(carRepository, times(0)).findIdsByIdIn(any());
+                verify(carRepository, times(0)).removeAllByIdIn(any());
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("0 cars deleted", json.get("message"));
+                assertEquals(new ArrayList<>(), json.get("missing"));
+        }
+
+        // stream=true cannot be combined with limit or fields
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void asking_for_a_stream_of_a_page_or_of_selected_fields_is_a_bad_request() throws Exception {
+                mockMvc.perform(get("/api/cars/all?stream=true&limit=2"))
+                                .andExpect(status().isBadRequest());
+                mockMvc.perform(get("/api/cars/all?stream=true&fields=id"))
+                                .andExpect(status().isBadRequest());
+                mockMvc.perform(get("/api/cars/all?stream=true&fields=id&limit=2"))
+                                .andExpect(status().isBadRequest());
+
+                verify(carRepository, times(0)).findAll();
+                verifyNoInteractions(jsonStreamingService, projectionService);
+        }
+
+        // Tests for ?fields= on /api/cars/all
+
+        @Test
+        public void logged_out_users_cannot_get_selected_fields() throws Exception {
+                mockMvc.perform(get("/api/cars/all?fields=model"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_all_cars_with_selected_fields() throws Exception {
+                // arrange
+
+                Map<String, Object> row1 = Map.of("id", 1L, "model", "Civic");
+                Map<String, Object> row2 = Map.of("id", 2L, "model", "Camry");
+
+                when(projectionService.findAll(eq(Car.class), eq(List.of("model"))))
+                                .thenReturn(Arrays.asList(row1, row2));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/cars/all?fields=model"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(projectionService, times(1)).findAll(eq(Car.class), eq(List.of("model")));
+                String expectedJson = mapper.writeValueAsString(Arrays.asList(row1, row2));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_a_page_of_cars_with_selected_fields() throws Exception {
+                // arrange
+
+                Map<String, Object> row1 = Map.of("id", 1L, "model", "Civic");
+                Map<String, Object> row2 = Map.of("id", 2L, "model", "Camry");
+                Map<String, Object> row3 = Map.of("id", 3L, "model", "Mustang");
+
+                when(projectionService.findAfter(eq(Car.class), eq(List.of("model")), eq(0L), eq(3)))
+                                .thenReturn(Arrays.asList(row1, row2, row3));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/cars/all?fields=model&limit=2"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(projectionService, times(1)).findAfter(eq(Car.class), eq(List.of("model")), eq(0L), eq(3));
+                KeysetPage<Map<String, Object>, Long> expectedPage = KeysetPage.<Map<String, Object>, Long>builder()
+                                .content(Arrays.asList(row1, row2))
+                                .nextCursor(2L)
+                                .build();
+                String expectedJson = mapper.writeValueAsString(expectedPage);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void unknown_fields_are_a_bad_request() throws Exception {
+                // arrange
+
+                when(projectionService.findAll(eq(Car.class), eq(List.of("nosuchfield"))))
+                                .thenThrow(new UnknownFieldsException(Car.class, List.of("nosuchfield")));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/cars/all?fields=nosuchfield"))
+                                .andExpect(status().isBadRequest()).andReturn();
+
+                // assert
+
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("UnknownFieldsException", json.get("type"));
+                assertEquals("Car has no field(s) nosuchfield", json.get("message"));
+        }
 }
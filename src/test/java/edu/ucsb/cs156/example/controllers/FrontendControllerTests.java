@@ -0,0 +1,87 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.util.StreamUtils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.io.IOException;
+
+// Uses the index.html and bundle under src/test/resources/public.
+
+@WebMvcTest(controllers = FrontendController.class)
+public class FrontendControllerTests extends ControllerTestCase {
+
+  @MockBean
+  UserRepository userRepository;
+
+  private byte[] resource(String path) throws IOException {
+    return StreamUtils.copyToByteArray(new ClassPathResource(path).getInputStream());
+  }
+
+  @Test
+  public void app_paths_get_index_html_from_memory() throws Exception {
+    MvcResult response = mockMvc.perform(get("/ucsbdates/list"))
+        .andExpect(status().isOk())
+        .andExpect(content().contentTypeCompatibleWith("text/html"))
+        .andExpect(header().string("Cache-Control", "no-cache"))
+        .andExpect(header().exists("ETag"))
+        .andExpect(header().doesNotExist("Content-Encoding"))
+        .andReturn();
+
+    assertTrue(response.getResponse().getContentAsString().contains("<div id=\"root\">"));
+    mockMvc.perform(get("/")).andExpect(status().isOk());
+  }
+
+  @Test
+  public void index_html_is_sent_precompressed_when_accepted() throws Exception {
+    MvcResult br = mockMvc.perform(get("/").header("Accept-Encoding", "gzip, deflate, br"))
+        .andExpect(status().isOk())
+        .andExpect(header().string("Content-Encoding", "br"))
+        .andReturn();
+    assertTrue(br.getResponse().getHeaders("Vary").contains("Accept-Encoding"));
+    assertArrayEquals(resource("public/index.html.br"), br.getResponse().getContentAsByteArray());
+
+    MvcResult gzip = mockMvc.perform(get("/").header("Accept-Encoding", "gzip, br;q=0"))
+        .andExpect(status().isOk())
+        .andExpect(header().string("Content-Encoding", "gzip"))
+        .andReturn();
+    assertArrayEquals(resource("public/index.html.gz"), gzip.getResponse().getContentAsByteArray());
+  }
+
+  @Test
+  public void matching_etag_gets_304() throws Exception {
+    String etag = mockMvc.perform(get("/"))
+        .andReturn().getResponse().getHeader("ETag");
+
+    mockMvc.perform(get("/profile").header("If-None-Match", etag))
+        .andExpect(status().isNotModified());
+    mockMvc.perform(get("/profile").header("If-None-Match", etag).header("Accept-Encoding", "gzip"))
+        .andExpect(status().isOk());
+  }
+
+  @Test
+  public void hashed_bundles_are_immutable_and_precompressed() throws Exception {
+    mockMvc.perform(get("/static/js/main.1a2b3c4d.js"))
+        .andExpect(status().isOk())
+        .andExpect(header().string("Cache-Control", "max-age=31536000, public, immutable"))
+        .andExpect(header().doesNotExist("Content-Encoding"));
+
+    MvcResult gzip = mockMvc.perform(get("/static/js/main.1a2b3c4d.js").header("Accept-Encoding", "gzip"))
+        .andExpect(status().isOk())
+        .andExpect(header().string("Content-Encoding", "gzip"))
+        .andReturn();
+    assertArrayEquals(resource("public/static/js/main.1a2b3c4d.js.gz"), gzip.getResponse().getContentAsByteArray());
+  }
+
+}
@@ -5,6 +5,11 @@ import edu.ucsb.cs156.example.testconfig.TestConfig;
 import edu.ucsb.cs156.example.ControllerTestCase;
 import edu.ucsb.cs156.example.entities.Hotel;
 import edu.ucsb.cs156.example.repositories.HotelRepository;
+import edu.ucsb.cs156.example.models.KeysetPage;
+import edu.ucsb.cs156.example.services.JsonStreamingService;
+import edu.ucsb.cs156.example.services.BulkSaveService;
+import edu.ucsb.cs156.example.services.ProjectionService;
+import edu.ucsb.cs156.example.errors.UnknownFieldsException;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -16,18 +21,26 @@ import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.mockito.ArgumentCaptor;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 
 import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @WebMvcTest(controllers = HotelsController.class)
@@ -40,6 +53,15 @@ public class HotelsControllerTests extends ControllerTestCase {
         @MockBean
         UserRepository userRepository;
 
+        @MockBean
+        JsonStreamingService jsonStreamingService;
+
+        @MockBean
+        BulkSaveService bulkSaveService;
+
+        @MockBean
+        ProjectionService projectionService;
+
         // Authorization tests for /api/hotels/admin/all
 
         @Test
@@ -189,13 +211,7 @@ public class HotelsControllerTests extends ControllerTestCase {
         public void admin_can_delete_a_hotel() throws Exception {
                 // arrange
 
-                Hotel hotel1 = Hotel.builder()
-                .name("Courtyard by Marriott Santa Barbara Goleta")
-                .address("401 Storke Rd, Goleta, CA 93117")
-                .description("3-star hotel")
-                .build();
-
-                when(hotelRepository.findById(eq(15L))).thenReturn(Optional.of(hotel1));
+                when(hotelRepository.removeById(eq(15L))).thenReturn(1);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -204,8 +220,8 @@ public class HotelsControllerTests extends ControllerTestCase {
                                 .andExpect(status().isOk()).andReturn();
 
                 // assert
-                verify(hotelRepository, times(1)).findById(15L);
-                verify(hotelRepository, times(1)).delete(any());
+                verify(hotelRepository, times(1)).removeById(15L);
+                verify(hotelRepository, times(0)).findById(any());
 
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("Hotel with id 15 deleted", json.get("message"));
@@ -217,7 +233,7 @@ public class HotelsControllerTests extends ControllerTestCase {
                         throws Exception {
                 // arrange
 
-                when(hotelRepository.findById(eq(15L))).thenReturn(Optional.empty());
+                when(hotelRepository.removeById(eq(15L))).thenReturn(0);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -226,7 +242,7 @@ public class HotelsControllerTests extends ControllerTestCase {
                                 .andExpect(status().isNotFound()).andReturn();
 
                 // assert
-                verify(hotelRepository, times(1)).findById(15L);
+                verify(hotelRepository, times(1)).removeById(15L);
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("Hotel with id 15 not found", json.get("message"));
         }
@@ -263,7 +279,7 @@ public class HotelsControllerTests extends ControllerTestCase {
 
                 // assert
                 verify(hotelRepository, times(1)).findById(67L);
-                verify(hotelRepository, times(1)).save(hotelEdited); // should be saved with correct user
+                verify(hotelRepository, times(1)).updateById(67L, "Hyatt Place Santa Barbara", "4111 State St, Santa Barbara, CA 93110", "3-star hotel, Small");
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(requestBody, responseString);
         }
@@ -298,4 +314,466 @@ public class HotelsControllerTests extends ControllerTestCase {
                 assertEquals("Hotel with id 67 not found", json.get("message"));
 
         }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_edit_of_hotel_is_one_conditional_update_without_a_save() throws Exception {
+                // arrange
+
+                Hotel hotelEdited = Hotel.builder()
+                                .name("Hyatt Place Santa Barbara")
+                                .address("4111 State St, Santa Barbara, CA 93110")
+                                .description("3-star hotel, Small")
+                                .build();
+
+                String requestBody = mapper.writeValueAsString(hotelEdited);
+
+                when(hotelRepository.updateById(eq(67L), eq("Hyatt Place Santa Barbara"), eq("4111 State St, Santa Barbara, CA 93110"), eq("3-star hotel, Small"))).thenReturn(1);
+                when(hotelRepository.findById(eq(67L))).thenReturn(Optional.of(Hotel.builder().id(67L).build()));
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                put("/api/hotels?id=67")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(requestBody)
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(hotelRepository, times(1)).updateById(eq(67L), eq("Hyatt Place Santa Barbara"), eq("4111 State St, Santa Barbara, CA 93110"), eq("3-star hotel, Small"));
+                verify(hotelRepository, times(1)).findById(67L);
+                verify(hotelRepository, times(0)).save(any());
+                hotelEdited.setId(67L);
+                String expectedJson = mapper.writeValueAsString(hotelEdited);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_edit_of_hotel_with_unchanged_values_succeeds_without_writing() throws Exception {
+                // arrange
+
+                Hotel hotelEdited = Hotel.builder()
+                                .name("Hyatt Place Santa Barbara")
+                                .address("4111 State St, Santa Barbara, CA 93110")
+                                .description("3-star hotel, Small")
+                                .build();
+
+                String requestBody = mapper.writeValueAsString(hotelEdited);
+
+                // no row matched because the stored values are already the same
+                when(hotelRepository.updateById(eq(67L), eq("Hyatt Place Santa Barbara"), eq("4111 State St, Santa Barbara, CA 93110"), eq("3-star hotel, Small"))).thenReturn(0);
+                Hotel hotelStored = mapper.readValue(requestBody, Hotel.class);
+                hotelStored.setId(67L);
+                when(hotelRepository.findById(eq(67L))).thenReturn(Optional.of(hotelStored));
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                put("/api/hotels?id=67")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(requestBody)
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(hotelRepository, times(1)).findById(67L);
+                verify(hotelRepository, times(0)).save(any());
+                hotelEdited.setId(67L);
+                String expectedJson = mapper.writeValueAsString(hotelEdited);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_edit_of_missing_hotel_writes_nothing() throws Exception {
+                // arrange
+
+                Hotel hotelEdited = Hotel.builder()
+                                .name("Hyatt Place Santa Barbara")
+                                .address("4111 State St, Santa Barbara, CA 93110")
+                                .description("3-star hotel, Small")
+                                .build();
+
+                String requestBody = mapper.writeValueAsString(hotelEdited);
+
+                when(hotelRepository.findById(eq(67L))).thenReturn(Optional.empty());
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                put("/api/hotels?id=67")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(requestBody)
+                                                .with(csrf()))
+                                .andExpect(status().isNotFound()).andReturn();
+
+                // assert
+                verify(hotelRepository, times(1)).findById(67L);
+                verify(hotelRepository, times(0)).updateById(eq(67L), eq("Hyatt Place Santa Barbara"), eq("4111 State St, Santa Barbara, CA 93110"), eq("3-star hotel, Small"));
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("Hotel with id 67 not found", json.get("message"));
+        }
+
+        // Tests for keyset pagination of /api/hotels/all
+
+        @Test
+        public void logged_out_users_cannot_get_a_page() throws Exception {
+                mockMvc.perform(get("/api/hotels/all?limit=2"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_first_page_of_hotels() throws Exception {
+                // arrange
+
+                Hotel hotel1 = Hotel.builder()
+                                .id(1L)
+                                .name("Courtyard by Marriott Santa Barbara Goleta")
+                                .address("401 Storke Rd, Goleta, CA 93117")
+                                .description("3-star hotel")
+                                .build();
+
+                Hotel hotel2 = Hotel.builder()
+                                .id(2L)
+                                .name("Hyatt Place Santa Barbara")
+                                .address("4111 State St, Santa Barbara, CA 93110")
+                                .description("3-star hotel, Small")
+                                .build();
+
+                Hotel hotel3 = Hotel.builder()
+                                .id(3L)
+                                .name("Hotel Californian")
+                                .address("36 State St, Santa Barbara, CA 93101")
+                                .description("4-star hotel")
+                                .build();
+
+                when(hotelRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), eq(PageRequest.of(0, 3))))
+                                .thenReturn(Arrays.asList(hotel1, hotel2, hotel3));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/hotels/all?limit=2"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(hotelRepository, times(1)).findByIdGreaterThanOrderByIdAsc(eq(0L), eq(PageRequest.of(0, 3)));
+                KeysetPage<Hotel, Long> expectedPage = KeysetPage.<Hotel, Long>builder()
+                                .content(Arrays.asList(hotel1, hotel2))
+                                .nextCursor(2L)
+                                .build();
+                String expectedJson = mapper.writeValueAsString(expectedPage);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_gets_no_cursor_on_last_page_of_hotels() throws Exception {
+                // arrange
+
+                Hotel hotel3 = Hotel.builder()
+                                .id(3L)
+                                .name("Hotel Californian")
+                                .address("36 State St, Santa Barbara, CA 93101")
+                                .description("4-star hotel")
+                                .build();
+
+                when(hotelRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), eq(PageRequest.of(0, 3))))
+                                .thenReturn(Arrays.asList(hotel3));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/hotels/all?limit=2&after=2"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(hotelRepository, times(1)).findByIdGreaterThanOrderByIdAsc(eq(2L), eq(PageRequest.of(0, 3)));
+                KeysetPage<Hotel, Long> expectedPage = KeysetPage.<Hotel, Long>builder()
+                                .content(Arrays.asList(hotel3))
+                                .build();
+                String expectedJson = mapper.writeValueAsString(expectedPage);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        // Tests for GET /api/hotels/all?stream=true
+
+        @Test
+        public void logged_out_users_cannot_stream_all() throws Exception {
+                mockMvc.perform(get("/api/hotels/all?stream=true"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_stream_all_hotels() throws Exception {
+
+                // arrange
+
+                Hotel hotel1 = Hotel.builder()
+                                .id(1L)
+                                .name("Courtyard by Marriott Santa Barbara Goleta")
+                                .address("401 Storke Rd, Goleta, CA 93117")
+                                .description("3-star hotel")
+                                .build();
+
+                Hotel hotel2 = Hotel.builder()
+                                .id(2L)
+                                .name("Hyatt Place Santa Barbara")
+                                .address("4111 State St, Santa Barbara, CA 93110")
+                                .description("3-star hotel, Small")
+                                .build();
+
+                when(hotelRepository.streamAll()).thenReturn(Stream.of(hotel1, hotel2));
+                when(jsonStreamingService.streamJsonArray(any())).thenAnswer(invocation -> {
+                        Supplier<Stream<Hotel>> rows = invocation.getArgument(0);
+                        byte[] json = mapper.writeValueAsBytes(rows.get().collect(Collectors.toList()));
+                        return (StreamingResponseBody) outputStream -> outputStream.write(json);
+                });
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/hotels/all?stream=true"))
+                                .andExpect(request().asyncStarted())
+                                .andDo(MvcResult::getAsyncResult)
+                                .andExpect(status().isOk())
+                                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                                .andReturn();
+
+                // assert
+
+                verify(hotelRepository, times(1)).streamAll();
+                verify(hotelRepository, times(0)).findAll();
+                String expectedJson = mapper.writeValueAsString(Arrays.asList(hotel1, hotel2));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        // Tests for POST /api/hotels/bulk
+
+        @Test
+        public void logged_out_users_cannot_post_bulk() throws Exception {
+                mockMvc.perform(post("/api/hotels/bulk"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_regular_users_cannot_post_bulk() throws Exception {
+                mockMvc.perform(post("/api/hotels/bulk")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("[]")
+                                .with(csrf()))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void an_admin_user_can_post_many_hotels_in_bulk_and_supplied_ids_are_ignored() throws Exception {
+                // arrange
+
+                Hotel hotel1 = Hotel.builder()
+                                .id(17L)
+                                .name("Courtyard by Marriott Santa Barbara Goleta")
+                                .address("401 Storke Rd, Goleta, CA 93117")
+                                .description("3-star hotel")
+                                .build();
+
+                Hotel hotel2 = Hotel.builder()
+                                .id(18L)
+                                .name("Hyatt Place Santa Barbara")
+                                .address("4111 State St, Santa Barbara, CA 93110")
+                                .description("3-star hotel, Small")
+                                .build();
+
+                String requestBody = mapper.writeValueAsString(Arrays.asList(hotel1, hotel2));
+
+                // what the database would hand back after assigning new ids
+                hotel1.setId(1L);
+                hotel2.setId(2L);
+                when(bulkSaveService.saveInChunks(eq(hotelRepository), any())).thenReturn(Arrays.asList(hotel1, hotel2));
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                post("/api/hotels/bulk")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(requestBody)
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                @SuppressWarnings("unchecked")
+                ArgumentCaptor<List<Hotel>> rows = ArgumentCaptor.forClass(List.class);
+                verify(bulkSaveService, times(1)).saveInChunks(eq(hotelRepository), rows.capture());
+                assertEquals(2, rows.getValue().size());
+                assertEquals(0L, rows.getValue().get(0).getId());
+                assertEquals(0L, rows.getValue().get(1).getId());
+                assertEquals("[1,2]", response.getResponse().getContentAsString());
+        }
+
+        // Tests for DELETE /api/hotels/bulk
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_regular_users_cannot_delete_bulk() throws Exception {
+                mockMvc.perform(delete("/api/hotels/bulk?ids=7").with(csrf()))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_can_delete_many_hotels_and_is_told_which_were_missing() throws Exception {
+                // arrange
+
+                when(hotelRepository.findIdsByIdIn(eq(Arrays.asList(1L, 2L, 7L)))).thenReturn(Arrays.asList(1L, 2L));
+                when(hotelRepository.removeAllByIdIn(eq(Arrays.asList(1L, 2L)))).thenReturn(2);
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                delete("/api/hotels/bulk?ids=1,2,7")
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(hotelRepository, times(1)).removeAllByIdIn(Arrays.asList(1L, 2L));
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("2 hotels deleted", json.get("message"));
+                assertEquals(Arrays.asList(7), json.get("missing"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_bulk_delete_of_only_missing_hotels_deletes_nothing() throws Exception {
+                // arrange
+
+                when(hotelRepository.findIdsByIdIn(eq(Arrays.asList(7L)))).thenReturn(new ArrayList<>());
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                delete("/api/hotels/bulk?ids=7")
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(hotelRepository, times(0)).removeAllByIdIn(any());
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("0 hotels deleted", json.get("message"));
+                assertEquals(Arrays.asList(7), json.get("missing"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_bulk_delete_of_no_hotels_does_not_query() throws Exception {
+                // act
+                MvcResult response = mockMvc.perform(
+                                delete("/api/hotels/bulk?ids=")
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(hotelRepository, times(0)).findIdsByIdIn(any());
+                verify(hotelRepository, times(0)).removeAllByIdIn(any());
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("0 hotels deleted", json.get("message"));
+                assertEquals(new ArrayList<>(), json.get("missing"));
+        }
+
+        // stream=true cannot be combined with limit or fields
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void asking_for_a_stream_of_a_page_or_of_selected_fields_is_a_bad_request() throws Exception {
+                mockMvc.perform(get("/api/hotels/all?stream=true&limit=2"))
+                                .andExpect(status().isBadRequest());
+                mockMvc.perform(get("/api/hotels/all?stream=true&fields=id"))
+                                .andExpect(status().isBadRequest());
+                mockMvc.perform(get("/api/hotels/all?stream=true&fields=id&limit=2"))
+                                .andExpect(status().isBadRequest());
+
+                verify(hotelRepository, times(0)).findAll();
+                verifyNoInteractions(jsonStreamingService, projectionService);
+        }
+
+        // Tests for ?fields= on /api/hotels/all
+
+        @Test
+        public void logged_out_users_cannot_get_selected_fields() throws Exception {
+                mockMvc.perform(get("/api/hotels/all?fields=name"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_all_hotels_with_selected_fields() throws Exception {
+                // arrange
+
+                Map<String, Object> row1 = Map.of("id", 1L, "name", "Courtyard by Marriott Santa Barbara Goleta");
+                Map<String, Object> row2 = Map.of("id", 2L, "name", "Hyatt Place Santa Barbara");
+
+                when(projectionService.findAll(eq(Hotel.class), eq(List.of("name"))))
+                                .thenReturn(Arrays.asList(row1, row2));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/hotels/all?fields=name"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(projectionService, times(1)).findAll(eq(Hotel.class), eq(List.of("name")));
+                String expectedJson = mapper.writeValueAsString(Arrays.asList(row1, row2));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_a_page_of_hotels_with_selected_fields() throws Exception {
+                // arrange
+
+                Map<String, Object> row1 = Map.of("id", 1L, "name", "Courtyard by Marriott Santa Barbara Goleta");
+                Map<String, Object> row2 = Map.of("id", 2L, "name", "Hyatt Place Santa Barbara");
+                Map<String, Object> row3 = Map.of("id", 3L, "name", "Hotel Californian");
+
+                when(projectionService.findAfter(eq(Hotel.class), eq(List.of("name")), eq(0L), eq(3)))
+                                .thenReturn(Arrays.asList(row1, row2, row3));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/hotels/all?fields=name&limit=2"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(projectionService, times(1)).findAfter(eq(Hotel.class), eq(List.of("name")), eq(0L), eq(3));
+                KeysetPage<Map<String, Object>, Long> expectedPage = KeysetPage.<Map<String, Object>, Long>builder()
+                                .content(Arrays.asList(row1, row2))
+                                .nextCursor(2L)
+                                .build();
+                String expectedJson = mapper.writeValueAsString(expectedPage);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void unknown_fields_are_a_bad_request() throws Exception {
+                // arrange
+
+                when(projectionService.findAll(eq(Hotel.class), eq(List.of("nosuchfield"))))
+                                .thenThrow(new UnknownFieldsException(Hotel.class, List.of("nosuchfield")));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/hotels/all?fields=nosuchfield"))
+                                .andExpect(status().isBadRequest()).andReturn();
+
+                // assert
+
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("UnknownFieldsException", json.get("type"));
+                assertEquals("Hotel has no field(s) nosuchfield", json.get("message"));
+        }
 }
@@ -5,6 +5,11 @@ import edu.ucsb.cs156.example.entities.Movie;
 import edu.ucsb.cs156.example.repositories.MovieRepository;
 import edu.ucsb.cs156.example.repositories.UserRepository;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
+import edu.ucsb.cs156.example.models.KeysetPage;
+import edu.ucsb.cs156.example.services.JsonStreamingService;
+import edu.ucsb.cs156.example.services.BulkSaveService;
+import edu.ucsb.cs156.example.services.ProjectionService;
+import edu.ucsb.cs156.example.errors.UnknownFieldsException;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
@@ -12,17 +17,26 @@ import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.mockito.ArgumentCaptor;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = MovieController.class)
@@ -35,6 +49,15 @@ public class MovieControllerTests extends ControllerTestCase {
         @MockBean
         UserRepository userRepository;
 
+        @MockBean
+        JsonStreamingService jsonStreamingService;
+
+        @MockBean
+        BulkSaveService bulkSaveService;
+
+        @MockBean
+        ProjectionService projectionService;
+
         // Authorization tests for /api/movies/admin/all
 
         @Test
@@ -188,14 +211,7 @@ public class MovieControllerTests extends ControllerTestCase {
         public void admin_can_delete_a_movie() throws Exception {
                 // arrange
 
-                Movie movie = Movie.builder()
-                        .name("good movie")
-                        .synopsis("good plot")
-                        .castMembers("good cast")
-                        .id(0L)
-                        .build();
-
-                when(movieRepository.findById(eq(0L))).thenReturn(Optional.of(movie));
+                when(movieRepository.removeById(eq(0L))).thenReturn(1);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -204,8 +220,8 @@ public class MovieControllerTests extends ControllerTestCase {
                         .andExpect(status().isOk()).andReturn();
 
                 // assert
-                verify(movieRepository, times(1)).findById(0L);
-                verify(movieRepository, times(1)).delete(any());
+                verify(movieRepository, times(1)).removeById(0L);
+                verify(movieRepository, times(0)).findById(any());
 
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("Movie with id 0 deleted", json.get("message"));
@@ -217,7 +233,7 @@ public class MovieControllerTests extends ControllerTestCase {
                 throws Exception {
                 // arrange
 
-                when(movieRepository.findById(eq(15L))).thenReturn(Optional.empty());
+                when(movieRepository.removeById(eq(15L))).thenReturn(0);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -226,7 +242,7 @@ public class MovieControllerTests extends ControllerTestCase {
                         .andExpect(status().isNotFound()).andReturn();
 
                 // assert
-                verify(movieRepository, times(1)).findById(15L);
+                verify(movieRepository, times(1)).removeById(15L);
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("Movie with id 15 not found", json.get("message"));
         }
@@ -263,7 +279,7 @@ public class MovieControllerTests extends ControllerTestCase {
 
                 // assert
                 verify(movieRepository, times(1)).findById(0L);
-                verify(movieRepository, times(1)).save(movieEdited); // should be saved with correct user
+                verify(movieRepository, times(1)).updateById(0L, "gooder movie", "gooder plot", "gooder cast");
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(requestBody, responseString);
         }
@@ -299,4 +315,465 @@ public class MovieControllerTests extends ControllerTestCase {
 
         }
 
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_edit_of_movie_is_one_conditional_update_without_a_save() throws Exception {
+                // arrange
+
+                Movie movieEdited = Movie.builder()
+                                .name("Jaws")
+                                .synopsis("A shark terrorizes a beach town")
+                                .castMembers("Roy Scheider")
+                                .build();
+
+                String requestBody = mapper.writeValueAsString(movieEdited);
+
+                when(movieRepository.updateById(eq(67L), eq("Jaws"), eq("A shark terrorizes a beach town"), eq("Roy Scheider"))).thenReturn(1);
+                when(movieRepository.findById(eq(67L))).thenReturn(Optional.of(Movie.builder().id(67L).build()));
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                put("/api/movies?id=67")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(requestBody)
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(movieRepository, times(1)).updateById(eq(67L), eq("Jaws"), eq("A shark terrorizes a beach town"), eq("Roy Scheider"));
+                verify(movieRepository, times(1)).findById(67L);
+                verify(movieRepository, times(0)).save(any());
+                movieEdited.setId(67L);
+                String expectedJson = mapper.writeValueAsString(movieEdited);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_edit_of_movie_with_unchanged_values_succeeds_without_writing() throws Exception {
+                // arrange
+
+                Movie movieEdited = Movie.builder()
+                                .name("Jaws")
+                                .synopsis("A shark terrorizes a beach town")
+                                .castMembers("Roy Scheider")
+                                .build();
+
+                String requestBody = mapper.writeValueAsString(movieEdited);
+
+                // no row matched because the stored values are already the same
+                when(movieRepository.updateById(eq(67L), eq("Jaws"), eq("A shark terrorizes a beach town"), eq("Roy Scheider"))).thenReturn(0);
+                Movie movieStored = mapper.readValue(requestBody, Movie.class);
+                movieStored.setId(67L);
+                when(movieRepository.findById(eq(67L))).thenReturn(Optional.of(movieStored));
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                put("/api/movies?id=67")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(requestBody)
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(movieRepository, times(1)).findById(67L);
+                verify(movieRepository, times(0)).save(any());
+                movieEdited.setId(67L);
+                String expectedJson = mapper.writeValueAsString(movieEdited);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_edit_of_missing_movie_writes_nothing() throws Exception {
+                // arrange
+
+                Movie movieEdited = Movie.builder()
+                                .name("Jaws")
+                                .synopsis("A shark terrorizes a beach town")
+                                .castMembers("Roy Scheider")
+                                .build();
+
+                String requestBody = mapper.writeValueAsString(movieEdited);
+
+                when(movieRepository.findById(eq(67L))).thenReturn(Optional.empty());
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                put("/api/movies?id=67")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(requestBody)
+                                                .with(csrf()))
+                                .andExpect(status().isNotFound()).andReturn();
+
+                // assert
+                verify(movieRepository, times(1)).findById(67L);
+                verify(movieRepository, times(0)).updateById(eq(67L), eq("Jaws"), eq("A shark terrorizes a beach town"), eq("Roy Scheider"));
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("Movie with id 67 not found", json.get("message"));
+        }
+
+        // Tests for keyset pagination of /api/movies/all
+
+        @Test
+        public void logged_out_users_cannot_get_a_page() throws Exception {
+                mockMvc.perform(get("/api/movies/all?limit=2"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_first_page_of_movies() throws Exception {
+                // arrange
+
+                Movie movie1 = Movie.builder()
+                                .id(1L)
+                                .name("Up")
+                                .synopsis("An old man flies his house to South America")
+                                .castMembers("Ed Asner")
+                                .build();
+
+                Movie movie2 = Movie.builder()
+                                .id(2L)
+                                .name("Jaws")
+                                .synopsis("A shark terrorizes a beach town")
+                                .castMembers("Roy Scheider")
+                                .build();
+
+                Movie movie3 = Movie.builder()
+                                .id(3L)
+                                .name("Heat")
+                                .synopsis("A detective hunts a master thief")
+                                .castMembers("Al Pacino, Robert De Niro")
+                                .build();
+
+                when(movieRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), eq(PageRequest.of(0, 3))))
+                                .thenReturn(Arrays.asList(movie1, movie2, movie3));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/movies/all?limit=2"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(movieRepository, times(1)).findByIdGreaterThanOrderByIdAsc(eq(0L), eq(PageRequest.of(0, 3)));
+                KeysetPage<Movie, Long> expectedPage = KeysetPage.<Movie, Long>builder()
+                                .content(Arrays.asList(movie1, movie2))
+                                .nextCursor(2L)
+                                .build();
+                String expectedJson = mapper.writeValueAsString(expectedPage);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_gets_no_cursor_on_last_page_of_movies() throws Exception {
+                // arrange
+
+                Movie movie3 = Movie.builder()
+                                .id(3L)
+                                .name("Heat")
+                                .synopsis("A detective hunts a master thief")
+                                .castMembers("Al Pacino, Robert De Niro")
+                                .build();
+
+                when(movieRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), eq(PageRequest.of(0, 3))))
+                                .thenReturn(Arrays.asList(movie3));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/movies/all?limit=2&after=2"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(movieRepository, times(1)).findByIdGreaterThanOrderByIdAsc(eq(2L), eq(PageRequest.of(0, 3)));
+                KeysetPage<Movie, Long> expectedPage = KeysetPage.<Movie, Long>builder()
+                                .content(Arrays.asList(movie3))
+                                .build();
+                String expectedJson = mapper.writeValueAsString(expectedPage);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        // Tests for GET /api/movies/all?stream=true
+
+        @Test
+        public void logged_out_users_cannot_stream_all() throws Exception {
+                mockMvc.perform(get("/api/movies/all?stream=true"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_stream_all_movies() throws Exception {
+
+                // arrange
+
+                Movie movie1 = Movie.builder()
+                                .id(1L)
+                                .name("Up")
+                                .synopsis("An old man flies his house to South America")
+                                .castMembers("Ed Asner")
+                                .build();
+
+                Movie movie2 = Movie.builder()
+                                .id(2L)
+                                .name("Jaws")
+                                .synopsis("A shark terrorizes a beach town")
+                                .castMembers("Roy Scheider")
+                                .build();
+
+                when(movieRepository.streamAll()).thenReturn(Stream.of(movie1, movie2));
+                when(jsonStreamingService.streamJsonArray(any())).thenAnswer(invocation -> {
+                        Supplier<Stream<Movie>> rows = invocation.getArgument(0);
+                        byte[] json = mapper.writeValueAsBytes(rows.get().collect(Collectors.toList()));
+                        return (StreamingResponseBody) outputStream -> outputStream.write(json);
+                });
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/movies/all?stream=true"))
+                                .andExpect(request().asyncStarted())
+                                .andDo(MvcResult::getAsyncResult)
+                                .andExpect(status().isOk())
+                                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                                .andReturn();
+
+                // assert
+
+                verify(movieRepository, times(1)).streamAll();
+                verify(movieRepository, times(0)).findAll();
+                String expectedJson = mapper.writeValueAsString(Arrays.asList(movie1, movie2));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        // Tests for POST /api/movies/bulk
+
+        @Test
+        public void logged_out_users_cannot_post_bulk() throws Exception {
+                mockMvc.perform(post("/api/movies/bulk"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_regular_users_cannot_post_bulk() throws Exception {
+                mockMvc.perform(post("/api/movies/bulk")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("[]")
+                                .with(csrf()))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void an_admin_user_can_post_many_movies_in_bulk_and_supplied_ids_are_ignored() throws Exception {
+                // arrange
+
+                Movie movie1 = Movie.builder()
+                                .id(17L)
+                                .name("Up")
+                                .synopsis("An old man flies his house to South America")
+                                .castMembers("Ed Asner")
+                                .build();
+
+                Movie movie2 = Movie.builder()
+                                .id(18L)
+                                .name("Jaws")
+                                .synopsis("A shark terrorizes a beach town")
+                                .castMembers("Roy Scheider")
+                                .build();
+
+                String requestBody = mapper.writeValueAsString(Arrays.asList(movie1, movie2));
+
+                // what the database would hand back after assigning new ids
+                movie1.setId(1L);
+                movie2.setId(2L);
+                when(bulkSaveService.saveInChunks(eq(movieRepository), any())).thenReturn(Arrays.asList(movie1, movie2));
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                post("/api/movies/bulk")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(requestBody)
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                @SuppressWarnings("unchecked")
+                ArgumentCaptor<List<Movie>> rows = ArgumentCaptor.forClass(List.class);
+                verify(bulkSaveService, times(1)).saveInChunks(eq(movieRepository), rows.capture());
+                assertEquals(2, rows.getValue().size());
+                assertEquals(0L, rows.getValue().get(0).getId());
+                assertEquals(0L, rows.getValue().get(1).getId());
+                assertEquals("[1,2]", response.getResponse().getContentAsString());
+        }
+
+        // Tests for DELETE /api/movies/bulk
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_regular_users_cannot_delete_bulk() throws Exception {
+                mockMvc.perform(delete("/api/movies/bulk?ids=7").with(csrf()))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_can_delete_many_movies_and_is_told_which_were_missing() throws Exception {
+                // arrange
+
+                when(movieRepository.findIdsByIdIn(eq(Arrays.asList(1L, 2L, 7L)))).thenReturn(Arrays.asList(1L, 2L));
+                when(movieRepository.removeAllByIdIn(eq(Arrays.asList(1L, 2L)))).thenReturn(2);
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                delete("/api/movies/bulk?ids=1,2,7")
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(movieRepository, times(1)).removeAllByIdIn(Arrays.asList(1L, 2L));
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("2 movies deleted", json.get("message"));
+                assertEquals(Arrays.asList(7), json.get("missing"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_bulk_delete_of_only_missing_movies_deletes_nothing() throws Exception {
+                // arrange
+
+                when(movieRepository.findIdsByIdIn(eq(Arrays.asList(7L)))).thenReturn(new ArrayList<>());
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                delete("/api/movies/bulk?ids=7")
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(movieRepository, times(0)).removeAllByIdIn(any());
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("0 movies deleted", json.get("message"));
+                assertEquals(Arrays.asList(7), json.get("missing"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_bulk_delete_of_no_movies_does_not_query() throws Exception {
+                // act
+                MvcResult response = mockMvc.perform(
+                                delete("/api/movies/bulk?ids=")
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(movieRepository, times(0)).findIdsByIdIn(any());
+                verify(movieRepository, times(0)).removeAllByIdIn(any());
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("0 movies deleted", json.get("message"));
+                assertEquals(new ArrayList<>(), json.get("missing"));
+        }
+
+        // stream=true cannot be combined with limit or fields
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void asking_for_a_stream_of_a_page_or_of_selected_fields_is_a_bad_request() throws Exception {
+                mockMvc.perform(get("/api/movies/all?stream=true&limit=2"))
+                                .andExpect(status().isBadRequest());
+                mockMvc.perform(get("/api/movies/all?stream=true&fields=id"))
+                                .andExpect(status().isBadRequest());
+                mockMvc.perform(get("/api/movies/all?stream=true&fields=id&limit=2"))
+                                .andExpect(status().isBadRequest());
+
+                verify(movieRepository, times(0)).findAll();
+                verifyNoInteractions(jsonStreamingService, projectionService);
+        }
+
+        // Tests for ?fields= on /api/movies/all
+
+        @Test
+        public void logged_out_users_cannot_get_selected_fields() throws Exception {
+                mockMvc.perform(get("/api/movies/all?fields=name"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_all_movies_with_selected_fields() throws Exception {
+                // arrange
+
+                Map<String, Object> row1 = Map.of("id", 1L, "name", "Up");
+                Map<String, Object> row2 = Map.of("id", 2L, "name", "Jaws");
+
+                when(projectionService.findAll(eq(Movie.class), eq(List.of("name"))))
+                                .thenReturn(Arrays.asList(row1, row2));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/movies/all?fields=name"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(projectionService, times(1)).findAll(eq(Movie.class), eq(List.of("name")));
+                String expectedJson = mapper.writeValueAsString(Arrays.asList(row1, row2));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_a_page_of_movies_with_selected_fields() throws Exception {
+                // arrange
+
+                Map<String, Object> row1 = Map.of("id", 1L, "name", "Up");
+                Map<String, Object> row2 = Map.of("id", 2L, "name", "Jaws");
+                Map<String, Object> row3 = Map.of("id", 3L, "name", "Heat");
+
+                when(projectionService.findAfter(eq(Movie.class), eq(List.of("name")), eq(0L), eq(3)))
+                                .thenReturn(Arrays.asList(row1, row2, row3));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/movies/all?fields=name&limit=2"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(projectionService, times(1)).findAfter(eq(Movie.class), eq(List.of("name")), eq(0L), eq(3));
+                KeysetPage<Map<String, Object>, Long> expectedPage = KeysetPage.<Map<String, Object>, Long>builder()
+                                .content(Arrays.asList(row1, row2))
+                                .nextCursor(2L)
+                                .build();
+                String expectedJson = mapper.writeValueAsString(expectedPage);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void unknown_fields_are_a_bad_request() throws Exception {
+                // arrange
+
+                when(projectionService.findAll(eq(Movie.class), eq(List.of("nosuchfield"))))
+                                .thenThrow(new UnknownFieldsException(Movie.class, List.of("nosuchfield")));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/movies/all?fields=nosuchfield"))
+                                .andExpect(status().isBadRequest()).andReturn();
+
+                // assert
+
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("UnknownFieldsException", json.get("type"));
+                assertEquals("Movie has no field(s) nosuchfield", json.get("message"));
+        }
 }
@@ -5,6 +5,11 @@ import edu.ucsb.cs156.example.entities.Restaurant;
 import edu.ucsb.cs156.example.repositories.RestaurantRepository;
 import edu.ucsb.cs156.example.repositories.UserRepository;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
+import edu.ucsb.cs156.example.models.KeysetPage;
+import edu.ucsb.cs156.example.services.JsonStreamingService;
+import edu.ucsb.cs156.example.services.BulkSaveService;
+import edu.ucsb.cs156.example.services.ProjectionService;
+import edu.ucsb.cs156.example.errors.UnknownFieldsException;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
@@ -12,17 +17,26 @@ import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.mockito.ArgumentCaptor;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = RestaurantsController.class)
@@ -35,6 +49,15 @@ public class RestaurantsControllerTests extends ControllerTestCase {
     @MockBean
     UserRepository userRepository;
 
+    @MockBean
+    JsonStreamingService jsonStreamingService;
+
+    @MockBean
+    BulkSaveService bulkSaveService;
+
+    @MockBean
+    ProjectionService projectionService;
+
     // Authorization tests for /api/restaurants/admin/all
 
     @Test
@@ -186,14 +209,7 @@ public class RestaurantsControllerTests extends ControllerTestCase {
     public void admin_can_delete_a_restaurant() throws Exception {
         // arrange
 
-        var restaurant1 = Restaurant.builder()
-                .name("a restaurant")
-                .address("1234 State St")
-                .description("a description")
-                .build();
-
-
-        when(restaurantRepository.findById(eq(15L))).thenReturn(Optional.of(restaurant1));
+        when(restaurantRepository.removeById(eq(15L))).thenReturn(1);
 
         // act
         MvcResult response = mockMvc.perform(
@@ -202,8 +218,8 @@ public class RestaurantsControllerTests extends ControllerTestCase {
                 .andExpect(status().isOk()).andReturn();
 
         // assert
-        verify(restaurantRepository, times(1)).findById(15L);
-        verify(restaurantRepository, times(1)).delete(any());
+        verify(restaurantRepository, times(1)).removeById(15L);
+        verify(restaurantRepository, times(0)).findById(any());
 
         Map<String, Object> json = responseToJson(response);
         assertEquals("Restaurant with id 15 deleted", json.get("message"));
@@ -215,7 +231,7 @@ public class RestaurantsControllerTests extends ControllerTestCase {
             throws Exception {
         // arrange
 
-        when(restaurantRepository.findById(eq(15L))).thenReturn(Optional.empty());
+        when(restaurantRepository.removeById(eq(15L))).thenReturn(0);
 
         // act
         MvcResult response = mockMvc.perform(
@@ -224,7 +240,7 @@ public class RestaurantsControllerTests extends ControllerTestCase {
                 .andExpect(status().isNotFound()).andReturn();
 
         // assert
-        verify(restaurantRepository, times(1)).findById(15L);
+        verify(restaurantRepository, times(1)).removeById(15L);
         Map<String, Object> json = responseToJson(response);
         assertEquals("Restaurant with id 15 not found", json.get("message"));
     }
@@ -261,7 +277,7 @@ public class RestaurantsControllerTests extends ControllerTestCase {
 
         // assert
         verify(restaurantRepository, times(1)).findById(67L);
-        verify(restaurantRepository, times(1)).save(restaurantEdited); // should be saved with correct user
+        verify(restaurantRepository, times(1)).updateById(67L, "another restaurant", "5678 State St", "another description");
         String responseString = response.getResponse().getContentAsString();
         assertEquals(requestBody, responseString);
     }
@@ -295,4 +311,466 @@ public class RestaurantsControllerTests extends ControllerTestCase {
         Map<String, Object> json = responseToJson(response);
         assertEquals("Restaurant with id 67 not found", json.get("message"));
     }
+
+    @WithMockUser(roles = { "ADMIN", "USER" })
+    @Test
+    public void admin_edit_of_restaurant_is_one_conditional_update_without_a_save() throws Exception {
+        // arrange
+
+        Restaurant restaurantEdited = Restaurant.builder()
+                .name("Naan Stop")
+                .address("6545 Pardall Rd, Isla Vista, CA 93117")
+                .description("indian food")
+                .build();
+
+        String requestBody = mapper.writeValueAsString(restaurantEdited);
+
+        when(restaurantRepository.updateById(eq(67L), eq("Naan Stop"), eq("6545 Pardall Rd, Isla Vista, CA 93117"), eq("indian food"))).thenReturn(1);
+        when(restaurantRepository.findById(eq(67L))).thenReturn(Optional.of(Restaurant.builder().id(67L).build()));
+
+        // act
+        MvcResult response = mockMvc.perform(
+                put("/api/restaurants?id=67")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .characterEncoding("utf-8")
+                        .content(requestBody)
+                        .with(csrf()))
+                .andExpect(status().isOk()).andReturn();
+
+        // assert
+        verify(restaurantRepository, times(1)).updateById(eq(67L), eq("Naan Stop"), eq("6545 Pardall Rd, Isla Vista, CA 93117"), eq("indian food"));
+        verify(restaurantRepository, times(1)).findById(67L);
+        verify(restaurantRepository, times(0)).save(any());
+        restaurantEdited.setId(67L);
+        String expectedJson = mapper.writeValueAsString(restaurantEdited);
+        String responseString = response.getResponse().getContentAsString();
+        assertEquals(expectedJson, responseString);
+    }
+
+    @WithMockUser(roles = { "ADMIN", "USER" })
+    @Test
+    public void admin_edit_of_restaurant_with_unchanged_values_succeeds_without_writing() throws Exception {
+        // arrange
+
+        Restaurant restaurantEdited = Restaurant.builder()
+                .name("Naan Stop")
+                .address("6545 Pardall Rd, Isla Vista, CA 93117")
+                .description("indian food")
+                .build();
+
+        String requestBody = mapper.writeValueAsString(restaurantEdited);
+
+        // no row matched because the stored values are already the same
+        when(restaurantRepository.updateById(eq(67L), eq("Naan Stop"), eq("6545 Pardall Rd, Isla Vista, CA 93117"), eq("indian food"))).thenReturn(0);
+        Restaurant restaurantStored = mapper.readValue(requestBody, Restaurant.class);
+        restaurantStored.setId(67L);
+        when(restaurantRepository.findById(eq(67L))).thenReturn(Optional.of(restaurantStored));
+
+        // act
+        MvcResult response = mockMvc.perform(
+                put("/api/restaurants?id=67")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .characterEncoding("utf-8")
+                        .content(requestBody)
+                        .with(csrf()))
+                .andExpect(status().isOk()).andReturn();
+
+        // assert
+        verify(restaurantRepository, times(1)).findById(67L);
+        verify(restaurantRepository, times(0)).save(any());
+        restaurantEdited.setId(67L);
+        String expectedJson = mapper.writeValueAsString(restaurantEdited);
+        String responseString = response.getResponse().getContentAsString();
+        assertEquals(expectedJson, responseString);
+    }
+
+    @WithMockUser(roles = { "ADMIN", "USER" })
+    @Test
+    public void admin_edit_of_missing_restaurant_writes_nothing() throws Exception {
+        // arrange
+
+        Restaurant restaurantEdited = Restaurant.builder()
+                .name("Naan Stop")
+                .address("6545 Pardall Rd, Isla Vista, CA 93117")
+                .description("indian food")
+                .build();
+
+        String requestBody = mapper.writeValueAsString(restaurantEdited);
+
+        when(restaurantRepository.findById(eq(67L))).thenReturn(Optional.empty());
+
+        // act
+        MvcResult response = mockMvc.perform(
+                put("/api/restaurants?id=67")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .characterEncoding("utf-8")
+                        .content(requestBody)
+                        .with(csrf()))
+                .andExpect(status().isNotFound()).andReturn();
+
+        // assert
+        verify(restaurantRepository, times(1)).findById(67L);
+        verify(restaurantRepository, times(0)).updateById(eq(67L), eq("Naan Stop"), eq("6545 Pardall Rd, Isla Vista, CA 93117"), eq("indian food"));
+        Map<String, Object> json = responseToJson(response);
+        assertEquals("Restaurant with id 67 not found", json.get("message"));
+    }
+
+    // Tests for keyset pagination of /api/restaurants/all
+
+    @Test
+    public void logged_out_users_cannot_get_a_page() throws Exception {
+        mockMvc.perform(get("/api/restaurants/all?limit=2"))
+                .andExpect(status().is(403));
+    }
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void logged_in_user_can_get_first_page_of_restaurants() throws Exception {
+        // arrange
+
+        Restaurant restaurant1 = Restaurant.builder()
+                .id(1L)
+                .name("Freebirds")
+                .address("879 Embarcadero del Norte, Isla Vista, CA 93117")
+                .description("burritos")
+                .build();
+
+        Restaurant restaurant2 = Restaurant.builder()
+                .id(2L)
+                .name("Naan Stop")
+                .address("6545 Pardall Rd, Isla Vista, CA 93117")
+                .description("indian food")
+                .build();
+
+        Restaurant restaurant3 = Restaurant.builder()
+                .id(3L)
+                .name("Woodstocks")
+                .address("928 Embarcadero del Norte, Isla Vista, CA 93117")
+                .description("pizza")
+                .build();
+
+        when(restaurantRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), eq(PageRequest.of(0, 3))))
+                .thenReturn(Arrays.asList(restaurant1, restaurant2, restaurant3));
+
+        // act
+        MvcResult response = mockMvc.perform(get("/api/restaurants/all?limit=2"))
+                .andExpect(status().isOk()).andReturn();
+
+        // assert
+
+        verify(restaurantRepository, times(1)).findByIdGreaterThanOrderByIdAsc(eq(0L), eq(PageRequest.of(0, 3)));
+        KeysetPage<Restaurant, Long> expectedPage = KeysetPage.<Restaurant, Long>builder()
+                .content(Arrays.asList(restaurant1, restaurant2))
+                .nextCursor(2L)
+                .build();
+        String expectedJson = mapper.writeValueAsString(expectedPage);
+        String responseString = response.getResponse().getContentAsString();
+        assertEquals(expectedJson, responseString);
+    }
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void logged_in_user_gets_no_cursor_on_last_page_of_restaurants() throws Exception {
+        // arrange
+
+        Restaurant restaurant3 = Restaurant.builder()
+                .id(3L)
+                .name("Woodstocks")
+                .address("928 Embarcadero del Norte, Isla Vista, CA 93117")
+                .description("pizza")
+                .build();
+
+        when(restaurantRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), eq(PageRequest.of(0, 3))))
+                .thenReturn(Arrays.asList(restaurant3));
+
+        // act
+        MvcResult response = mockMvc.perform(get("/api/restaurants/all?limit=2&after=2"))
+                .andExpect(status().isOk()).andReturn();
+
+        // assert
+
+        verify(restaurantRepository, times(1)).findByIdGreaterThanOrderByIdAsc(eq(2L), eq(PageRequest.of(0, 3)));
+        KeysetPage<Restaurant, Long> expectedPage = KeysetPage.<Restaurant, Long>builder()
+                .content(Arrays.asList(restaurant3))
+                .build();
+        String expectedJson = mapper.writeValueAsString(expectedPage);
+        String responseString = response.getResponse().getContentAsString();
+        assertEquals(expectedJson, responseString);
+    }
+
+    // Tests for GET /api/restaurants/all?stream=true
+
+    @Test
+    public void logged_out_users_cannot_stream_all() throws Exception {
+        mockMvc.perform(get("/api/restaurants/all?stream=true"))
+                .andExpect(status().is(403));
+    }
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void logged_in_user_can_stream_all_restaurants() throws Exception {
+
+        // arrange
+
+        Restaurant restaurant1 = Restaurant.builder()
+                .id(1L)
+                .name("Freebirds")
+                .address("879 Embarcadero del Norte, Isla Vista, CA 93117")
+                .description("burritos")
+                .build();
+
+        Restaurant restaurant2 = Restaurant.builder()
+                .id(2L)
+                .name("Naan Stop")
+                .address("6545 Pardall Rd, Isla Vista, CA 93117")
+                .description("indian food")
+                .build();
+
+        when(restaurantRepository.streamAll()).thenReturn(Stream.of(restaurant1, restaurant2));
+        when(jsonStreamingService.streamJsonArray(any())).thenAnswer(invocation -> {
+            Supplier<Stream<Restaurant>> rows = invocation.getArgument(0);
+            byte[] json = mapper.writeValueAsBytes(rows.get().collect(Collectors.toList()));
+            return (StreamingResponseBody) outputStream -> outputStream.write(json);
+        });
+
+        // act
+        MvcResult response = mockMvc.perform(get("/api/restaurants/all?stream=true"))
+                .andExpect(request().asyncStarted())
+                .andDo(MvcResult::getAsyncResult)
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andReturn();
+
+        // assert
+
+        verify(restaurantRepository, times(1)).streamAll();
+        verify(restaurantRepository, times(0)).findAll();
+        String expectedJson = mapper.writeValueAsString(Arrays.asList(restaurant1, restaurant2));
+        String responseString = response.getResponse().getContentAsString();
+        assertEquals(expectedJson, responseString);
+    }
+
+    // Tests for POST /api/restaurants/bulk
+
+    @Test
+    public void logged_out_users_cannot_post_bulk() throws Exception {
+        mockMvc.perform(post("/api/restaurants/bulk"))
+                .andExpect(status().is(403));
+    }
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void logged_in_regular_users_cannot_post_bulk() throws Exception {
+        mockMvc.perform(post("/api/restaurants/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]")
+                .with(csrf()))
+                .andExpect(status().is(403));
+    }
+
+    @WithMockUser(roles = { "ADMIN", "USER" })
+    @Test
+    public void an_admin_user_can_post_many_restaurants_in_bulk_and_supplied_ids_are_ignored() throws Exception {
+        // arrange
+
+        Restaurant restaurant1 = Restaurant.builder()
+                .id(17L)
+                .name("Freebirds")
+                .address("879 Embarcadero del Norte, Isla Vista, CA 93117")
+                .description("burritos")
+                .build();
+
+        Restaurant restaurant2 = Restaurant.builder()
+                .id(18L)
+                .name("Naan Stop")
+                .address("6545 Pardall Rd, Isla Vista, CA 93117")
+                .description("indian food")
+                .build();
+
+        String requestBody = mapper.writeValueAsString(Arrays.asList(restaurant1, restaurant2));
+
+        // what the database would hand back after assigning new ids
+        restaurant1.setId(1L);
+        restaurant2.setId(2L);
+        when(bulkSaveService.saveInChunks(eq(restaurantRepository), any())).thenReturn(Arrays.asList(restaurant1, restaurant2));
+
+        // act
+        MvcResult response = mockMvc.perform(
+                post("/api/restaurants/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .characterEncoding("utf-8")
+                        .content(requestBody)
+                        .with(csrf()))
+                .andExpect(status().isOk()).andReturn();
+
+        // assert
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Restaurant>> rows = ArgumentCaptor.forClass(List.class);
+        verify(bulkSaveService, times(1)).saveInChunks(eq(restaurantRepository), rows.capture());
+        assertEquals(2, rows.getValue().size());
+        assertEquals(0L, rows.getValue().get(0).getId());
+        assertEquals(0L, rows.getValue().get(1).getId());
+        assertEquals("[1,2]", response.getResponse().getContentAsString());
+    }
+
+    // Tests for DELETE /api/restaurants/bulk
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void logged_in_regular_users_cannot_delete_bulk() throws Exception {
+        mockMvc.perform(delete("/api/restaurants/bulk?ids=7").with(csrf()))
+                .andExpect(status().is(403));
+    }
+
+    @WithMockUser(roles = { "ADMIN", "USER" })
+    @Test
+    public void admin_can_delete_many_restaurants_and_is_told_which_were_missing() throws Exception {
+        // arrange
+
+        when(restaurantRepository.findIdsByIdIn(eq(Arrays.asList(1L, 2L, 7L)))).thenReturn(Arrays.asList(1L, 2L));
+        when(restaurantRepository.removeAllByIdIn(eq(Arrays.asList(1L, 2L)))).thenReturn(2);
+
+        // act
+        MvcResult response = mockMvc.perform(
+                delete("/api/restaurants/bulk?ids=1,2,7")
+                        .with(csrf()))
+                .andExpect(status().isOk()).andReturn();
+
+        // assert
+        verify(restaurantRepository, times(1)).removeAllByIdIn(Arrays.asList(1L, 2L));
+        Map<String, Object> json = responseToJson(response);
+        assertEquals("2 restaurants deleted", json.get("message"));
+        assertEquals(Arrays.asList(7), json.get("missing"));
+    }
+
+    @WithMockUser(roles = { "ADMIN", "USER" })
+    @Test
+    public void admin_bulk_delete_of_only_missing_restaurants_deletes_nothing() throws Exception {
+        // arrange
+
+        when(restaurantRepository.findIdsByIdIn(eq(Arrays.asList(7L)))).thenReturn(new ArrayList<>());
+
+        // act
+        MvcResult response = mockMvc.perform(
+                delete("/api/restaurants/bulk?ids=7")
+                        .with(csrf()))
+                .andExpect(status().isOk()).andReturn();
+
+        // assert
+        verify(restaurantRepository, times(0)).removeAllByIdIn(any());
+        Map<String, Object> json = responseToJson(response);
+        assertEquals("0 restaurants deleted", json.get("message"));
+        assertEquals(Arrays.asList(7), json.get("missing"));
+    }
+
+    @WithMockUser(roles = { "ADMIN", "USER" })
+    @Test
+    public void admin_bulk_delete_of_no_restaurants_does_not_query() throws Exception {
+        // act
+        MvcResult response = mockMvc.perform(
+                delete("/api/restaurants/bulk?ids=")
+                        .with(csrf()))
+                .andExpect(status().isOk()).andReturn();
+
+        // assert
+        verify(restaurantRepository, times(0)).findIdsByIdIn(any());
+        verify(restaurantRepository, times(0)).removeAllByIdIn(any());
+        Map<String, Object> json = responseToJson(response);
+        assertEquals("0 restaurants deleted", json.get("message"));
+        assertEquals(new ArrayList<>(), json.get("missing"));
+    }
+
+    // stream=true cannot be combined with limit or fields
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void asking_for_a_stream_of_a_page_or_of_selected_fields_is_a_bad_request() throws Exception {
+        mockMvc.perform(get("/api/restaurants/all?stream=true&limit=2"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/restaurants/all?stream=true&fields=id"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/restaurants/all?stream=true&fields=id&limit=2"))
+                .andExpect(status().isBadRequest());
+
+        verify(restaurantRepository, times(0)).findAll();
+        verifyNoInteractions(jsonStreamingService, projectionService);
+    }
+
+    // Tests for ?fields= on /api/restaurants/all
+
+    @Test
+    public void logged_out_users_cannot_get_selected_fields() throws Exception {
+        mockMvc.perform(get("/api/restaurants/all?fields=name"))
+                .andExpect(status().is(403));
+    }
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void logged_in_user_can_get_all_restaurants_with_selected_fields() throws Exception {
+        // arrange
+
+        Map<String, Object> row1 = Map.of("id", 1L, "name", "Freebirds");
+        Map<String, Object> row2 = Map.of("id", 2L, "name", "Naan Stop");
+
+        when(projectionService.findAll(eq(Restaurant.class), eq(List.of("name"))))
+                .thenReturn(Arrays.asList(row1, row2));
+
+        // act
+        MvcResult response = mockMvc.perform(get("/api/restaurants/all?fields=name"))
+                .andExpect(status().isOk()).andReturn();
+
+        // assert
+
+        verify(projectionService, times(1)).findAll(eq(Restaurant.class), eq(List.of("name")));
+        String expectedJson = mapper.writeValueAsString(Arrays.asList(row1, row2));
+        String responseString = response.getResponse().getContentAsString();
+        assertEquals(expectedJson, responseString);
+    }
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void logged_in_user_can_get_a_page_of_restaurants_with_selected_fields() throws Exception {
+        // arrange
+
+        Map<String, Object> row1 = Map.of("id", 1L, "name", "Freebirds");
+        Map<String, Object> row2 = Map.of("id", 2L, "name", "Naan Stop");
+        Map<String, Object> row3 = Map.of("id", 3L, "name", "Woodstocks");
+
+        when(projectionService.findAfter(eq(Restaurant.class), eq(List.of("name")), eq(0L), eq(3)))
+                .thenReturn(Arrays.asList(row1, row2, row3));
+
+        // act
+        MvcResult response = mockMvc.perform(get("/api/restaurants/all?fields=name&limit=2"))
+                .andExpect(status().isOk()).andReturn();
+
+        // assert
+
+        verify(projectionService, times(1)).findAfter(eq(Restaurant.class), eq(List.of("name")), eq(0L), eq(3));
+        KeysetPage<Map<String, Object>, Long> expectedPage = KeysetPage.<Map<String, Object>, Long>builder()
+                .content(Arrays.asList(row1, row2))
+                .nextCursor(2L)
+                .build();
+        String expectedJson = mapper.writeValueAsString(expectedPage);
+        String responseString = response.getResponse().getContentAsString();
+        assertEquals(expectedJson, responseString);
+    }
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void unknown_fields_are_a_bad_request() throws Exception {
+        // arrange
+
+        when(projectionService.findAll(eq(Restaurant.class), eq(List.of("nosuchfield"))))
+                .thenThrow(new UnknownFieldsException(Restaurant.class, List.of("nosuchfield")));
+
+        // act
+        MvcResult response = mockMvc.perform(get("/api/restaurants/all?fields=nosuchfield"))
+                .andExpect(status().isBadRequest()).andReturn();
+
+        // assert
+
+        Map<String, Object> json = responseToJson(response);
+        assertEquals("UnknownFieldsException", json.get("type"));
+        assertEquals("Restaurant has no field(s) nosuchfield", json.get("message"));
+    }
 }
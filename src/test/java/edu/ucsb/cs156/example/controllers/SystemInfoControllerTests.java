@@ -1,8 +1,14 @@
 package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.models.CacheStatistics;
+import edu.ucsb.cs156.example.models.EndpointStatistics;
+import edu.ucsb.cs156.example.models.HibernateStatistics;
 import edu.ucsb.cs156.example.models.SystemInfo;
 import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.CacheStatsService;
+import edu.ucsb.cs156.example.services.EndpointMetricsService;
+import edu.ucsb.cs156.example.services.HibernateStatisticsService;
 import edu.ucsb.cs156.example.services.SystemInfoService;
 
 import org.junit.jupiter.api.Test;
@@ -16,6 +22,8 @@ import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import java.util.List;
+
 @WebMvcTest(controllers = SystemInfoController.class)
 public class SystemInfoControllerTests extends ControllerTestCase {
 
@@ -25,6 +33,15 @@ public class SystemInfoControllerTests extends ControllerTestCase {
   @MockBean
   SystemInfoService mockSystemInfoService;
 
+  @MockBean
+  CacheStatsService mockCacheStatsService;
+
+  @MockBean
+  HibernateStatisticsService mockHibernateStatisticsService;
+
+  @MockBean
+  EndpointMetricsService mockEndpointMetricsService;
+
   @Test
   public void systemInfo__logged_out() throws Exception {
     mockMvc.perform(get("/api/systemInfo"))
@@ -61,4 +78,123 @@ public class SystemInfoControllerTests extends ControllerTestCase {
     String responseString = response.getResponse().getContentAsString();
     assertEquals(expectedJson, responseString);
   }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void cacheStatistics__user_logged_in() throws Exception {
+    mockMvc.perform(get("/api/systemInfo/caches"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void cacheStatistics__admin_logged_in() throws Exception {
+
+    // arrange
+
+    List<CacheStatistics> statistics = List.of(CacheStatistics
+        .builder()
+        .name("currentUser")
+        .size(1L)
+        .hitCount(3L)
+        .missCount(1L)
+        .hitRate(0.75)
+        .evictionCount(0L)
+        .build());
+    when(mockCacheStatsService.getCacheStatistics()).thenReturn(statistics);
+    String expectedJson = mapper.writeValueAsString(statistics);
+
+    // act
+    MvcResult response = mockMvc.perform(get("/api/systemInfo/caches"))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+    String responseString = response.getResponse().getContentAsString();
+    assertEquals(expectedJson, responseString);
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void hibernateStatistics__user_logged_in() throws Exception {
+    mockMvc.perform(get("/api/systemInfo/hibernate"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void hibernateStatistics__admin_logged_in() throws Exception {
+
+    // arrange
+
+    HibernateStatistics statistics = HibernateStatistics
+        .builder()
+        .statisticsEnabled(true)
+        .sessionOpenCount(4L)
+        .prepareStatementCount(2L)
+        .statementsPerSession(0.5)
+        .entityLoadCount(2L)
+        .secondLevelCacheHitCount(6L)
+        .secondLevelCacheMissCount(2L)
+        .secondLevelCachePutCount(2L)
+        .queryCacheHitCount(3L)
+        .queryCacheMissCount(1L)
+        .queryCachePutCount(1L)
+        .regions(List.of(CacheStatistics
+            .builder()
+            .name("edu.ucsb.cs156.example.entities.UCSBDate")
+            .size(2L)
+            .hitCount(6L)
+            .missCount(2L)
+            .hitRate(0.75)
+            .build()))
+        .build();
+    when(mockHibernateStatisticsService.getHibernateStatistics()).thenReturn(statistics);
+    String expectedJson = mapper.writeValueAsString(statistics);
+
+    // act
+    MvcResult response = mockMvc.perform(get("/api/systemInfo/hibernate"))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+    String responseString = response.getResponse().getContentAsString();
+    assertEquals(expectedJson, responseString);
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void endpointStatistics__user_logged_in() throws Exception {
+    mockMvc.perform(get("/api/systemInfo/endpoints"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void endpointStatistics__admin_logged_in() throws Exception {
+
+    // arrange
+
+    List<EndpointStatistics> statistics = List.of(EndpointStatistics
+        .builder()
+        .controller("HotelsController")
+        .method("getById")
+        .count(10L)
+        .errorCount(1L)
+        .requestsPerSecond(2.5)
+        .meanMillis(3.0)
+        .maxMillis(12.0)
+        .p50Millis(2.0)
+        .p95Millis(10.0)
+        .p99Millis(12.0)
+        .build());
+    when(mockEndpointMetricsService.getEndpointStatistics()).thenReturn(statistics);
+    String expectedJson = mapper.writeValueAsString(statistics);
+
+    // act
+    MvcResult response = mockMvc.perform(get("/api/systemInfo/endpoints"))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+    String responseString = response.getResponse().getContentAsString();
+    assertEquals(expectedJson, responseString);
+  }
 }
@@ -2,17 +2,24 @@ package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.ControllerTestCase;
 import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.models.KeysetPage;
 import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.JsonStreamingService;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -21,6 +28,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @WebMvcTest(controllers = UsersController.class)
 @Import(TestConfig.class)
@@ -29,6 +39,9 @@ public class UsersControllerTests extends ControllerTestCase {
   @MockBean
   UserRepository userRepository;
 
+  @MockBean
+  JsonStreamingService jsonStreamingService;
+
   @Test
   public void users__logged_out() throws Exception {
     mockMvc.perform(get("/api/admin/users"))
@@ -55,8 +68,8 @@ public class UsersControllerTests extends ControllerTestCase {
     ArrayList<User> expectedUsers = new ArrayList<>();
     expectedUsers.addAll(Arrays.asList(u1, u2, u));
 
-    when(userRepository.findAll()).thenReturn(expectedUsers);
-    String expectedJson = mapper.writeValueAsString(expectedUsers);
+    when(userRepository.findByIdGreaterThanOrderById(eq(0L), eq(PageRequest.of(0, 101)))).thenReturn(expectedUsers);
+    String expectedJson = mapper.writeValueAsString(KeysetPage.<User, Long>builder().content(expectedUsers).build());
     
     // act
 
@@ -65,9 +78,223 @@ public class UsersControllerTests extends ControllerTestCase {
 
     // assert
 
-    verify(userRepository, times(1)).findAll();
+    verify(userRepository, times(1)).findByIdGreaterThanOrderById(eq(0L), eq(PageRequest.of(0, 101)));
+    verify(userRepository, times(0)).findAll();
     String responseString = response.getResponse().getContentAsString();
     assertEquals(expectedJson, responseString);
 
   }
+
+  // Tests for GET /api/admin/users?limit=...&search=...
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void users_page__user_logged_in() throws Exception {
+    mockMvc.perform(get("/api/admin/users?limit=2"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void users_page__admin_logged_in_gets_first_page() throws Exception {
+
+    // arrange
+
+    User u1 = User.builder().id(1L).email("cgaucho@ucsb.edu").build();
+    User u2 = User.builder().id(2L).email("ldelplaya@ucsb.edu").build();
+    User u3 = User.builder().id(3L).email("phtcon@ucsb.edu").build();
+
+    when(userRepository.findByIdGreaterThanOrderById(eq(0L), eq(PageRequest.of(0, 3))))
+        .thenReturn(Arrays.asList(u1, u2, u3));
+
+    // act
+
+    MvcResult response = mockMvc.perform(get("/api/admin/users?limit=2"))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+
+    verify(userRepository, times(1)).findByIdGreaterThanOrderById(eq(0L), eq(PageRequest.of(0, 3)));
+    verify(userRepository, times(0)).findMatchingAfter(any(), eq(0L), any());
+    KeysetPage<User, Long> expectedPage = KeysetPage.<User, Long>builder()
+        .content(Arrays.asList(u1, u2))
+        .nextCursor(2L)
+        .build();
+    assertEquals(mapper.writeValueAsString(expectedPage), response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void users_page__admin_logged_in_can_search() throws Exception {
+
+    // arrange
+
+    User u2 = User.builder().id(2L).email("ldelplaya@ucsb.edu").build();
+
+    when(userRepository.findMatchingAfter(eq("delplaya%"), eq(1L), eq(PageRequest.of(0, 11))))
+        .thenReturn(Arrays.asList(u2));
+
+    // act
+
+    MvcResult response = mockMvc.perform(get("/api/admin/users?limit=10&after=1&search=DelPlaya"))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+
+    KeysetPage<User, Long> expectedPage = KeysetPage.<User, Long>builder()
+        .content(Arrays.asList(u2))
+        .build();
+    assertEquals(mapper.writeValueAsString(expectedPage), response.getResponse().getContentAsString());
+  }
+
+  // Tests for GET /api/admin/users?stream=true
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void users_stream__user_logged_in() throws Exception {
+    mockMvc.perform(get("/api/admin/users?stream=true"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void users_stream__admin_logged_in() throws Exception {
+
+    // arrange
+
+    User u1 = User.builder().id(1L).email("cgaucho@ucsb.edu").build();
+    User u2 = User.builder().id(2L).email("cgaucho2@ucsb.edu").build();
+
+    when(userRepository.streamMatching(eq("gaucho%"))).thenReturn(Stream.of(u1, u2));
+    when(jsonStreamingService.streamJsonArray(any())).thenAnswer(invocation -> {
+      Supplier<Stream<User>> rows = invocation.getArgument(0);
+      byte[] json = mapper.writeValueAsBytes(rows.get().collect(Collectors.toList()));
+      return (StreamingResponseBody) outputStream -> outputStream.write(json);
+    });
+
+    // act
+
+    MvcResult response = mockMvc.perform(get("/api/admin/users?stream=true&search=gaucho"))
+        .andExpect(request().asyncStarted())
+        .andDo(MvcResult::getAsyncResult)
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+        .andReturn();
+
+    // assert
+
+    verify(userRepository, times(1)).streamMatching(eq("gaucho%"));
+    verify(userRepository, times(0)).findAll();
+    assertEquals(mapper.writeValueAsString(Arrays.asList(u1, u2)), response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void users_stream__admin_logged_in_without_search_gets_every_user() throws Exception {
+
+    // arrange
+
+    User u1 = User.builder().id(1L).build();
+    User u2 = User.builder().id(2L).build();
+
+    when(userRepository.streamAllByOrderById()).thenReturn(Stream.of(u1, u2));
+    when(jsonStreamingService.streamJsonArray(any())).thenAnswer(invocation -> {
+      Supplier<Stream<User>> rows = invocation.getArgument(0);
+      byte[] json = mapper.writeValueAsBytes(rows.get().collect(Collectors.toList()));
+      return (StreamingResponseBody) outputStream -> outputStream.write(json);
+    });
+
+    // act
+
+    MvcResult response = mockMvc.perform(get("/api/admin/users?stream=true&search="))
+        .andExpect(request().asyncStarted())
+        .andDo(MvcResult::getAsyncResult)
+        .andExpect(status().isOk())
+        .andReturn();
+
+    // assert
+
+    verify(userRepository, times(1)).streamAllByOrderById();
+    verify(userRepository, times(0)).streamMatching(any());
+    assertEquals(mapper.writeValueAsString(Arrays.asList(u1, u2)), response.getResponse().getContentAsString());
+  }
+
+  // Tests for GET /api/admin/users?search=... without limit or stream
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void users_search__user_logged_in() throws Exception {
+    mockMvc.perform(get("/api/admin/users?search=gaucho"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void users_search__admin_logged_in_gets_a_default_page_of_matching_users() throws Exception {
+
+    // arrange
+
+    User u1 = User.builder().id(1L).email("cgaucho@ucsb.edu").build();
+
+    when(userRepository.findMatchingAfter(eq("gaucho%"), eq(0L), eq(PageRequest.of(0, 101))))
+        .thenReturn(Arrays.asList(u1));
+
+    // act
+
+    MvcResult response = mockMvc.perform(get("/api/admin/users?search=Gaucho"))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+
+    verify(userRepository, times(0)).findAll();
+    verify(userRepository, times(0)).streamMatching(any());
+    KeysetPage<User, Long> expectedPage = KeysetPage.<User, Long>builder()
+        .content(Arrays.asList(u1))
+        .build();
+    assertEquals(mapper.writeValueAsString(expectedPage), response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void users_search__admin_with_a_blank_search_gets_the_unfiltered_page() throws Exception {
+
+    // arrange
+
+    User u1 = User.builder().id(1L).build();
+
+    when(userRepository.findByIdGreaterThanOrderById(eq(0L), eq(PageRequest.of(0, 101))))
+        .thenReturn(Arrays.asList(u1));
+
+    // act
+
+    MvcResult response = mockMvc.perform(get("/api/admin/users?search=%20"))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+
+    verify(userRepository, times(0)).findMatchingAfter(any(), eq(0L), any());
+    KeysetPage<User, Long> expectedPage = KeysetPage.<User, Long>builder()
+        .content(Arrays.asList(u1))
+        .build();
+    assertEquals(mapper.writeValueAsString(expectedPage), response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void users__admin_asking_for_both_a_page_and_a_stream_gets_a_bad_request() throws Exception {
+    mockMvc.perform(get("/api/admin/users?stream=true&limit=2"))
+        .andExpect(status().isBadRequest());
+
+    verify(userRepository, times(0)).findAll();
+    verify(userRepository, times(0)).streamMatching(any());
+    verify(userRepository, times(0)).streamAllByOrderById();
+    verify(userRepository, times(0)).findMatchingAfter(any(), eq(0L), any());
+    verify(userRepository, times(0)).findByIdGreaterThanOrderById(eq(0L), any());
+  }
+
+  @Test
+  public void likePattern_escapes_like_wildcards() {
+    assertEquals("chris gaucho%", UsersController.likePattern(" Chris Gaucho "));
+    assertEquals("100!%!_off!!%", UsersController.likePattern("100%_off!"));
+  }
 }
@@ -0,0 +1,196 @@
+package edu.ucsb.cs156.example.filters;
+
+import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.controllers.UCSBDatesController;
+import edu.ucsb.cs156.example.entities.UCSBDate;
+import edu.ucsb.cs156.example.repositories.UCSBDateRepository;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.BulkSaveService;
+import edu.ucsb.cs156.example.services.JsonStreamingService;
+import edu.ucsb.cs156.example.services.ProjectionService;
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@WebMvcTest(controllers = UCSBDatesController.class)
+@Import(TestConfig.class)
+public class ConditionalGetFilterTests extends ControllerTestCase {
+
+  @MockBean
+  UCSBDateRepository ucsbDateRepository;
+
+  @MockBean
+  UserRepository userRepository;
+
+  @MockBean
+  JsonStreamingService jsonStreamingService;
+
+  @MockBean
+  BulkSaveService bulkSaveService;
+
+  @MockBean
+  ProjectionService projectionService;
+
+  @Autowired
+  ConditionalGetFilter conditionalGetFilter;
+
+  private UCSBDate ucsbDate() {
+    return UCSBDate.builder()
+        .name("firstDayOfClasses")
+        .quarterYYYYQ("20222")
+        .localDateTime(LocalDateTime.parse("2022-03-28T00:00:00"))
+        .build();
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void repeat_get_with_matching_etag_is_not_modified() throws Exception {
+    // arrange
+    when(ucsbDateRepository.findAll()).thenReturn(List.of(ucsbDate()));
+    MvcResult first = mockMvc.perform(get("/api/ucsbdates/all"))
+        .andExpect(status().isOk())
+        .andExpect(header().string("Cache-Control", "private, no-cache"))
+        .andReturn();
+    String etag = first.getResponse().getHeader("ETag");
+    assertTrue(etag.startsWith("\""));
+
+    // act
+    MvcResult second = mockMvc.perform(get("/api/ucsbdates/all").header("If-None-Match", etag))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string("ETag", etag))
+        .andReturn();
+
+    // assert
+    assertEquals("", second.getResponse().getContentAsString());
+    verify(ucsbDateRepository, times(1)).findAll();
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void a_post_changes_the_etag() throws Exception {
+    // arrange
+    when(ucsbDateRepository.findAll()).thenReturn(List.of(ucsbDate()));
+    when(ucsbDateRepository.save(any())).thenReturn(ucsbDate());
+    String before = mockMvc.perform(get("/api/ucsbdates/all"))
+        .andReturn().getResponse().getHeader("ETag");
+
+    // act
+    mockMvc.perform(post("/api/ucsbdates/post?name=firstDayOfClasses&quarterYYYYQ=20222&localDateTime=2022-03-28T00:00:00")
+        .with(csrf()))
+        .andExpect(status().isOk());
+    MvcResult after = mockMvc.perform(get("/api/ucsbdates/all").header("If-None-Match", before))
+        .andExpect(status().isOk())
+        .andReturn();
+
+    // assert
+    assertNotEquals(before, after.getResponse().getHeader("ETag"));
+    verify(ucsbDateRepository, times(2)).findAll();
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void a_rejected_post_leaves_the_etag_alone() throws Exception {
+    // arrange
+    when(ucsbDateRepository.findAll()).thenReturn(List.of(ucsbDate()));
+    String before = mockMvc.perform(get("/api/ucsbdates/all"))
+        .andReturn().getResponse().getHeader("ETag");
+
+    // act
+    mockMvc.perform(post("/api/ucsbdates/post?name=firstDayOfClasses&quarterYYYYQ=20222&localDateTime=2022-03-28T00:00:00")
+        .with(csrf()))
+        .andExpect(status().is(403));
+    mockMvc.perform(get("/api/ucsbdates/all").header("If-None-Match", before))
+        .andExpect(status().isNotModified());
+
+    // assert
+    verify(ucsbDateRepository, never()).save(any());
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void a_failed_delete_leaves_the_etag_alone() throws Exception {
+    // arrange
+    when(ucsbDateRepository.findAll()).thenReturn(List.of(ucsbDate()));
+    String before = mockMvc.perform(get("/api/ucsbdates/all"))
+        .andReturn().getResponse().getHeader("ETag");
+
+    // act
+    mockMvc.perform(delete("/api/ucsbdates?id=7").with(csrf()))
+        .andExpect(status().isNotFound());
+
+    // assert
+    mockMvc.perform(get("/api/ucsbdates/all").header("If-None-Match", before))
+        .andExpect(status().isNotModified());
+  }
+
+  @Test
+  public void an_anonymous_post_leaves_the_etag_alone() throws Exception {
+    long before = conditionalGetFilter.resourceVersionService.getVersion("ucsbdates");
+
+    mockMvc.perform(post("/api/ucsbdates/post?name=firstDayOfClasses&quarterYYYYQ=20222&localDateTime=2022-03-28T00:00:00")
+        .with(csrf()))
+        .andExpect(status().is(403));
+
+    assertEquals(before, conditionalGetFilter.resourceVersionService.getVersion("ucsbdates"));
+  }
+
+  @Test
+  public void logged_out_users_get_403_rather_than_304() throws Exception {
+    MvcResult response = mockMvc.perform(get("/api/ucsbdates/all").header("If-None-Match", "*"))
+        .andExpect(status().is(403))
+        .andReturn();
+
+    assertNull(response.getResponse().getHeader("ETag"));
+  }
+
+  @Test
+  public void collectionOf_only_matches_configured_collections() {
+    assertEquals("ucsbdates", conditionalGetFilter.collectionOf("/api/ucsbdates/all"));
+    assertEquals("ucsbdates", conditionalGetFilter.collectionOf("/api/ucsbdates"));
+    assertEquals("book", conditionalGetFilter.collectionOf("/api/book/all"));
+    assertNull(conditionalGetFilter.collectionOf("/api/currentUser"));
+    assertNull(conditionalGetFilter.collectionOf("/api/admin/users"));
+    assertNull(conditionalGetFilter.collectionOf("/index.html"));
+    assertNull(conditionalGetFilter.collectionOf(null));
+  }
+
+  @Test
+  public void matches_follows_if_none_match_rules() {
+    assertTrue(ConditionalGetFilter.matches("\"a-1\"", "\"a-1\""));
+    assertTrue(ConditionalGetFilter.matches("\"x\", W/\"a-1\"", "\"a-1\""));
+    assertTrue(ConditionalGetFilter.matches("*", "\"a-1\""));
+    assertFalse(ConditionalGetFilter.matches("\"a-2\"", "\"a-1\""));
+    assertFalse(ConditionalGetFilter.matches(null, "\"a-1\""));
+  }
+
+  @Test
+  public void representation_follows_the_accept_header() {
+    assertNull(ConditionalGetFilter.representation(null));
+    assertNull(ConditionalGetFilter.representation("application/json, text/plain, */*"));
+    assertEquals("cbor", ConditionalGetFilter.representation("application/cbor"));
+    assertEquals("smile", ConditionalGetFilter.representation("application/x-jackson-smile"));
+  }
+}
@@ -0,0 +1,241 @@
+package edu.ucsb.cs156.example.filters;
+
+import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.controllers.UCSBDatesController;
+import edu.ucsb.cs156.example.entities.UCSBDate;
+import edu.ucsb.cs156.example.repositories.UCSBDateRepository;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.BulkSaveService;
+import edu.ucsb.cs156.example.services.JsonStreamingService;
+import edu.ucsb.cs156.example.services.ProjectionService;
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+@WebMvcTest(controllers = UCSBDatesController.class)
+@TestPropertySource(properties = { "app.responseCache.collections=ucsbdates", "app.responseCache.minCompressedSize=100" })
+@Import(TestConfig.class)
+public class ResponseCacheFilterTests extends ControllerTestCase {
+
+  @MockBean
+  UCSBDateRepository ucsbDateRepository;
+
+  @MockBean
+  UserRepository userRepository;
+
+  @MockBean
+  JsonStreamingService jsonStreamingService;
+
+  @MockBean
+  BulkSaveService bulkSaveService;
+
+  @MockBean
+  ProjectionService projectionService;
+
+  @Autowired
+  ResponseCacheFilter responseCacheFilter;
+
+  @BeforeEach
+  public void clearCache() {
+    responseCacheFilter.invalidateAll();
+  }
+
+  private UCSBDate ucsbDate(String name) {
+    return UCSBDate.builder()
+        .name(name)
+        .quarterYYYYQ("20222")
+        .localDateTime(LocalDateTime.parse("2022-03-28T00:00:00"))
+        .build();
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void repeat_all_is_served_from_stored_bytes() throws Exception {
+    // arrange
+    when(ucsbDateRepository.findAll()).thenReturn(List.of(ucsbDate("firstDayOfClasses")));
+    String first = mockMvc.perform(get("/api/ucsbdates/all"))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsString();
+
+    // act
+    MvcResult second = mockMvc.perform(get("/api/ucsbdates/all"))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType("application/json"))
+        .andReturn();
+
+    // assert
+    assertEquals(first, second.getResponse().getContentAsString());
+    verify(ucsbDateRepository, times(1)).findAll();
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void a_post_invalidates_the_stored_bytes() throws Exception {
+    // arrange
+    when(ucsbDateRepository.findAll()).thenReturn(List.of(ucsbDate("firstDayOfClasses")));
+    when(ucsbDateRepository.save(any())).thenReturn(ucsbDate("lastDayOfClasses"));
+    mockMvc.perform(get("/api/ucsbdates/all")).andExpect(status().isOk());
+    mockMvc.perform(post("/api/ucsbdates/post?name=lastDayOfClasses&quarterYYYYQ=20222&localDateTime=2022-06-03T00:00:00")
+        .with(csrf()))
+        .andExpect(status().isOk());
+    when(ucsbDateRepository.findAll()).thenReturn(List.of(ucsbDate("firstDayOfClasses"), ucsbDate("lastDayOfClasses")));
+
+    // act
+    MvcResult response = mockMvc.perform(get("/api/ucsbdates/all"))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+    String expectedJson = mapper.writeValueAsString(List.of(ucsbDate("firstDayOfClasses"), ucsbDate("lastDayOfClasses")));
+    assertEquals(expectedJson, response.getResponse().getContentAsString());
+    verify(ucsbDateRepository, times(2)).findAll();
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void pages_are_not_cached() throws Exception {
+    // arrange
+    when(ucsbDateRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(PageRequest.class)))
+        .thenReturn(List.of(ucsbDate("firstDayOfClasses")));
+
+    // act
+    mockMvc.perform(get("/api/ucsbdates/all?limit=10")).andExpect(status().isOk());
+    mockMvc.perform(get("/api/ucsbdates/all?limit=10")).andExpect(status().isOk());
+
+    // assert
+    verify(ucsbDateRepository, times(2)).findByIdGreaterThanOrderByIdAsc(eq(0L), any(PageRequest.class));
+  }
+
+  @Test
+  public void logged_out_users_are_not_served_from_the_cache() throws Exception {
+    // arrange
+    when(ucsbDateRepository.findAll()).thenReturn(List.of(ucsbDate("firstDayOfClasses")));
+    mockMvc.perform(get("/api/ucsbdates/all").with(user("cgaucho").roles("USER")))
+        .andExpect(status().isOk());
+
+    // act and assert
+    mockMvc.perform(get("/api/ucsbdates/all"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void hits_send_the_stored_gzip_copy_to_clients_that_accept_it() throws Exception {
+    // arrange
+    when(ucsbDateRepository.findAll()).thenReturn(List.of(
+        ucsbDate("firstDayOfClasses"), ucsbDate("lastDayOfClasses"), ucsbDate("finalsWeek")));
+    MvcResult first = mockMvc.perform(get("/api/ucsbdates/all"))
+        .andExpect(status().isOk()).andReturn();
+
+    // act
+    MvcResult second = mockMvc.perform(get("/api/ucsbdates/all").header("Accept-Encoding", "gzip, deflate, br"))
+        .andExpect(status().isOk())
+        .andExpect(header().string("Content-Encoding", "gzip"))
+        .andReturn();
+
+    // assert
+    byte[] gzipped = second.getResponse().getContentAsByteArray();
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+      assertEquals(first.getResponse().getContentAsString(), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+    }
+    assertTrue(gzipped.length < first.getResponse().getContentAsByteArray().length);
+    assertEquals("W/" + first.getResponse().getHeader("ETag"), second.getResponse().getHeader("ETag"));
+    verify(ucsbDateRepository, times(1)).findAll();
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void the_request_that_stores_the_body_is_gzipped_too() throws Exception {
+    // arrange
+    when(ucsbDateRepository.findAll()).thenReturn(List.of(
+        ucsbDate("firstDayOfClasses"), ucsbDate("lastDayOfClasses"), ucsbDate("finalsWeek")));
+
+    // act
+    MvcResult response = mockMvc.perform(get("/api/ucsbdates/all").header("Accept-Encoding", "gzip"))
+        .andExpect(status().isOk())
+        .andExpect(header().string("Content-Encoding", "gzip"))
+        .andExpect(header().stringValues("Vary", hasItem("Accept-Encoding")))
+        .andReturn();
+
+    // assert
+    byte[] gzipped = response.getResponse().getContentAsByteArray();
+    assertEquals(gzipped.length, response.getResponse().getContentLength());
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+      assertEquals(mapper.writeValueAsString(List.of(
+          ucsbDate("firstDayOfClasses"), ucsbDate("lastDayOfClasses"), ucsbDate("finalsWeek"))),
+          new String(in.readAllBytes(), StandardCharsets.UTF_8));
+    }
+    assertTrue(response.getResponse().getHeader("ETag").startsWith("W/\""));
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void bodies_below_the_threshold_are_not_gzipped() throws Exception {
+    // arrange
+    when(ucsbDateRepository.findAll()).thenReturn(List.of());
+    mockMvc.perform(get("/api/ucsbdates/all")).andExpect(status().isOk());
+
+    // act and assert
+    MvcResult response = mockMvc.perform(get("/api/ucsbdates/all").header("Accept-Encoding", "gzip"))
+        .andExpect(status().isOk())
+        .andExpect(header().doesNotExist("Content-Encoding"))
+        .andReturn();
+    assertEquals("[]", response.getResponse().getContentAsString());
+  }
+
+  @Test
+  public void acceptsGzip_follows_accept_encoding() {
+    assertTrue(ResponseCacheFilter.acceptsGzip(requestAccepting("gzip")));
+    assertTrue(ResponseCacheFilter.acceptsGzip(requestAccepting("br;q=1.0, GZIP;q=0.5")));
+    assertFalse(ResponseCacheFilter.acceptsGzip(requestAccepting("gzip;q=0")));
+    assertFalse(ResponseCacheFilter.acceptsGzip(requestAccepting("identity")));
+    assertFalse(ResponseCacheFilter.acceptsGzip(new MockHttpServletRequest()));
+  }
+
+  @Test
+  public void collections_without_etags_are_rejected_at_startup() {
+    ResponseCacheFilter filter = new ResponseCacheFilter();
+    filter.collections = List.of("ucsbdates", "hotels");
+    filter.etagCollections = List.of("ucsbdates");
+
+    IllegalStateException e = assertThrows(IllegalStateException.class, filter::init);
+
+    assertTrue(e.getMessage().contains("[hotels]"));
+  }
+
+  private MockHttpServletRequest requestAccepting(String acceptEncoding) {
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.addHeader("Accept-Encoding", acceptEncoding);
+    return request;
+  }
+}
@@ -0,0 +1,114 @@
+package edu.ucsb.cs156.example.filters;
+
+import edu.ucsb.cs156.example.entities.UCSBDate;
+import edu.ucsb.cs156.example.load.FakeOAuthLoginConfig;
+import edu.ucsb.cs156.example.repositories.UCSBDateRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+// Runs against the real embedded Tomcat, to check that ResponseCacheFilter
+// is the only thing compressing: a large cached /all goes out gzipped, other
+// JSON of the same size does not.
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = {
+    "spring.datasource.url=jdbc:h2:mem:compression;DB_CLOSE_DELAY=-1",
+    "spring.h2.console.enabled=false",
+    "app.responseCache.collections=ucsbdates"
+})
+@Import(FakeOAuthLoginConfig.class)
+@ActiveProfiles("test")
+public class ServerCompressionTests {
+
+  @LocalServerPort
+  int port;
+
+  @Autowired
+  UCSBDateRepository ucsbDateRepository;
+
+  @Autowired
+  ObjectMapper mapper;
+
+  @BeforeEach
+  public void fiftyDates() {
+    responseCacheFilter.invalidateAll();
+    ucsbDateRepository.deleteAll();
+    ucsbDateRepository.saveAll(IntStream.range(0, 50)
+        .mapToObj(i -> UCSBDate.builder()
+            .name("date" + i)
+            .quarterYYYYQ("20222")
+            .localDateTime(LocalDateTime.parse("2022-03-28T00:00:00").plusDays(i))
+            .build())
+        .collect(Collectors.toList()));
+  }
+
+  @Autowired
+  ResponseCacheFilter responseCacheFilter;
+
+  private HttpResponse<byte[]> getAll(String acceptEncoding) throws Exception {
+    return get("/api/ucsbdates/all", acceptEncoding);
+  }
+
+  private HttpResponse<byte[]> get(String path, String acceptEncoding) throws Exception {
+    HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+        .header(FakeOAuthLoginConfig.USER_HEADER, "compression@ucsb.edu")
+        .header("Accept-Encoding", acceptEncoding)
+        .GET()
+        .build();
+    return HttpClient.newHttpClient().send(request, BodyHandlers.ofByteArray());
+  }
+
+  @Test
+  public void large_all_is_gzipped_with_a_weak_etag() throws Exception {
+    HttpResponse<byte[]> response = getAll("gzip");
+
+    assertEquals(200, response.statusCode());
+    assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElse(null));
+    assertTrue(response.headers().firstValue("ETag").orElse("").startsWith("W/"));
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+      assertEquals(50, mapper.readValue(in.readAllBytes(), List.class).size());
+    }
+  }
+
+  @Test
+  public void clients_that_do_not_accept_gzip_get_plain_json() throws Exception {
+    HttpResponse<byte[]> response = getAll("identity");
+
+    assertEquals(200, response.statusCode());
+    assertTrue(response.headers().firstValue("Content-Encoding").isEmpty());
+    assertTrue(response.headers().firstValue("ETag").orElse("").startsWith("\""));
+    assertEquals(50, mapper.readValue(response.body(), List.class).size());
+  }
+
+  @Test
+  public void other_json_is_not_compressed() throws Exception {
+    HttpResponse<byte[]> response = get("/api/ucsbdates/all?limit=50", "gzip");
+
+    assertEquals(200, response.statusCode());
+    assertTrue(response.body().length > 2048);
+    assertTrue(response.headers().firstValue("Content-Encoding").isEmpty());
+  }
+}
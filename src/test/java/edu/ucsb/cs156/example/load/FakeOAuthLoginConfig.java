@@ -0,0 +1,80 @@
+package edu.ucsb.cs156.example.load;
+
+import static org.springframework.security.web.context.HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.security.oauth2.core.user.OAuth2UserAuthority;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Stands in for the Google login during load tests. A request carrying the
+ * {@value #USER_HEADER} header gets an admin OAuth2AuthenticationToken for that
+ * email stored in its session, exactly where Spring Security keeps the result
+ * of a real OAuth2 login, so everything after the login (security filters,
+ * CurrentUserService, @PreAuthorize) runs as it does in production.
+ *
+ * This lives under src/test and is only imported by the load tests.
+ */
+
+@TestConfiguration
+public class FakeOAuthLoginConfig {
+
+  public static final String USER_HEADER = "X-Load-Test-User";
+
+  @Bean
+  public FilterRegistrationBean<OncePerRequestFilter> fakeOAuthLoginFilter() {
+    FilterRegistrationBean<OncePerRequestFilter> registration = new FilterRegistrationBean<>(new OncePerRequestFilter() {
+      @Override
+      protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+          throws ServletException, IOException {
+        String email = request.getHeader(USER_HEADER);
+        if (email != null) {
+          HttpSession session = request.getSession();
+          if (session.getAttribute(SPRING_SECURITY_CONTEXT_KEY) == null) {
+            session.setAttribute(SPRING_SECURITY_CONTEXT_KEY, new SecurityContextImpl(authenticationFor(email)));
+          }
+        }
+        chain.doFilter(request, response);
+      }
+    });
+    // must run before the Spring Security filter chain reads the session
+    registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+    return registration;
+  }
+
+  static OAuth2AuthenticationToken authenticationFor(String email) {
+    Map<String, Object> attributes = Map.of(
+        "sub", "load-test-" + email,
+        "email", email,
+        "name", "Load Test",
+        "given_name", "Load",
+        "family_name", "Test",
+        "email_verified", true,
+        "picture", "https://example.org/load-test.jpg",
+        "locale", "en",
+        "hd", "ucsb.edu");
+    List<GrantedAuthority> authorities = List.of(
+        new OAuth2UserAuthority(attributes),
+        new SimpleGrantedAuthority("ROLE_ADMIN"),
+        new SimpleGrantedAuthority("ROLE_MEMBER"));
+    return new OAuth2AuthenticationToken(new DefaultOAuth2User(authorities, attributes, "email"), authorities, "google");
+  }
+}
@@ -0,0 +1,298 @@
+package edu.ucsb.cs156.example.load;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.net.CookieManager;
+import java.net.HttpCookie;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Open-loop load test: boots the application on a random port, logs in
+ * through {@link FakeOAuthLoginConfig}, and sends a mix of reads and writes
+ * across all entity endpoints at a fixed rate, then reports throughput and
+ * latency percentiles per operation.
+ *
+ * Requests are issued on a fixed schedule whether or not earlier ones have
+ * finished, and latency is measured from the scheduled send time, so a
+ * server that falls behind shows up in the percentiles instead of silently
+ * lowering the request rate.
+ *
+ * Tagged "load" and excluded from the normal build; run it with
+ * mvn -P load test -Dload.rps=500 -Dload.durationSeconds=60
+ */
+
+@Slf4j
+@Tag("load")
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = {
+    "spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+    "spring.h2.console.enabled=false",
+    "logging.level.root=WARN",
+    "logging.level.sql=WARN",
+    "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+    "logging.level.edu.ucsb.cs156.example.load=INFO"
+})
+@Import(FakeOAuthLoginConfig.class)
+class LoadTest {
+
+  static final String LOAD_TEST_USER = "loadtest@ucsb.edu";
+
+  enum Operation {
+    GET_BY_ID("getById"), ALL("all"), POST("post"), UPDATE("update");
+
+    final String label;
+
+    Operation(String label) {
+      this.label = label;
+    }
+
+    static Operation fromLabel(String label) {
+      for (Operation operation : values()) {
+        if (operation.label.equals(label)) {
+          return operation;
+        }
+      }
+      throw new IllegalArgumentException("unknown operation in load.mix: " + label);
+    }
+  }
+
+  /** an entity endpoint and how to make its i-th distinct row, as request parameters */
+  record Endpoint(String path, String idName, IntFunction<Map<String, String>> sample) {
+  }
+
+  static final List<Endpoint> ENDPOINTS = List.of(
+      new Endpoint("/api/bikes", "id", i -> Map.of(
+          "manufacturer", "Trek", "model", "FX " + i, "numGears", Integer.toString(i % 30 + 1))),
+      new Endpoint("/api/book", "id", i -> Map.of(
+          "name", "Book " + i, "author", "Author " + i % 500, "genre", "Genre " + i % 20)),
+      new Endpoint("/api/cars", "id", i -> Map.of(
+          "model", "Model " + i, "horsepower", Integer.toString(100 + i % 400), "description", "Car number " + i)),
+      new Endpoint("/api/hotels", "id", i -> Map.of(
+          "name", "Hotel " + i, "address", i + " State St, Santa Barbara, CA 93101", "description", "Hotel number " + i)),
+      new Endpoint("/api/movies", "id", i -> Map.of(
+          "name", "Movie " + i, "synopsis", "Synopsis of movie number " + i, "castMembers", "Actor " + i % 300)),
+      new Endpoint("/api/restaurants", "id", i -> Map.of(
+          "name", "Restaurant " + i, "address", i + " Pardall Rd, Isla Vista, CA 93117", "description", "Restaurant number " + i)),
+      new Endpoint("/api/ucsbdates", "id", i -> Map.of(
+          "quarterYYYYQ", Integer.toString(20221 + i % 4), "name", "Date " + i,
+          "localDateTime", "2022-01-03T00:00:00")),
+      new Endpoint("/api/ucsbdiningcommons", "code", i -> Map.of(
+          "code", "load-" + i, "name", "Commons " + i,
+          "hasSackMeal", Boolean.toString(i % 2 == 0), "hasTakeOutMeal", "true", "hasDiningCam", "false",
+          "latitude", "34.409953", "longitude", "-119.85277")));
+
+  @LocalServerPort
+  int port;
+
+  @Value("${load.rps:200}")
+  int rps;
+
+  @Value("${load.durationSeconds:30}")
+  int durationSeconds;
+
+  @Value("${load.seedRows:50}")
+  int seedRows;
+
+  @Value("${load.mix:getById=60,all=10,post=15,update=15}")
+  String mix;
+
+  final ObjectMapper mapper = new ObjectMapper();
+  final CookieManager cookies = new CookieManager();
+  final HttpClient client = HttpClient.newBuilder()
+      .version(HttpClient.Version.HTTP_1_1)
+      .cookieHandler(cookies)
+      .connectTimeout(Duration.ofSeconds(10))
+      .build();
+  final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  final Map<Endpoint, List<String>> ids = new HashMap<>();
+  final AtomicInteger next = new AtomicInteger();
+  String csrfToken;
+
+  @Test
+  void api_sustains_target_request_rate() throws Exception {
+    login();
+    seed();
+    Map<Operation, Integer> weights = parseMix(mix);
+    int totalWeight = weights.values().stream().mapToInt(Integer::intValue).sum();
+    Map<Operation, Timer> timers = new LinkedHashMap<>();
+    Map<Operation, Counter> errors = new LinkedHashMap<>();
+    weights.keySet().forEach(operation -> {
+      timers.put(operation, Timer.builder("load.request")
+          .tag("operation", operation.label)
+          .publishPercentiles(0.5, 0.95, 0.99)
+          .distributionStatisticExpiry(Duration.ofSeconds(durationSeconds).multipliedBy(2))
+          .distributionStatisticBufferLength(1)
+          .register(registry));
+      errors.put(operation, registry.counter("load.errors", "operation", operation.label));
+    });
+
+    Random random = new Random(42);
+    List<CompletableFuture<Void>> pending = new ArrayList<>();
+    long interval = TimeUnit.SECONDS.toNanos(1) / rps;
+    long start = System.nanoTime();
+    long end = start + TimeUnit.SECONDS.toNanos(durationSeconds);
+    for (long n = 0; start + n * interval < end; n++) {
+      long scheduled = start + n * interval;
+      long wait = scheduled - System.nanoTime();
+      if (wait > 0) {
+        LockSupport.parkNanos(wait);
+      }
+      Operation operation = pick(weights, totalWeight, random);
+      HttpRequest request = request(operation, ENDPOINTS.get(random.nextInt(ENDPOINTS.size())), random);
+      pending.add(client.sendAsync(request, BodyHandlers.discarding())
+          .handle((response, error) -> {
+            timers.get(operation).record(System.nanoTime() - scheduled, TimeUnit.NANOSECONDS);
+            if (error != null || response.statusCode() != 200) {
+              errors.get(operation).increment();
+            }
+            return null;
+          }));
+    }
+    CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).join();
+    double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+    long errorCount = report(timers, errors, elapsedSeconds);
+    assertEquals(0L, errorCount, "requests failed under load; see the report above");
+  }
+
+  long report(Map<Operation, Timer> timers, Map<Operation, Counter> errors, double elapsedSeconds) {
+    StringBuilder report = new StringBuilder(String.format("%nload test: target %d req/s for %ds%n", rps, durationSeconds));
+    report.append(String.format("%-10s %8s %8s %10s %9s %9s %9s%n",
+        "operation", "count", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms"));
+    long totalCount = 0;
+    long totalErrors = 0;
+    for (Operation operation : timers.keySet()) {
+      Timer timer = timers.get(operation);
+      long errorCount = (long) errors.get(operation).count();
+      ValueAtPercentile[] percentiles = timer.takeSnapshot().percentileValues();
+      report.append(String.format("%-10s %8d %8d %10.1f %9.1f %9.1f %9.1f%n",
+          operation.label, timer.count(), errorCount, timer.count() / elapsedSeconds,
+          percentiles[0].value(TimeUnit.MILLISECONDS),
+          percentiles[1].value(TimeUnit.MILLISECONDS),
+          percentiles[2].value(TimeUnit.MILLISECONDS)));
+      totalCount += timer.count();
+      totalErrors += errorCount;
+    }
+    report.append(String.format("%-10s %8d %8d %10.1f%n", "total", totalCount, totalErrors, totalCount / elapsedSeconds));
+    log.info(report.toString());
+    return totalErrors;
+  }
+
+  static Map<Operation, Integer> parseMix(String mix) {
+    Map<Operation, Integer> weights = new LinkedHashMap<>();
+    for (String entry : mix.split(",")) {
+      String[] parts = entry.trim().split("=");
+      weights.put(Operation.fromLabel(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+    }
+    return weights;
+  }
+
+  static Operation pick(Map<Operation, Integer> weights, int totalWeight, Random random) {
+    int r = random.nextInt(totalWeight);
+    for (Map.Entry<Operation, Integer> weight : weights.entrySet()) {
+      r -= weight.getValue();
+      if (r < 0) {
+        return weight.getKey();
+      }
+    }
+    throw new IllegalStateException("weights do not add up to " + totalWeight);
+  }
+
+  /** first request creates the session with the fake login and sets the CSRF cookie */
+  void login() throws Exception {
+    HttpResponse<String> response = client.send(builder("/api/currentUser").GET().build(), BodyHandlers.ofString());
+    assertEquals(200, response.statusCode(), response.body());
+    csrfToken = cookies.getCookieStore().getCookies().stream()
+        .filter(cookie -> cookie.getName().equals("XSRF-TOKEN"))
+        .map(HttpCookie::getValue)
+        .findFirst()
+        .orElseThrow(() -> new IllegalStateException("no XSRF-TOKEN cookie after login"));
+  }
+
+  void seed() throws Exception {
+    for (Endpoint endpoint : ENDPOINTS) {
+      List<String> endpointIds = new ArrayList<>(seedRows);
+      for (int i = 0; i < seedRows; i++) {
+        HttpResponse<String> response = client.send(post(endpoint), BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), response.body());
+        endpointIds.add(mapper.readTree(response.body()).get(endpoint.idName()).asText());
+      }
+      ids.put(endpoint, endpointIds);
+    }
+  }
+
+  HttpRequest request(Operation operation, Endpoint endpoint, Random random) throws Exception {
+    List<String> endpointIds = ids.get(endpoint);
+    String id = endpointIds.get(random.nextInt(endpointIds.size()));
+    switch (operation) {
+      case GET_BY_ID:
+        return builder(endpoint.path() + "?" + query(Map.of(endpoint.idName(), id))).GET().build();
+      case ALL:
+        return builder(endpoint.path() + "/all").GET().build();
+      case POST:
+        return post(endpoint);
+      default:
+        return builder(endpoint.path() + "?" + query(Map.of(endpoint.idName(), id)))
+            .header("Content-Type", "application/json")
+            .PUT(BodyPublishers.ofString(mapper.writeValueAsString(endpoint.sample().apply(next.getAndIncrement()))))
+            .build();
+    }
+  }
+
+  HttpRequest post(Endpoint endpoint) {
+    return builder(endpoint.path() + "/post?" + query(endpoint.sample().apply(next.getAndIncrement())))
+        .POST(BodyPublishers.noBody())
+        .build();
+  }
+
+  HttpRequest.Builder builder(String pathAndQuery) {
+    HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + port + pathAndQuery))
+        .timeout(Duration.ofSeconds(30))
+        .header(FakeOAuthLoginConfig.USER_HEADER, LOAD_TEST_USER);
+    if (csrfToken != null) {
+      builder.header("X-XSRF-TOKEN", csrfToken);
+    }
+    return builder;
+  }
+
+  static String query(Map<String, String> params) {
+    return params.entrySet().stream()
+        .map(param -> param.getKey() + "=" + URLEncoder.encode(param.getValue(), StandardCharsets.UTF_8))
+        .collect(Collectors.joining("&"));
+  }
+}
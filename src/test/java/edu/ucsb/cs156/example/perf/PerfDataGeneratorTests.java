@@ -0,0 +1,91 @@
+package edu.ucsb.cs156.example.perf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mock.env.MockEnvironment;
+
+import edu.ucsb.cs156.example.entities.Book;
+import edu.ucsb.cs156.example.repositories.BookRepository;
+import edu.ucsb.cs156.example.repositories.CarRepository;
+import edu.ucsb.cs156.example.services.BulkSaveService;
+import edu.ucsb.cs156.example.services.ResourceVersionService;
+
+class PerfDataGeneratorTests {
+
+  private PerfDataGenerator generator(MockEnvironment environment) {
+    PerfDataGenerator perfDataGenerator = new PerfDataGenerator();
+    perfDataGenerator.bulkSaveService = mock(BulkSaveService.class);
+    perfDataGenerator.resourceVersionService = mock(ResourceVersionService.class);
+    perfDataGenerator.environment = environment;
+    perfDataGenerator.defaultRows = 10;
+    perfDataGenerator.chunkSize = 4;
+    return perfDataGenerator;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void test_fill_tops_table_up_to_target_one_chunk_at_a_time() {
+    // arrange
+    PerfDataGenerator perfDataGenerator = generator(new MockEnvironment().withProperty("app.perf.rows.book", "13"));
+    BookRepository bookRepository = mock(BookRepository.class);
+    when(bookRepository.count()).thenReturn(3L);
+    SyntheticData data = new SyntheticData(1);
+
+    // act
+    long generated = perfDataGenerator.fill("book", bookRepository, data::book);
+
+    // assert
+    assertEquals(10L, generated);
+    ArgumentCaptor<List<Book>> chunks = ArgumentCaptor.forClass(List.class);
+    verify(perfDataGenerator.bulkSaveService, times(3)).saveInChunks(eq(bookRepository), chunks.capture());
+    assertEquals(4, chunks.getAllValues().get(0).size());
+    assertEquals(4, chunks.getAllValues().get(1).size());
+    assertEquals(2, chunks.getAllValues().get(2).size());
+  }
+
+  @Test
+  void test_fill_skips_tables_that_are_already_full() {
+    // arrange
+    PerfDataGenerator perfDataGenerator = generator(new MockEnvironment());
+    BookRepository bookRepository = mock(BookRepository.class);
+    when(bookRepository.count()).thenReturn(10L);
+    SyntheticData data = new SyntheticData(1);
+
+    // act
+    long generated = perfDataGenerator.fill("book", bookRepository, data::book);
+
+    // assert
+    assertEquals(0L, generated);
+    verify(perfDataGenerator.bulkSaveService, never()).saveInChunks(any(), anyList());
+  }
+
+  @Test
+  void test_fill_bumps_the_collection_version_only_when_rows_were_added() {
+    // arrange
+    PerfDataGenerator perfDataGenerator = generator(new MockEnvironment());
+    CarRepository carRepository = mock(CarRepository.class);
+    when(carRepository.count()).thenReturn(4L, 10L);
+    SyntheticData data = new SyntheticData(1);
+
+    // act
+    long first = perfDataGenerator.fill("car", "cars", carRepository, data::car);
+    long second = perfDataGenerator.fill("car", "cars", carRepository, data::car);
+
+    // assert
+    assertEquals(6L, first);
+    assertEquals(0L, second);
+    verify(perfDataGenerator.resourceVersionService, times(1)).changed("cars");
+  }
+}
@@ -0,0 +1,87 @@
+package edu.ucsb.cs156.example.perf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ucsb.cs156.example.entities.UCSBDate;
+
+class SyntheticDataTests {
+
+  @Test
+  void test_same_seed_gives_same_rows() {
+    SyntheticData first = new SyntheticData(7);
+    SyntheticData second = new SyntheticData(7);
+    for (int i = 0; i < 10; i++) {
+      assertEquals(first.book(i), second.book(i));
+      assertEquals(first.movie(i), second.movie(i));
+      assertEquals(first.hotel(i), second.hotel(i));
+      assertEquals(first.restaurant(i), second.restaurant(i));
+      assertEquals(first.car(i), second.car(i));
+      assertEquals(first.bike(i), second.bike(i));
+      assertEquals(first.ucsbDate(i), second.ucsbDate(i));
+      assertEquals(first.ucsbDiningCommons(i), second.ucsbDiningCommons(i));
+      assertEquals(first.user(i), second.user(i));
+    }
+  }
+
+  @Test
+  void test_genres_are_skewed() {
+    SyntheticData data = new SyntheticData(1);
+    Map<String, Integer> counts = new HashMap<>();
+    for (int i = 0; i < 10000; i++) {
+      counts.merge(data.book(i).getGenre(), 1, Integer::sum);
+    }
+    int mostCommon = counts.get(SyntheticData.GENRES[0]);
+    int leastCommon = counts.getOrDefault(SyntheticData.GENRES[SyntheticData.GENRES.length - 1], 0);
+    assertTrue(mostCommon > 10 * leastCommon, "expected Zipf skew but got " + counts);
+  }
+
+  @Test
+  void test_zipf_returns_ranks_in_range_with_rank_zero_most_likely() {
+    SyntheticData.Zipf zipf = new SyntheticData.Zipf(5, 1.0);
+    Random random = new Random(3);
+    int[] counts = new int[5];
+    for (int i = 0; i < 10000; i++) {
+      counts[zipf.next(random)]++;
+    }
+    for (int k = 1; k < 5; k++) {
+      assertTrue(counts[0] > counts[k]);
+    }
+  }
+
+  @Test
+  void test_dates_fall_in_their_quarter() {
+    SyntheticData data = new SyntheticData(2);
+    Set<String> quarters = new HashSet<>();
+    for (int i = 0; i < 1000; i++) {
+      UCSBDate date = data.ucsbDate(i);
+      int year = Integer.parseInt(date.getQuarterYYYYQ().substring(0, 4));
+      int quarter = Integer.parseInt(date.getQuarterYYYYQ().substring(4));
+      assertEquals(year, date.getLocalDateTime().getYear());
+      assertEquals(quarter, (date.getLocalDateTime().getMonthValue() - 1) / 3 + 1);
+      quarters.add(date.getQuarterYYYYQ());
+    }
+    assertTrue(quarters.size() > 100);
+  }
+
+  @Test
+  void test_unique_columns_are_unique() {
+    SyntheticData data = new SyntheticData(4);
+    Set<String> codes = new HashSet<>();
+    Set<String> emails = new HashSet<>();
+    for (int i = 0; i < 5000; i++) {
+      codes.add(data.ucsbDiningCommons(i).getCode());
+      emails.add(data.user(i).getEmail());
+    }
+    assertEquals(5000, codes.size());
+    assertEquals(5000, emails.size());
+  }
+}
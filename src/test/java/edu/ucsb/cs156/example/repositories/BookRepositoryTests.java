@@ -0,0 +1,97 @@
+package edu.ucsb.cs156.example.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import edu.ucsb.cs156.example.entities.Book;
+
+// Not in a test transaction: the second-level cache is only filled and
+// evicted as transactions commit.
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookRepositoryTests {
+
+  @Autowired
+  BookRepository bookRepository;
+
+  @Autowired
+  EntityManagerFactory entityManagerFactory;
+
+  Book dune;
+  Book emma;
+
+  @BeforeEach
+  void setup() {
+    dune = bookRepository.save(Book.builder().name("Dune").author("Frank Herbert").genre("sf").build());
+    emma = bookRepository.save(Book.builder().name("Emma").author("Jane Austen").genre("classic").build());
+    bookRepository.findById(dune.getId());
+    bookRepository.findById(emma.getId());
+  }
+
+  @AfterEach
+  void cleanup() {
+    bookRepository.deleteAll();
+  }
+
+  private Cache secondLevel() {
+    return entityManagerFactory.unwrap(SessionFactory.class).getCache();
+  }
+
+  @Test
+  void updateById_evicts_only_that_book() {
+    assertTrue(secondLevel().containsEntity(Book.class, dune.getId()));
+
+    assertEquals(1, bookRepository.updateById(dune.getId(), "Dune Messiah", "Frank Herbert", "sf"));
+
+    assertFalse(secondLevel().containsEntity(Book.class, dune.getId()));
+    assertTrue(secondLevel().containsEntity(Book.class, emma.getId()));
+    assertEquals("Dune Messiah", bookRepository.findById(dune.getId()).orElseThrow().getName());
+  }
+
+  @Test
+  void updateById_with_the_stored_values_writes_nothing() {
+    assertEquals(0, bookRepository.updateById(dune.getId(), "Dune", "Frank Herbert", "sf"));
+
+    assertTrue(secondLevel().containsEntity(Book.class, dune.getId()));
+  }
+
+  @Test
+  void updateById_compares_nulls() {
+    assertEquals(1, bookRepository.updateById(dune.getId(), "Dune", null, "sf"));
+    assertEquals(0, bookRepository.updateById(dune.getId(), "Dune", null, "sf"));
+
+    assertEquals(null, bookRepository.findById(dune.getId()).orElseThrow().getAuthor());
+  }
+
+  @Test
+  void updateById_refreshes_cached_genre_queries() {
+    assertEquals(1, bookRepository.findAllByGenre("sf").spliterator().getExactSizeIfKnown());
+
+    bookRepository.updateById(emma.getId(), "Emma", "Jane Austen", "sf");
+
+    assertEquals(2, bookRepository.findAllByGenre("sf").spliterator().getExactSizeIfKnown());
+  }
+
+  @Test
+  void removeById_evicts_only_that_book() {
+    assertEquals(1, bookRepository.removeById(dune.getId()));
+
+    assertFalse(secondLevel().containsEntity(Book.class, dune.getId()));
+    assertTrue(secondLevel().containsEntity(Book.class, emma.getId()));
+    assertFalse(bookRepository.findById(dune.getId()).isPresent());
+    assertEquals(0, bookRepository.removeById(dune.getId()));
+  }
+}
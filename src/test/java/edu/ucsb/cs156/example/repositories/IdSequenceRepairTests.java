@@ -0,0 +1,64 @@
+package edu.ucsb.cs156.example.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * The afterMigrate callback, which raises an id sequence left behind the
+ * ids in its table (as ddl-auto=update used to create them) and otherwise
+ * leaves it alone.  Not transactional, since Flyway uses its own connection.
+ */
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdSequenceRepairTests {
+
+  @Autowired
+  Flyway flyway;
+
+  @Autowired
+  DataSource dataSource;
+
+  private JdbcTemplate jdbc() {
+    return new JdbcTemplate(dataSource);
+  }
+
+  private long nextBikeId() {
+    return jdbc().queryForObject("SELECT NEXT VALUE FOR bikes_seq", Long.class);
+  }
+
+  @AfterEach
+  void removeRow() {
+    jdbc().update("DELETE FROM bikes WHERE id = 100000");
+  }
+
+  @Test
+  void sequence_behind_the_table_is_raised_past_its_largest_id() {
+    jdbc().update("ALTER SEQUENCE bikes_seq RESTART WITH 1");
+    jdbc().update("INSERT INTO bikes (id, manufacturer, model, num_gears) VALUES (100000, 'Trek', 'FX', 21)");
+
+    flyway.migrate();
+
+    assertTrue(nextBikeId() > 100000);
+  }
+
+  @Test
+  void sequence_that_is_not_behind_is_not_moved() {
+    long before = nextBikeId();
+
+    flyway.migrate();
+
+    assertEquals(before + 50, nextBikeId());
+  }
+}
@@ -0,0 +1,126 @@
+package edu.ucsb.cs156.example.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.query.parser.Part;
+import org.springframework.data.repository.query.parser.PartTree;
+import org.springframework.data.repository.support.Repositories;
+
+/**
+ * Runs the Flyway migrations against H2, validates the resulting schema
+ * against the entity mappings, and checks that every derived query method
+ * (findByX, findAllByX, ...) filters on a column that leads some index.
+ * Methods with an explicit @Query are not checked.
+ */
+
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=validate")
+class RepositoryIndexTests {
+
+  @Autowired
+  ApplicationContext applicationContext;
+
+  @Autowired
+  EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  DataSource dataSource;
+
+  @Test
+  void every_derived_query_method_is_supported_by_an_index() throws SQLException {
+    Repositories repositories = new Repositories(applicationContext);
+    List<String> unsupported = new ArrayList<>();
+    for (Class<?> domainClass : repositories) {
+      RepositoryInformation information = repositories.getRepositoryInformationFor(domainClass).orElseThrow();
+      AbstractEntityPersister persister = persister(domainClass);
+      for (Method method : information.getQueryMethods()) {
+        if (AnnotatedElementUtils.hasAnnotation(method, Query.class)) {
+          continue;
+        }
+        Optional<Part> firstCriterion = new PartTree(method.getName(), domainClass).getParts().stream().findFirst();
+        if (firstCriterion.isEmpty()) {
+          continue;
+        }
+        String column = column(persister, firstCriterion.get().getProperty().getLeafProperty().getSegment());
+        if (!hasIndexLeadingWith(persister.getTableName(), column)) {
+          unsupported.add("%s.%s needs an index on %s(%s)".formatted(
+              information.getRepositoryInterface().getSimpleName(), method.getName(), persister.getTableName(), column));
+        }
+      }
+    }
+    assertEquals(List.of(), unsupported);
+  }
+
+  @Test
+  void index_check_reports_unindexed_columns() throws SQLException {
+    assertTrue(hasIndexLeadingWith("book", "genre"));
+    assertFalse(hasIndexLeadingWith("book", "author"));
+  }
+
+  @Test
+  void users_email_index_is_unique() throws SQLException {
+    try (Connection connection = dataSource.getConnection();
+        ResultSet indexes = indexInfo(connection, "users")) {
+      boolean unique = false;
+      while (indexes.next()) {
+        if ("email".equalsIgnoreCase(indexes.getString("COLUMN_NAME")) && !indexes.getBoolean("NON_UNIQUE")) {
+          unique = true;
+        }
+      }
+      assertTrue(unique);
+    }
+  }
+
+  private AbstractEntityPersister persister(Class<?> domainClass) {
+    return (AbstractEntityPersister) entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+        .getMetamodel()
+        .entityPersister(domainClass);
+  }
+
+  private String column(AbstractEntityPersister persister, String property) {
+    if (property.equals(persister.getIdentifierPropertyName())) {
+      return persister.getIdentifierColumnNames()[0];
+    }
+    return persister.getPropertyColumnNames(property)[0];
+  }
+
+  private boolean hasIndexLeadingWith(String table, String column) throws SQLException {
+    try (Connection connection = dataSource.getConnection();
+        ResultSet indexes = indexInfo(connection, table)) {
+      while (indexes.next()) {
+        if (indexes.getShort("ORDINAL_POSITION") == 1 && column.equalsIgnoreCase(indexes.getString("COLUMN_NAME"))) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  private ResultSet indexInfo(Connection connection, String table) throws SQLException {
+    DatabaseMetaData metaData = connection.getMetaData();
+    String name = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase() : table;
+    return metaData.getIndexInfo(null, null, name, false, false);
+  }
+}
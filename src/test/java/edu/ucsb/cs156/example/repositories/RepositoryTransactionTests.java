@@ -0,0 +1,89 @@
+package edu.ucsb.cs156.example.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import edu.ucsb.cs156.example.entities.User;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+import org.springframework.transaction.interceptor.TransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+
+/**
+ * Asks each repository proxy which transaction it would start for each
+ * method: reads (CRUD finders and every declared query method) must be
+ * read-only, so Hibernate skips dirty-checking snapshots and flushes;
+ * @Modifying queries and save must be read-write.
+ */
+
+@DataJpaTest
+class RepositoryTransactionTests {
+
+  @Autowired
+  ApplicationContext applicationContext;
+
+  @Test
+  void reads_run_in_read_only_transactions_and_writes_do_not() throws NoSuchMethodException {
+    Repositories repositories = new Repositories(applicationContext);
+    List<String> wrong = new ArrayList<>();
+    for (Class<?> domainClass : repositories) {
+      RepositoryInformation information = repositories.getRepositoryInformationFor(domainClass).orElseThrow();
+      Object repository = repositories.getRepositoryFor(domainClass).orElseThrow();
+      List<Method> methods = new ArrayList<>();
+      information.getQueryMethods().forEach(methods::add);
+      methods.add(CrudRepository.class.getMethod("findById", Object.class));
+      methods.add(CrudRepository.class.getMethod("findAll"));
+      methods.add(CrudRepository.class.getMethod("save", Object.class));
+
+      for (Method method : methods) {
+        boolean modifying = method.getName().equals("save")
+            || AnnotatedElementUtils.hasAnnotation(method, Modifying.class);
+        TransactionAttribute attribute = transactionAttribute(repository, method);
+        if (attribute == null || attribute.isReadOnly() == modifying) {
+          wrong.add(information.getRepositoryInterface().getSimpleName() + "." + method.getName());
+        }
+      }
+    }
+    assertEquals(List.of(), wrong);
+  }
+
+  @Test
+  void the_login_upsert_is_not_forced_into_a_read_only_transaction() throws NoSuchMethodException {
+    Object repository = new Repositories(applicationContext).getRepositoryFor(User.class).orElseThrow();
+    TransactionAttribute attribute = transactionAttribute(repository,
+        UserRepositoryCustom.class.getMethod("upsertOnLogin", User.class));
+    assertTrue(attribute == null || !attribute.isReadOnly());
+  }
+
+  private TransactionAttribute transactionAttribute(Object repository, Method method) {
+    assertTrue(repository instanceof Advised);
+    TransactionInterceptor interceptor = Arrays.stream(((Advised) repository).getAdvisors())
+        .map(Advisor::getAdvice)
+        .filter(TransactionInterceptor.class::isInstance)
+        .map(TransactionInterceptor.class::cast)
+        .findFirst()
+        .orElse(null);
+    assertNotNull(interceptor);
+    TransactionAttributeSource source = interceptor.getTransactionAttributeSource();
+    assertNotNull(source);
+    return source.getTransactionAttribute(method, AopUtils.getTargetClass(repository));
+  }
+}
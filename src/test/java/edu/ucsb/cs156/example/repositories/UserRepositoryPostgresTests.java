@@ -0,0 +1,85 @@
+package edu.ucsb.cs156.example.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import edu.ucsb.cs156.example.entities.User;
+
+/**
+ * The INSERT ... ON CONFLICT ... RETURNING branch of upsertOnLogin, which
+ * H2 cannot run (UserRepositoryTests covers the MERGE branch).  Runs only
+ * when TEST_POSTGRES_URL (and TEST_POSTGRES_USERNAME / TEST_POSTGRES_PASSWORD)
+ * point at a scratch database, e.g.
+ * TEST_POSTGRES_URL=jdbc:postgresql://localhost:5432/test mvn test
+ */
+
+@DataJpaTest(properties = {
+    "spring.datasource.url=${TEST_POSTGRES_URL}",
+    "spring.datasource.username=${TEST_POSTGRES_USERNAME:postgres}",
+    "spring.datasource.password=${TEST_POSTGRES_PASSWORD:postgres}"
+})
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@EnabledIfEnvironmentVariable(named = "TEST_POSTGRES_URL", matches = ".+")
+class UserRepositoryPostgresTests {
+
+  @Autowired
+  UserRepository userRepository;
+
+  @Autowired
+  JdbcTemplate jdbcTemplate;
+
+  private long lastUserId() {
+    return jdbcTemplate.queryForObject("SELECT last_value FROM users_seq", Long.class);
+  }
+
+  private User user(String email, boolean admin) {
+    return User.builder()
+        .email(email)
+        .googleSub("sub-" + email)
+        .fullName("Chris Gaucho")
+        .emailVerified(true)
+        .hostedDomain(null)
+        .admin(admin)
+        .build();
+  }
+
+  @Test
+  void second_login_does_not_duplicate_the_row() {
+    long before = userRepository.count();
+    User first = userRepository.upsertOnLogin(user("cgaucho@ucsb.edu", false));
+    User second = userRepository.upsertOnLogin(user("cgaucho@ucsb.edu", false));
+
+    assertTrue(first.getId() > 0);
+    assertEquals(first.getId(), second.getId());
+    assertFalse(second.getAdmin());
+    assertEquals(before + 1, userRepository.count());
+  }
+
+  @Test
+  void returning_users_do_not_draw_from_the_sequence() {
+    userRepository.upsertOnLogin(user("cgaucho@ucsb.edu", false));
+    long before = lastUserId();
+
+    userRepository.upsertOnLogin(user("cgaucho@ucsb.edu", false));
+    userRepository.upsertOnLogin(user("cgaucho@ucsb.edu", true));
+
+    assertEquals(before, lastUserId());
+  }
+
+  @Test
+  void admin_is_ored_and_never_cleared() {
+    userRepository.upsertOnLogin(user("cgaucho@ucsb.edu", false));
+
+    assertTrue(userRepository.upsertOnLogin(user("cgaucho@ucsb.edu", true)).getAdmin());
+    assertTrue(userRepository.upsertOnLogin(user("cgaucho@ucsb.edu", false)).getAdmin());
+  }
+}
@@ -0,0 +1,160 @@
+package edu.ucsb.cs156.example.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import edu.ucsb.cs156.example.entities.User;
+
+@DataJpaTest
+class UserRepositoryTests {
+
+  @Autowired
+  UserRepository userRepository;
+
+  @Autowired
+  TestEntityManager entityManager;
+
+  private User user(String email, boolean admin) {
+    return User.builder()
+        .email(email)
+        .googleSub("sub-" + email)
+        .pictureUrl("https://example.org/picture.jpg")
+        .fullName("Chris Gaucho")
+        .givenName("Chris")
+        .familyName("Gaucho")
+        .emailVerified(true)
+        .locale("en")
+        .hostedDomain(null)
+        .admin(admin)
+        .build();
+  }
+
+  @Test
+  void upsertOnLogin_inserts_a_new_user_with_a_generated_id() {
+    User saved = userRepository.upsertOnLogin(user("cgaucho@ucsb.edu", false));
+
+    assertTrue(saved.getId() > 0);
+    assertEquals("cgaucho@ucsb.edu", saved.getEmail());
+    assertEquals("Chris Gaucho", saved.getFullName());
+    assertFalse(saved.getAdmin());
+    assertEquals(1L, userRepository.count());
+  }
+
+  @Test
+  void upsertOnLogin_of_an_existing_email_does_not_insert_again() {
+    User first = userRepository.upsertOnLogin(user("cgaucho@ucsb.edu", false));
+    User second = userRepository.upsertOnLogin(user("cgaucho@ucsb.edu", false));
+
+    assertEquals(first.getId(), second.getId());
+    assertEquals(1L, userRepository.count());
+  }
+
+  @Test
+  void upsertOnLogin_of_an_existing_email_only_changes_the_admin_flag() {
+    User first = userRepository.upsertOnLogin(user("cgaucho@ucsb.edu", false));
+    User changed = user("cgaucho@ucsb.edu", true);
+    changed.setFullName("Christopher Gaucho");
+
+    User second = userRepository.upsertOnLogin(changed);
+
+    assertEquals(first.getId(), second.getId());
+    assertEquals("Chris Gaucho", second.getFullName());
+    assertTrue(second.getAdmin());
+    assertEquals(1L, userRepository.count());
+  }
+
+  @Test
+  void upsertOnLogin_promotes_but_never_demotes_admin() {
+    userRepository.upsertOnLogin(user("cgaucho@ucsb.edu", false));
+
+    User promoted = userRepository.upsertOnLogin(user("cgaucho@ucsb.edu", true));
+    assertTrue(promoted.getAdmin());
+
+    User notDemoted = userRepository.upsertOnLogin(user("cgaucho@ucsb.edu", false));
+    assertTrue(notDemoted.getAdmin());
+  }
+
+  @Test
+  void clearAdminByEmailIn_demotes_only_those_emails() {
+    userRepository.upsertOnLogin(user("phtcon@ucsb.edu", true));
+    userRepository.upsertOnLogin(user("cgaucho@ucsb.edu", true));
+    userRepository.upsertOnLogin(user("ldelplaya@ucsb.edu", false));
+
+    int cleared = userRepository.clearAdminByEmailIn(List.of("phtcon@ucsb.edu", "ldelplaya@ucsb.edu", "nobody@ucsb.edu"));
+    entityManager.clear();
+
+    assertEquals(1, cleared);
+    assertFalse(userRepository.findByEmail("phtcon@ucsb.edu").orElseThrow().getAdmin());
+    assertTrue(userRepository.findByEmail("cgaucho@ucsb.edu").orElseThrow().getAdmin());
+    assertFalse(userRepository.findByEmail("ldelplaya@ucsb.edu").orElseThrow().getAdmin());
+  }
+
+  @Test
+  void findMatchingAfter_matches_a_prefix_of_email_full_name_or_family_name() {
+    User first = userRepository.save(user("cgaucho@ucsb.edu", false));
+    User second = userRepository.save(user("ldelplaya@ucsb.edu", false));
+    second.setFullName("Laurie Del Playa");
+    second.setFamilyName("Del Playa");
+    userRepository.save(second);
+    userRepository.save(user("phtcon@ucsb.edu", true));
+
+    List<User> byFullName = userRepository.findMatchingAfter("laurie%", 0, PageRequest.of(0, 10));
+    List<User> byFamilyName = userRepository.findMatchingAfter("del playa%", 0, PageRequest.of(0, 10));
+    List<User> notAPrefix = userRepository.findMatchingAfter("ucsb%", 0, PageRequest.of(0, 10));
+    List<User> afterFirst = userRepository.findMatchingAfter("%", first.getId(), PageRequest.of(0, 1));
+
+    assertEquals(List.of("ldelplaya@ucsb.edu"), emails(byFullName));
+    assertEquals(List.of("ldelplaya@ucsb.edu"), emails(byFamilyName));
+    assertEquals(List.of(), emails(notAPrefix));
+    assertEquals(List.of("ldelplaya@ucsb.edu"), emails(afterFirst));
+  }
+
+  @Test
+  void findMatchingAfter_treats_escaped_wildcards_literally() {
+    userRepository.save(user("c_gaucho@ucsb.edu", false));
+    userRepository.save(user("cxgaucho@ucsb.edu", false));
+
+    List<User> users = userRepository.findMatchingAfter("c!_gaucho%", 0, PageRequest.of(0, 10));
+
+    assertEquals(List.of("c_gaucho@ucsb.edu"), emails(users));
+  }
+
+  @Test
+  void streamMatching_returns_matches_in_id_order() {
+    userRepository.save(user("phtcon@ucsb.edu", true));
+    userRepository.save(user("cgaucho@ucsb.edu", false));
+    userRepository.save(user("ldelplaya@ucsb.edu", false));
+
+    try (Stream<User> users = userRepository.streamMatching("p%")) {
+      assertEquals(List.of("phtcon@ucsb.edu"), emails(users.collect(Collectors.toList())));
+    }
+  }
+
+  @Test
+  void the_unfiltered_queries_include_users_without_email_or_name() {
+    User nameless = userRepository.save(User.builder().build());
+    User named = userRepository.save(user("cgaucho@ucsb.edu", false));
+
+    List<User> page = userRepository.findByIdGreaterThanOrderById(0, PageRequest.of(0, 10));
+
+    assertEquals(List.of(nameless.getId(), named.getId()), page.stream().map(User::getId).collect(Collectors.toList()));
+    try (Stream<User> users = userRepository.streamAllByOrderById()) {
+      assertEquals(2, users.count());
+    }
+  }
+
+  private List<String> emails(List<User> users) {
+    return users.stream().map(User::getEmail).collect(Collectors.toList());
+  }
+}
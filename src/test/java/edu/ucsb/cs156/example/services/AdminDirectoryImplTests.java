@@ -0,0 +1,163 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+
+import edu.ucsb.cs156.example.errors.AdminEmailsNotEditableException;
+import edu.ucsb.cs156.example.errors.AdminEmailsNotSavedException;
+
+class AdminDirectoryImplTests {
+
+  private AdminDirectoryImpl adminDirectory(String emailsFile) {
+    AdminDirectoryImpl adminDirectory = new AdminDirectoryImpl();
+    adminDirectory.configuredEmails = List.of("phtcon@ucsb.edu", " cgaucho@ucsb.edu ");
+    adminDirectory.emailsFile = emailsFile;
+    adminDirectory.eventPublisher = mock(ApplicationEventPublisher.class);
+    adminDirectory.init();
+    return adminDirectory;
+  }
+
+  @Test
+  void test_starts_from_configured_emails() {
+    AdminDirectoryImpl adminDirectory = adminDirectory("");
+
+    assertEquals(Set.of("phtcon@ucsb.edu", "cgaucho@ucsb.edu"), adminDirectory.getAdminEmails());
+    assertTrue(adminDirectory.isAdminEmail("cgaucho@ucsb.edu"));
+    assertFalse(adminDirectory.isAdminEmail("ldelplaya@ucsb.edu"));
+    assertFalse(adminDirectory.isAdminEmail(null));
+  }
+
+  @Test
+  void test_setAdminEmails_swaps_in_a_new_snapshot(@TempDir Path dir) {
+    AdminDirectoryImpl adminDirectory = adminDirectory(dir.resolve("admin-emails.txt").toString());
+    Set<String> before = adminDirectory.getAdminEmails();
+
+    adminDirectory.setAdminEmails(List.of("ldelplaya@ucsb.edu", ""));
+
+    assertEquals(Set.of("ldelplaya@ucsb.edu"), adminDirectory.getAdminEmails());
+    assertTrue(adminDirectory.isAdminEmail("ldelplaya@ucsb.edu"));
+    assertFalse(adminDirectory.isAdminEmail("phtcon@ucsb.edu"));
+    // readers holding the old snapshot are unaffected
+    assertEquals(Set.of("phtcon@ucsb.edu", "cgaucho@ucsb.edu"), before);
+  }
+
+  @Test
+  void test_file_replaces_configured_emails_and_is_reloaded_when_it_changes(@TempDir Path dir) throws Exception {
+    Path file = dir.resolve("admin-emails.txt");
+    Files.writeString(file, "ldelplaya@ucsb.edu,\nphtcon@ucsb.edu\n");
+    Files.setLastModifiedTime(file, FileTime.from(Instant.parse("2023-01-01T00:00:00Z")));
+
+    AdminDirectoryImpl adminDirectory = adminDirectory(file.toString());
+    assertEquals(Set.of("ldelplaya@ucsb.edu", "phtcon@ucsb.edu"), adminDirectory.getAdminEmails());
+
+    Files.writeString(file, "cgaucho@ucsb.edu ldelplaya@ucsb.edu");
+    Files.setLastModifiedTime(file, FileTime.from(Instant.parse("2023-01-02T00:00:00Z")));
+    adminDirectory.reloadIfChanged();
+
+    assertEquals(Set.of("cgaucho@ucsb.edu", "ldelplaya@ucsb.edu"), adminDirectory.getAdminEmails());
+  }
+
+  @Test
+  void test_unchanged_file_is_not_reread(@TempDir Path dir) throws Exception {
+    Path file = dir.resolve("admin-emails.txt");
+    Files.writeString(file, "ldelplaya@ucsb.edu");
+    FileTime modified = FileTime.from(Instant.parse("2023-01-01T00:00:00Z"));
+    Files.setLastModifiedTime(file, modified);
+    AdminDirectoryImpl adminDirectory = adminDirectory(file.toString());
+
+    Files.writeString(file, "cgaucho@ucsb.edu");
+    Files.setLastModifiedTime(file, modified);
+    adminDirectory.reloadIfChanged();
+
+    assertEquals(Set.of("ldelplaya@ucsb.edu"), adminDirectory.getAdminEmails());
+  }
+
+  @Test
+  void test_missing_file_keeps_configured_emails(@TempDir Path dir) {
+    AdminDirectoryImpl adminDirectory = adminDirectory(dir.resolve("missing.txt").toString());
+
+    assertEquals(Set.of("phtcon@ucsb.edu", "cgaucho@ucsb.edu"), adminDirectory.getAdminEmails());
+  }
+
+  @Test
+  void test_setAdminEmails_writes_through_to_the_file(@TempDir Path dir) throws Exception {
+    Path file = dir.resolve("admin-emails.txt");
+    Files.writeString(file, "phtcon@ucsb.edu");
+    AdminDirectoryImpl adminDirectory = adminDirectory(file.toString());
+
+    adminDirectory.setAdminEmails(List.of("ldelplaya@ucsb.edu", "cgaucho@ucsb.edu"));
+
+    assertEquals("cgaucho@ucsb.edu\nldelplaya@ucsb.edu\n", Files.readString(file));
+    adminDirectory.reloadIfChanged();
+    assertEquals(Set.of("cgaucho@ucsb.edu", "ldelplaya@ucsb.edu"), adminDirectory.getAdminEmails());
+  }
+
+  @Test
+  void test_setAdminEmails_changes_nothing_when_the_file_cannot_be_written(@TempDir Path dir) {
+    AdminDirectoryImpl adminDirectory = adminDirectory(dir.resolve("missing").resolve("admin-emails.txt").toString());
+
+    assertThrows(AdminEmailsNotSavedException.class,
+        () -> adminDirectory.setAdminEmails(List.of("ldelplaya@ucsb.edu")));
+
+    assertEquals(Set.of("phtcon@ucsb.edu", "cgaucho@ucsb.edu"), adminDirectory.getAdminEmails());
+  }
+
+  @Test
+  void test_setAdminEmails_is_refused_without_a_file() {
+    AdminDirectoryImpl adminDirectory = adminDirectory("");
+
+    assertThrows(AdminEmailsNotEditableException.class,
+        () -> adminDirectory.setAdminEmails(List.of("ldelplaya@ucsb.edu")));
+
+    assertEquals(Set.of("phtcon@ucsb.edu", "cgaucho@ucsb.edu"), adminDirectory.getAdminEmails());
+    verify(adminDirectory.eventPublisher, never()).publishEvent(any());
+  }
+
+  @Test
+  void test_setAdminEmails_publishes_the_emails_added_and_removed(@TempDir Path dir) {
+    AdminDirectoryImpl adminDirectory = adminDirectory(dir.resolve("admin-emails.txt").toString());
+
+    adminDirectory.setAdminEmails(List.of("ldelplaya@ucsb.edu", "cgaucho@ucsb.edu"));
+    adminDirectory.setAdminEmails(List.of("ldelplaya@ucsb.edu", "cgaucho@ucsb.edu"));
+
+    verify(adminDirectory.eventPublisher, times(1))
+        .publishEvent(new AdminEmailsChangedEvent(Set.of("ldelplaya@ucsb.edu"), Set.of("phtcon@ucsb.edu")));
+    verifyNoMoreInteractions(adminDirectory.eventPublisher);
+  }
+
+  @Test
+  void test_reloading_an_edited_file_publishes_the_change_but_startup_does_not(@TempDir Path dir) throws Exception {
+    Path file = dir.resolve("admin-emails.txt");
+    Files.writeString(file, "phtcon@ucsb.edu ldelplaya@ucsb.edu");
+    Files.setLastModifiedTime(file, FileTime.from(Instant.parse("2023-01-01T00:00:00Z")));
+    AdminDirectoryImpl adminDirectory = adminDirectory(file.toString());
+    verify(adminDirectory.eventPublisher, never()).publishEvent(any());
+
+    // as another server would see a change written through its endpoint
+    Files.writeString(file, "ldelplaya@ucsb.edu");
+    Files.setLastModifiedTime(file, FileTime.from(Instant.parse("2023-01-02T00:00:00Z")));
+    adminDirectory.reloadIfChanged();
+
+    verify(adminDirectory.eventPublisher)
+        .publishEvent(new AdminEmailsChangedEvent(Set.of(), Set.of("phtcon@ucsb.edu")));
+  }
+}
@@ -0,0 +1,83 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+
+class AdminStatusServiceImplTests {
+
+  private AdminStatusServiceImpl adminStatusService(String spec) {
+    AdminStatusServiceImpl adminStatusService = new AdminStatusServiceImpl();
+    adminStatusService.userRepository = mock(UserRepository.class);
+    adminStatusService.cacheStatsService = new CacheStatsServiceImpl();
+    AdminDirectoryImpl adminDirectory = new AdminDirectoryImpl();
+    adminDirectory.configuredEmails = List.of("phtcon@ucsb.edu");
+    adminDirectory.init();
+    adminStatusService.adminDirectory = adminDirectory;
+    adminStatusService.adminStatusCacheSpec = spec;
+    adminStatusService.init();
+    return adminStatusService;
+  }
+
+  private User user(String email, boolean admin) {
+    return User.builder().email(email).admin(admin).build();
+  }
+
+  @Test
+  void test_configured_admin_is_admin_without_a_database_lookup() {
+    AdminStatusServiceImpl adminStatusService = adminStatusService("maximumSize=100");
+
+    assertTrue(adminStatusService.isAdmin("phtcon@ucsb.edu"));
+    verify(adminStatusService.userRepository, never()).findByEmail(any());
+  }
+
+  @Test
+  void test_admin_flag_is_read_once_and_then_cached() {
+    AdminStatusServiceImpl adminStatusService = adminStatusService("maximumSize=100");
+    when(adminStatusService.userRepository.findByEmail("cgaucho@ucsb.edu"))
+        .thenReturn(Optional.of(user("cgaucho@ucsb.edu", true)));
+    when(adminStatusService.userRepository.findByEmail("ldelplaya@ucsb.edu"))
+        .thenReturn(Optional.of(user("ldelplaya@ucsb.edu", false)));
+
+    assertTrue(adminStatusService.isAdmin("cgaucho@ucsb.edu"));
+    assertTrue(adminStatusService.isAdmin("cgaucho@ucsb.edu"));
+    assertFalse(adminStatusService.isAdmin("ldelplaya@ucsb.edu"));
+    assertFalse(adminStatusService.isAdmin("ldelplaya@ucsb.edu"));
+
+    verify(adminStatusService.userRepository, times(1)).findByEmail("cgaucho@ucsb.edu");
+    verify(adminStatusService.userRepository, times(1)).findByEmail("ldelplaya@ucsb.edu");
+  }
+
+  @Test
+  void test_unknown_user_is_not_admin() {
+    AdminStatusServiceImpl adminStatusService = adminStatusService("maximumSize=100");
+    when(adminStatusService.userRepository.findByEmail("nobody@ucsb.edu")).thenReturn(Optional.empty());
+
+    assertFalse(adminStatusService.isAdmin("nobody@ucsb.edu"));
+  }
+
+  @Test
+  void test_invalidate_rereads_a_changed_flag() {
+    AdminStatusServiceImpl adminStatusService = adminStatusService("maximumSize=100");
+    when(adminStatusService.userRepository.findByEmail("cgaucho@ucsb.edu"))
+        .thenReturn(Optional.of(user("cgaucho@ucsb.edu", false)))
+        .thenReturn(Optional.of(user("cgaucho@ucsb.edu", true)));
+
+    assertFalse(adminStatusService.isAdmin("cgaucho@ucsb.edu"));
+    adminStatusService.invalidate("cgaucho@ucsb.edu");
+    assertTrue(adminStatusService.isAdmin("cgaucho@ucsb.edu"));
+  }
+}
@@ -0,0 +1,45 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import edu.ucsb.cs156.example.entities.Book;
+import edu.ucsb.cs156.example.repositories.BookRepository;
+
+class BulkSaveServiceTests {
+
+  @Test
+  void test_saveInChunks_saves_each_chunk_in_its_own_transaction() {
+    // arrange
+    BookRepository bookRepository = mock(BookRepository.class);
+    when(bookRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+    BulkSaveService bulkSaveService = new BulkSaveService();
+    bulkSaveService.transactionManager = mock(PlatformTransactionManager.class);
+    bulkSaveService.chunkSize = 2;
+
+    Book book1 = Book.builder().name("Dune").author("FrankHerbert").genre("SciFi").build();
+    Book book2 = Book.builder().name("Emma").author("JaneAusten").genre("Romance").build();
+    Book book3 = Book.builder().name("Ulysses").author("JamesJoyce").genre("Fiction").build();
+    List<Book> books = Arrays.asList(book1, book2, book3);
+
+    // act
+    List<Book> saved = bulkSaveService.saveInChunks(bookRepository, books);
+
+    // assert
+    assertEquals(books, saved);
+    verify(bookRepository, times(1)).saveAll(Arrays.asList(book1, book2));
+    verify(bookRepository, times(1)).saveAll(Arrays.asList(book3));
+    verify(bulkSaveService.transactionManager, times(2)).commit(any());
+  }
+}
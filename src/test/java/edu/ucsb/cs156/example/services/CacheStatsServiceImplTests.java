@@ -0,0 +1,56 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import edu.ucsb.cs156.example.models.CacheStatistics;
+
+class CacheStatsServiceImplTests {
+
+  @Test
+  void test_getCacheStatistics_reports_hits_and_misses() {
+    // arrange
+    CacheStatsService cacheStatsService = new CacheStatsServiceImpl();
+    Cache<String, String> cache = Caffeine.newBuilder().recordStats().build();
+    cacheStatsService.register("example", cache);
+
+    cache.put("a", "apple");
+    cache.getIfPresent("a");
+    cache.getIfPresent("a");
+    cache.getIfPresent("b");
+
+    // act
+    List<CacheStatistics> statistics = cacheStatsService.getCacheStatistics();
+
+    // assert
+    assertEquals(1, statistics.size());
+    CacheStatistics cs = statistics.get(0);
+    assertEquals("example", cs.getName());
+    assertEquals(1L, cs.getSize());
+    assertEquals(2L, cs.getHitCount());
+    assertEquals(1L, cs.getMissCount());
+    assertEquals(2.0 / 3.0, cs.getHitRate(), 0.0001);
+    assertEquals(0L, cs.getEvictionCount());
+  }
+
+  @Test
+  void test_getCacheStatistics_is_sorted_by_name() {
+    // arrange
+    CacheStatsService cacheStatsService = new CacheStatsServiceImpl();
+    cacheStatsService.register("zebra", Caffeine.newBuilder().recordStats().build());
+    cacheStatsService.register("apple", Caffeine.newBuilder().recordStats().build());
+
+    // act
+    List<CacheStatistics> statistics = cacheStatsService.getCacheStatistics();
+
+    // assert
+    assertEquals("apple", statistics.get(0).getName());
+    assertEquals("zebra", statistics.get(1).getName());
+  }
+}
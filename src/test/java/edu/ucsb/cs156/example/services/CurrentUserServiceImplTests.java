@@ -0,0 +1,164 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.security.oauth2.core.user.OAuth2UserAuthority;
+
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+
+class CurrentUserServiceImplTests {
+
+  private CurrentUserServiceImpl currentUserService() {
+    CurrentUserServiceImpl currentUserService = new CurrentUserServiceImpl();
+    currentUserService.userRepository = mock(UserRepository.class);
+    currentUserService.cacheStatsService = new CacheStatsServiceImpl();
+    currentUserService.adminStatusService = mock(AdminStatusService.class);
+    AdminDirectoryImpl adminDirectory = new AdminDirectoryImpl();
+    adminDirectory.configuredEmails = List.of("phtcon@ucsb.edu");
+    adminDirectory.init();
+    currentUserService.adminDirectory = adminDirectory;
+    currentUserService.userCacheSpec = "maximumSize=100";
+    currentUserService.initUserCache();
+    return currentUserService;
+  }
+
+  private OAuth2AuthenticationToken token(String email) {
+    Map<String, Object> attributes = Map.of(
+        "sub", "sub-" + email,
+        "email", email,
+        "name", "Chris Gaucho",
+        "email_verified", true);
+    DefaultOAuth2User principal = new DefaultOAuth2User(List.of(new OAuth2UserAuthority(attributes)), attributes, "email");
+    return new OAuth2AuthenticationToken(principal, principal.getAuthorities(), "google");
+  }
+
+  private User user(String email, boolean admin) {
+    return User.builder().email(email).admin(admin).build();
+  }
+
+  private User resolve(CurrentUserServiceImpl currentUserService, String email) {
+    OAuth2AuthenticationToken token = token(email);
+    return currentUserService.getOAuth2AuthenticatedUser(new SecurityContextImpl(token), token);
+  }
+
+  @Test
+  void test_user_is_read_once_and_then_cached() {
+    CurrentUserServiceImpl currentUserService = currentUserService();
+    User cgaucho = user("cgaucho@ucsb.edu", false);
+    when(currentUserService.userRepository.findByEmail("cgaucho@ucsb.edu")).thenReturn(Optional.of(cgaucho));
+
+    assertSame(cgaucho, resolve(currentUserService, "cgaucho@ucsb.edu"));
+    assertSame(cgaucho, resolve(currentUserService, "cgaucho@ucsb.edu"));
+
+    verify(currentUserService.userRepository, times(1)).findByEmail("cgaucho@ucsb.edu");
+    verify(currentUserService.userRepository, never()).upsertOnLogin(any());
+  }
+
+  @Test
+  void test_missing_row_is_upserted_and_cached() {
+    CurrentUserServiceImpl currentUserService = currentUserService();
+    User cgaucho = user("cgaucho@ucsb.edu", false);
+    when(currentUserService.userRepository.findByEmail("cgaucho@ucsb.edu")).thenReturn(Optional.empty());
+    when(currentUserService.userRepository.upsertOnLogin(any())).thenReturn(cgaucho);
+
+    assertSame(cgaucho, resolve(currentUserService, "cgaucho@ucsb.edu"));
+    assertSame(cgaucho, resolve(currentUserService, "cgaucho@ucsb.edu"));
+
+    verify(currentUserService.userRepository, times(1)).upsertOnLogin(any());
+  }
+
+  @Test
+  void test_cached_user_promoted_to_admin_is_a_miss() {
+    CurrentUserServiceImpl currentUserService = currentUserService();
+    User before = user("cgaucho@ucsb.edu", false);
+    User after = user("cgaucho@ucsb.edu", true);
+    when(currentUserService.userRepository.findByEmail("cgaucho@ucsb.edu")).thenReturn(Optional.of(before));
+    when(currentUserService.userRepository.upsertOnLogin(any())).thenReturn(after);
+    assertSame(before, resolve(currentUserService, "cgaucho@ucsb.edu"));
+
+    currentUserService.adminDirectory.setAdminEmails(List.of("phtcon@ucsb.edu", "cgaucho@ucsb.edu"));
+    User resolved = resolve(currentUserService, "cgaucho@ucsb.edu");
+
+    assertTrue(resolved.getAdmin());
+    verify(currentUserService.userRepository, times(2)).findByEmail("cgaucho@ucsb.edu");
+    verify(currentUserService.userRepository, times(1)).upsertOnLogin(any());
+    assertSame(after, resolve(currentUserService, "cgaucho@ucsb.edu"));
+  }
+
+  @Test
+  void test_recordLogin_upserts_then_invalidates_the_admin_flag_then_caches_the_row() {
+    CurrentUserServiceImpl currentUserService = currentUserService();
+    User cgaucho = user("cgaucho@ucsb.edu", true);
+    when(currentUserService.userRepository.upsertOnLogin(any())).thenReturn(cgaucho);
+
+    currentUserService.recordLogin(token("cgaucho@ucsb.edu").getPrincipal());
+
+    InOrder inOrder = inOrder(currentUserService.userRepository, currentUserService.adminStatusService);
+    inOrder.verify(currentUserService.userRepository).upsertOnLogin(any());
+    inOrder.verify(currentUserService.adminStatusService).invalidate("cgaucho@ucsb.edu");
+    assertSame(cgaucho, resolve(currentUserService, "cgaucho@ucsb.edu"));
+    verify(currentUserService.userRepository, never()).findByEmail(any());
+  }
+
+  @Test
+  void test_evictUser_drops_the_cached_user_and_admin_flag() {
+    CurrentUserServiceImpl currentUserService = currentUserService();
+    when(currentUserService.userRepository.findByEmail("cgaucho@ucsb.edu"))
+        .thenReturn(Optional.of(user("cgaucho@ucsb.edu", false)));
+    resolve(currentUserService, "cgaucho@ucsb.edu");
+
+    currentUserService.evictUser("cgaucho@ucsb.edu");
+    resolve(currentUserService, "cgaucho@ucsb.edu");
+
+    verify(currentUserService.userRepository, times(2)).findByEmail("cgaucho@ucsb.edu");
+    verify(currentUserService.adminStatusService).invalidate("cgaucho@ucsb.edu");
+  }
+
+  @Test
+  void test_removed_admin_emails_lose_the_stored_flag_and_changed_ones_are_evicted() {
+    CurrentUserServiceImpl currentUserService = currentUserService();
+    when(currentUserService.userRepository.findByEmail("phtcon@ucsb.edu"))
+        .thenReturn(Optional.of(user("phtcon@ucsb.edu", true)))
+        .thenReturn(Optional.of(user("phtcon@ucsb.edu", false)));
+    resolve(currentUserService, "phtcon@ucsb.edu");
+
+    currentUserService.onAdminEmailsChanged(
+        new AdminEmailsChangedEvent(Set.of("ldelplaya@ucsb.edu"), Set.of("phtcon@ucsb.edu")));
+
+    InOrder inOrder = inOrder(currentUserService.userRepository, currentUserService.adminStatusService);
+    inOrder.verify(currentUserService.userRepository).clearAdminByEmailIn(Set.of("phtcon@ucsb.edu"));
+    inOrder.verify(currentUserService.adminStatusService).invalidate("phtcon@ucsb.edu");
+    verify(currentUserService.adminStatusService).invalidate("ldelplaya@ucsb.edu");
+    assertFalse(resolve(currentUserService, "phtcon@ucsb.edu").getAdmin());
+  }
+
+  @Test
+  void test_only_added_admin_emails_clear_no_stored_flags() {
+    CurrentUserServiceImpl currentUserService = currentUserService();
+
+    currentUserService.onAdminEmailsChanged(new AdminEmailsChangedEvent(Set.of("ldelplaya@ucsb.edu"), Set.of()));
+
+    verify(currentUserService.userRepository, never()).clearAdminByEmailIn(any());
+    verify(currentUserService.adminStatusService).invalidate("ldelplaya@ucsb.edu");
+  }
+}
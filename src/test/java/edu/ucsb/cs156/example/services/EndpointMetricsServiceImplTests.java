@@ -0,0 +1,88 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ucsb.cs156.example.aop.MetricsAspect;
+import edu.ucsb.cs156.example.models.EndpointStatistics;
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class EndpointMetricsServiceImplTests {
+
+  private Timer timer(SimpleMeterRegistry registry, String controller, String method) {
+    return Timer.builder(MetricsAspect.LATENCY_METRIC)
+        .tag("controller", controller)
+        .tag("method", method)
+        .publishPercentiles(0.5, 0.95, 0.99)
+        .register(registry);
+  }
+
+  @Test
+  void test_getEndpointStatistics_reports_latency_errors_and_throughput() {
+    // arrange
+    MockClock clock = new MockClock();
+    SimpleMeterRegistry registry = new SimpleMeterRegistry(SimpleConfig.DEFAULT, clock);
+    EndpointMetricsServiceImpl endpointMetricsService = new EndpointMetricsServiceImpl();
+    endpointMetricsService.meterRegistry = registry;
+    endpointMetricsService.recordStartTime();
+
+    Timer getById = timer(registry, "HotelsController", "getById");
+    getById.record(10, TimeUnit.MILLISECONDS);
+    getById.record(30, TimeUnit.MILLISECONDS);
+    registry.counter(MetricsAspect.ERROR_METRIC,
+        "controller", "HotelsController",
+        "method", "getById",
+        "exception", "EntityNotFoundException").increment();
+    clock.add(Duration.ofSeconds(4));
+
+    // act
+    List<EndpointStatistics> statistics = endpointMetricsService.getEndpointStatistics();
+
+    // assert
+    assertEquals(1, statistics.size());
+    EndpointStatistics es = statistics.get(0);
+    assertEquals("HotelsController", es.getController());
+    assertEquals("getById", es.getMethod());
+    assertEquals(2L, es.getCount());
+    assertEquals(1L, es.getErrorCount());
+    assertEquals(0.5, es.getRequestsPerSecond(), 0.0001);
+    assertEquals(20.0, es.getMeanMillis(), 0.0001);
+    assertEquals(30.0, es.getMaxMillis(), 0.0001);
+    assertNotNull(es.getP50Millis());
+    assertNotNull(es.getP95Millis());
+    assertNotNull(es.getP99Millis());
+  }
+
+  @Test
+  void test_getEndpointStatistics_is_sorted_by_controller_and_method() {
+    // arrange
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    EndpointMetricsServiceImpl endpointMetricsService = new EndpointMetricsServiceImpl();
+    endpointMetricsService.meterRegistry = registry;
+    endpointMetricsService.recordStartTime();
+
+    timer(registry, "UCSBDatesController", "getById");
+    timer(registry, "HotelsController", "updateHotel");
+    timer(registry, "HotelsController", "getById");
+
+    // act
+    List<EndpointStatistics> statistics = endpointMetricsService.getEndpointStatistics();
+
+    // assert
+    assertEquals(3, statistics.size());
+    assertEquals("HotelsController.getById", statistics.get(0).getController() + "." + statistics.get(0).getMethod());
+    assertEquals("HotelsController.updateHotel", statistics.get(1).getController() + "." + statistics.get(1).getMethod());
+    assertEquals("UCSBDatesController.getById", statistics.get(2).getController() + "." + statistics.get(2).getMethod());
+    assertEquals(0L, statistics.get(0).getErrorCount());
+    assertEquals(0.0, statistics.get(0).getRequestsPerSecond(), 0.0001);
+  }
+}
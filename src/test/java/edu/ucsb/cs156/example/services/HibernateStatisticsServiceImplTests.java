@@ -0,0 +1,94 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+
+import edu.ucsb.cs156.example.models.CacheStatistics;
+import edu.ucsb.cs156.example.models.HibernateStatistics;
+
+class HibernateStatisticsServiceImplTests {
+
+  private HibernateStatisticsServiceImpl serviceFor(Statistics stats) {
+    SessionFactory sessionFactory = mock(SessionFactory.class);
+    when(sessionFactory.getStatistics()).thenReturn(stats);
+    EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+    when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+
+    HibernateStatisticsServiceImpl service = new HibernateStatisticsServiceImpl();
+    service.entityManagerFactory = entityManagerFactory;
+    return service;
+  }
+
+  @Test
+  void test_getHibernateStatistics_reports_counters_and_regions() {
+    // arrange
+    Statistics stats = mock(Statistics.class);
+    when(stats.isStatisticsEnabled()).thenReturn(true);
+    when(stats.getSessionOpenCount()).thenReturn(4L);
+    when(stats.getPrepareStatementCount()).thenReturn(2L);
+    when(stats.getEntityLoadCount()).thenReturn(2L);
+    when(stats.getSecondLevelCacheHitCount()).thenReturn(6L);
+    when(stats.getSecondLevelCacheMissCount()).thenReturn(2L);
+    when(stats.getSecondLevelCachePutCount()).thenReturn(2L);
+    when(stats.getQueryCacheHitCount()).thenReturn(3L);
+    when(stats.getQueryCacheMissCount()).thenReturn(1L);
+    when(stats.getQueryCachePutCount()).thenReturn(1L);
+    when(stats.getSecondLevelCacheRegionNames())
+        .thenReturn(new String[] { "edu.ucsb.cs156.example.entities.UCSBDate", "default-update-timestamps-region" });
+
+    CacheRegionStatistics region = mock(CacheRegionStatistics.class);
+    when(region.getElementCountInMemory()).thenReturn(2L);
+    when(region.getHitCount()).thenReturn(6L);
+    when(region.getMissCount()).thenReturn(2L);
+    when(stats.getCacheRegionStatistics("edu.ucsb.cs156.example.entities.UCSBDate")).thenReturn(region);
+
+    // act
+    HibernateStatistics result = serviceFor(stats).getHibernateStatistics();
+
+    // assert
+    assertEquals(true, result.getStatisticsEnabled());
+    assertEquals(4L, result.getSessionOpenCount());
+    assertEquals(2L, result.getPrepareStatementCount());
+    assertEquals(0.5, result.getStatementsPerSession(), 0.0001);
+    assertEquals(2L, result.getEntityLoadCount());
+    assertEquals(6L, result.getSecondLevelCacheHitCount());
+    assertEquals(2L, result.getSecondLevelCacheMissCount());
+    assertEquals(2L, result.getSecondLevelCachePutCount());
+    assertEquals(3L, result.getQueryCacheHitCount());
+    assertEquals(1L, result.getQueryCacheMissCount());
+    assertEquals(1L, result.getQueryCachePutCount());
+
+    assertEquals(1, result.getRegions().size());
+    CacheStatistics cs = result.getRegions().get(0);
+    assertEquals("edu.ucsb.cs156.example.entities.UCSBDate", cs.getName());
+    assertEquals(2L, cs.getSize());
+    assertEquals(6L, cs.getHitCount());
+    assertEquals(2L, cs.getMissCount());
+    assertEquals(0.75, cs.getHitRate(), 0.0001);
+  }
+
+  @Test
+  void test_getHibernateStatistics_before_any_activity() {
+    // arrange
+    Statistics stats = mock(Statistics.class);
+    when(stats.getSecondLevelCacheRegionNames()).thenReturn(new String[] { "default-query-results-region" });
+    CacheRegionStatistics region = mock(CacheRegionStatistics.class);
+    when(stats.getCacheRegionStatistics("default-query-results-region")).thenReturn(region);
+
+    // act
+    HibernateStatistics result = serviceFor(stats).getHibernateStatistics();
+
+    // assert
+    assertEquals(false, result.getStatisticsEnabled());
+    assertEquals(0.0, result.getStatementsPerSession(), 0.0001);
+    assertEquals(1.0, result.getRegions().get(0).getHitRate(), 0.0001);
+  }
+}
@@ -0,0 +1,72 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.ucsb.cs156.example.entities.Book;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { JsonStreamingService.class, JacksonAutoConfiguration.class })
+class JsonStreamingServiceTests {
+
+  @MockBean
+  EntityManager entityManager;
+
+  @MockBean
+  PlatformTransactionManager transactionManager;
+
+  @Autowired
+  ObjectMapper mapper;
+
+  @Autowired
+  JsonStreamingService jsonStreamingService;
+
+  @Test
+  void test_streamJsonArray_writes_every_row_and_detaches_it() throws Exception {
+    // arrange
+    Book book1 = Book.builder().id(1L).name("Dune").author("FrankHerbert").genre("SciFi").build();
+    Book book2 = Book.builder().id(2L).name("Emma").author("JaneAusten").genre("Romance").build();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    // act
+    jsonStreamingService.streamJsonArray(() -> Stream.of(book1, book2)).writeTo(out);
+
+    // assert
+    assertEquals(mapper.writeValueAsString(Arrays.asList(book1, book2)), out.toString("UTF-8"));
+    verify(entityManager, times(1)).detach(book1);
+    verify(entityManager, times(1)).detach(book2);
+    verify(transactionManager, times(1)).getTransaction(any());
+    verify(transactionManager, times(1)).commit(any());
+  }
+
+  @Test
+  void test_streamJsonArray_writes_empty_array_for_empty_table() throws Exception {
+    // arrange
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    // act
+    jsonStreamingService.streamJsonArray(Stream::<Book>empty).writeTo(out);
+
+    // assert
+    assertEquals("[]", out.toString("UTF-8"));
+  }
+}
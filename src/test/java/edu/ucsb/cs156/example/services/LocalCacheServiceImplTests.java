@@ -0,0 +1,78 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Set;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.Metamodel;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import edu.ucsb.cs156.example.entities.Hotel;
+import edu.ucsb.cs156.example.entities.UCSBDate;
+
+class LocalCacheServiceImplTests {
+
+  LocalCacheServiceImpl localCacheService = new LocalCacheServiceImpl();
+  Cache secondLevel = mock(Cache.class);
+
+  @BeforeEach
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  void setup() {
+    EntityType dates = mock(EntityType.class);
+    when(dates.getName()).thenReturn("ucsbdates");
+    when(dates.getJavaType()).thenReturn(UCSBDate.class);
+    EntityType hotels = mock(EntityType.class);
+    when(hotels.getName()).thenReturn("hotels");
+    when(hotels.getJavaType()).thenReturn(Hotel.class);
+    Metamodel metamodel = mock(Metamodel.class);
+    when(metamodel.getEntities()).thenReturn(Set.of(dates, hotels));
+    SessionFactory sessionFactory = mock(SessionFactory.class);
+    when(sessionFactory.getCache()).thenReturn(secondLevel);
+    EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+    when(entityManagerFactory.getMetamodel()).thenReturn(metamodel);
+    when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+
+    localCacheService.cacheManager = new ConcurrentMapCacheManager("ucsbdates", "book");
+    localCacheService.entityManagerFactory = entityManagerFactory;
+  }
+
+  @Test
+  void test_evict_empties_the_cache_and_region_for_that_collection() {
+    localCacheService.cacheManager.getCache("ucsbdates").put(1L, "date");
+    localCacheService.cacheManager.getCache("book").put(1L, "book");
+
+    localCacheService.evict("ucsbdates");
+
+    assertNull(localCacheService.cacheManager.getCache("ucsbdates").get(1L));
+    assertNotNull(localCacheService.cacheManager.getCache("book").get(1L));
+    verify(secondLevel).evictEntityData(UCSBDate.class);
+    verify(secondLevel).evictQueryRegions();
+  }
+
+  @Test
+  void test_evict_leaves_the_second_level_cache_alone_for_uncached_entities() {
+    localCacheService.evict("hotels");
+
+    verify(secondLevel, never()).evictEntityData(Hotel.class);
+    verify(secondLevel, never()).evictQueryRegions();
+  }
+
+  @Test
+  void test_evict_ignores_collections_without_caches() {
+    localCacheService.evict("movies");
+
+    verify(secondLevel, never()).evictQueryRegions();
+  }
+}
@@ -0,0 +1,94 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import edu.ucsb.cs156.example.entities.Movie;
+import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+import edu.ucsb.cs156.example.errors.UnknownFieldsException;
+import edu.ucsb.cs156.example.repositories.MovieRepository;
+import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsRepository;
+
+@DataJpaTest
+@Import(ProjectionService.class)
+class ProjectionServiceTests {
+
+  @Autowired
+  ProjectionService projectionService;
+
+  @Autowired
+  MovieRepository movieRepository;
+
+  @Autowired
+  UCSBDiningCommonsRepository ucsbDiningCommonsRepository;
+
+  List<Movie> movies;
+
+  @BeforeEach
+  void seed() {
+    movies = List.of(
+        movieRepository.save(Movie.builder().name("Up").synopsis("An old man flies his house").castMembers("Ed Asner").build()),
+        movieRepository.save(Movie.builder().name("Jaws").synopsis("A shark terrorizes a town").castMembers("Roy Scheider").build()),
+        movieRepository.save(Movie.builder().name("Heat").synopsis("A detective hunts a thief").castMembers("Al Pacino").build()));
+  }
+
+  @Test
+  void findAll_returns_only_the_requested_fields_with_the_id_first() {
+    List<Map<String, Object>> rows = projectionService.findAll(Movie.class, List.of("name"));
+
+    assertEquals(3, rows.size());
+    Map<String, Object> up = rows.stream()
+        .filter(row -> row.get("name").equals("Up"))
+        .findFirst()
+        .orElseThrow();
+    assertEquals(List.of("id", "name"), List.copyOf(up.keySet()));
+    assertEquals(movies.get(0).getId(), up.get("id"));
+  }
+
+  @Test
+  void findAll_keeps_the_requested_order_and_ignores_repeats() {
+    List<Map<String, Object>> rows = projectionService.findAll(Movie.class, List.of("castMembers", "name", "id", "name"));
+
+    assertEquals(List.of("id", "castMembers", "name"), List.copyOf(rows.get(0).keySet()));
+  }
+
+  @Test
+  void findAfter_pages_in_id_order() {
+    long firstId = movies.get(0).getId();
+
+    List<Map<String, Object>> rows = projectionService.findAfter(Movie.class, List.of("name"), firstId, 1);
+
+    assertEquals(List.of(Map.of("id", movies.get(1).getId(), "name", "Jaws")), rows);
+  }
+
+  @Test
+  void findAfter_pages_entities_with_string_ids() {
+    ucsbDiningCommonsRepository.save(UCSBDiningCommons.builder().code("ortega").name("Ortega").build());
+    ucsbDiningCommonsRepository.save(UCSBDiningCommons.builder().code("carrillo").name("Carrillo").build());
+    ucsbDiningCommonsRepository.save(UCSBDiningCommons.builder().code("de-la-guerra").name("De La Guerra").build());
+
+    List<Map<String, Object>> rows = projectionService.findAfter(UCSBDiningCommons.class, List.of("name"), "carrillo", 10);
+
+    assertEquals(List.of("de-la-guerra", "ortega"), rows.stream()
+        .map(row -> row.get("code"))
+        .collect(Collectors.toList()));
+  }
+
+  @Test
+  void unknown_fields_are_rejected() {
+    UnknownFieldsException e = assertThrows(UnknownFieldsException.class,
+        () -> projectionService.findAll(Movie.class, List.of("name", "rating", "budget")));
+
+    assertEquals("Movie has no field(s) rating, budget", e.getMessage());
+  }
+}
@@ -0,0 +1,109 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import edu.ucsb.cs156.example.repositories.ResourceVersionRepository;
+
+@DataJpaTest
+@Import(ResourceVersionServiceImpl.class)
+class ResourceVersionServiceImplTests {
+
+  @Autowired
+  ResourceVersionService resourceVersionService;
+
+  @Autowired
+  ResourceVersionRepository resourceVersionRepository;
+
+  @MockBean
+  LocalCacheService localCacheService;
+
+  // a second server using the same database
+  private ResourceVersionServiceImpl otherServer() {
+    ResourceVersionServiceImpl other = new ResourceVersionServiceImpl();
+    other.resourceVersionRepository = resourceVersionRepository;
+    other.localCacheService = mock(LocalCacheService.class);
+    return other;
+  }
+
+  @Test
+  void test_changed_moves_only_that_collection_on() {
+    long dates = resourceVersionService.getVersion("ucsbdates");
+    String datesTag = resourceVersionService.getETag("ucsbdates");
+    String booksTag = resourceVersionService.getETag("book");
+
+    resourceVersionService.changed("ucsbdates");
+
+    assertEquals(dates + 1, resourceVersionService.getVersion("ucsbdates"));
+    assertNotEquals(datesTag, resourceVersionService.getETag("ucsbdates"));
+    assertEquals(booksTag, resourceVersionService.getETag("book"));
+  }
+
+  @Test
+  void test_a_change_on_one_server_is_seen_by_the_others() {
+    ResourceVersionService other = otherServer();
+    String tag = other.getETag("ucsbdates");
+
+    resourceVersionService.changed("ucsbdates");
+
+    assertNotEquals(tag, other.getETag("ucsbdates"));
+    assertEquals(resourceVersionService.getETag("ucsbdates"), other.getETag("ucsbdates"));
+  }
+
+  @Test
+  void test_changed_starts_a_collection_that_has_never_been_read() {
+    long before = System.currentTimeMillis();
+
+    resourceVersionService.changed("hotels");
+
+    assertTrue(resourceVersionService.getVersion("hotels") > before);
+  }
+
+  @Test
+  void test_other_representations_get_their_own_tag_for_the_same_version() {
+    String json = resourceVersionService.getETag("ucsbdates");
+    String cbor = resourceVersionService.getETag("ucsbdates", "cbor");
+
+    assertTrue(json.startsWith("\"") && json.endsWith("\""));
+    assertEquals(json, resourceVersionService.getETag("ucsbdates", null));
+    assertNotEquals(json, cbor);
+    assertTrue(cbor.endsWith("-cbor\""));
+  }
+
+  @Test
+  void test_a_change_on_another_server_empties_this_servers_caches_once() {
+    ResourceVersionServiceImpl other = otherServer();
+    other.getVersion("ucsbdates");
+    other.getVersion("ucsbdates");
+    verify(other.localCacheService, never()).evict("ucsbdates");
+
+    resourceVersionService.changed("ucsbdates");
+    other.getVersion("ucsbdates");
+    other.getVersion("ucsbdates");
+
+    verify(other.localCacheService, times(1)).evict("ucsbdates");
+    verify(other.localCacheService, never()).evict("book");
+  }
+
+  @Test
+  void test_a_server_that_has_not_seen_a_collection_has_nothing_to_empty() {
+    clearInvocations(localCacheService);
+    resourceVersionService.changed("movies");
+
+    resourceVersionService.getVersion("movies");
+
+    verify(localCacheService, never()).evict("movies");
+  }
+}
@@ -0,0 +1,36 @@
+package edu.ucsb.cs156.example.testconfig;
+
+import edu.ucsb.cs156.example.services.ResourceVersionService;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Stands in for ResourceVersionServiceImpl in the controller tests, which
+// have no database: the same tags, from counters held in memory.
+
+public class InMemoryResourceVersionService extends ResourceVersionService {
+
+  private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
+  public long getVersion(String collection) {
+    return counter(collection).get();
+  }
+
+  public String getETag(String collection) {
+    return getETag(collection, null);
+  }
+
+  public String getETag(String collection, String representation) {
+    String tag = collection + "-" + getVersion(collection);
+    return "\"" + (representation == null ? tag : tag + "-" + representation) + "\"";
+  }
+
+  public void changed(String collection) {
+    counter(collection).incrementAndGet();
+  }
+
+  private AtomicLong counter(String collection) {
+    return versions.computeIfAbsent(collection, c -> new AtomicLong());
+  }
+}
@@ -3,8 +3,15 @@ package edu.ucsb.cs156.example.testconfig;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 
+import edu.ucsb.cs156.example.services.AdminDirectory;
+import edu.ucsb.cs156.example.services.AdminDirectoryImpl;
+import edu.ucsb.cs156.example.services.AdminStatusService;
+import edu.ucsb.cs156.example.services.AdminStatusServiceImpl;
+import edu.ucsb.cs156.example.services.CacheStatsService;
+import edu.ucsb.cs156.example.services.CacheStatsServiceImpl;
 import edu.ucsb.cs156.example.services.CurrentUserService;
 import edu.ucsb.cs156.example.services.GrantedAuthoritiesService;
+import edu.ucsb.cs156.example.services.ResourceVersionService;
 
 @TestConfiguration
 public class TestConfig {
@@ -18,4 +25,24 @@ public class TestConfig {
     public GrantedAuthoritiesService grantedAuthoritiesService() {
         return new GrantedAuthoritiesService();
     }
+
+    @Bean
+    public CacheStatsService cacheStatsService() {
+        return new CacheStatsServiceImpl();
+    }
+
+    @Bean
+    public AdminDirectory adminDirectory() {
+        return new AdminDirectoryImpl();
+    }
+
+    @Bean
+    public AdminStatusService adminStatusService() {
+        return new AdminStatusServiceImpl();
+    }
+
+    @Bean
+    public ResourceVersionService resourceVersionService() {
+        return new InMemoryResourceVersionService();
+    }
 }
@@ -0,0 +1,48 @@
+package edu.ucsb.cs156.example.util;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+public class AcceptEncodingTests {
+
+  @Test
+  public void listed_codings_are_accepted_in_any_case_and_with_any_nonzero_weight() {
+    assertTrue(AcceptEncoding.accepts(requestAccepting("gzip"), "gzip"));
+    assertTrue(AcceptEncoding.accepts(requestAccepting("br;q=1.0, GZIP;q=0.5"), "gzip"));
+    assertTrue(AcceptEncoding.accepts(requestAccepting("gzip;q=0.001"), "gzip"));
+    assertTrue(AcceptEncoding.accepts(requestAccepting("deflate, br"), "br"));
+  }
+
+  @Test
+  public void a_weight_of_zero_refuses_the_coding() {
+    assertFalse(AcceptEncoding.accepts(requestAccepting("gzip;q=0"), "gzip"));
+    assertFalse(AcceptEncoding.accepts(requestAccepting("gzip; q=0.0"), "gzip"));
+    assertFalse(AcceptEncoding.accepts(requestAccepting("gzip;Q=0.000"), "gzip"));
+    assertFalse(AcceptEncoding.accepts(requestAccepting("gzip, br;q=0"), "br"));
+    assertTrue(AcceptEncoding.accepts(requestAccepting("gzip, br;q=0"), "gzip"));
+  }
+
+  @Test
+  public void codings_that_are_not_listed_are_not_accepted() {
+    assertFalse(AcceptEncoding.accepts(requestAccepting("identity"), "gzip"));
+    assertFalse(AcceptEncoding.accepts(requestAccepting("x-gzip"), "gzip"));
+    assertFalse(AcceptEncoding.accepts(new MockHttpServletRequest(), "gzip"));
+  }
+
+  @Test
+  public void every_accept_encoding_header_is_read() {
+    MockHttpServletRequest request = requestAccepting("identity");
+    request.addHeader("Accept-Encoding", "br");
+
+    assertTrue(AcceptEncoding.accepts(request, "br"));
+  }
+
+  private MockHttpServletRequest requestAccepting(String acceptEncoding) {
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.addHeader("Accept-Encoding", acceptEncoding);
+    return request;
+  }
+}